@@ -0,0 +1,59 @@
+package binder.core;
+
+import binder.io.SyntheticDataGenerator;
+import binder.runner.Config;
+import binder.utils.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Macrobenchmark of complete runs over synthetic datasets of several sizes, from the initialization to the output of the n-ary pINDs.
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BINDERBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int numRows;
+
+    @Param({"4"})
+    public int numTables;
+
+    @Param({"8"})
+    public int numColumnsPerTable;
+
+    @Param({"INDEX", "MERGE", "DICTIONARY"})
+    public Config.ValidationStrategy validationStrategy;
+
+    private File folder;
+    private Config config;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.folder = Files.createTempDirectory("pBINDER-execute").toFile();
+        // The generator also sets the relation names of the config, so that every invocation only runs BINDER on the dataset of the trial
+        this.config = BenchmarkData.newSyntheticConfig(this.folder, this.numTables, this.numColumnsPerTable, this.numRows);
+        this.config.validationStrategy = this.validationStrategy;
+        SyntheticDataGenerator.generate(this.config);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtils.deleteDirectory(this.folder);
+    }
+
+    @Benchmark
+    public int execute() throws IOException {
+        BINDERFile binder = BenchmarkData.newBinder(this.config);
+        binder.execute();
+        return binder.numUnaryINDs + binder.numNaryINDs;
+    }
+}
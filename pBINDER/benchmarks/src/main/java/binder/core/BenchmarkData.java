@@ -0,0 +1,117 @@
+package binder.core;
+
+import binder.io.BucketCodec;
+import binder.io.DefaultFileInputGenerator;
+import binder.runner.Config;
+import binder.structures.ValueCountMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Seeded generators for the data of the benchmarks, so that every run of a benchmark works on exactly the same values.
+ */
+final class BenchmarkData {
+
+    static final long SEED = 42L;
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * @param random    the source of randomness
+     * @param maxLength the maximal number of characters of a value
+     * @return a random alphanumeric value of one to maxLength characters
+     */
+    static String randomValue(Random random, int maxLength) {
+        char[] value = new char[1 + random.nextInt(maxLength)];
+        for (int i = 0; i < value.length; i++)
+            value[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        return new String(value);
+    }
+
+    /**
+     * @return numValues random values, which may contain duplicates
+     */
+    static String[] randomValues(long seed, int numValues, int maxLength) {
+        Random random = new Random(seed);
+        String[] values = new String[numValues];
+        for (int i = 0; i < numValues; i++)
+            values[i] = randomValue(random, maxLength);
+        return values;
+    }
+
+    /**
+     * @return a bucket of numValues distinct values, each with a random number of occurrences
+     */
+    static ValueCountMap randomBucket(long seed, int numValues, int maxLength) {
+        Random random = new Random(seed);
+        ValueCountMap bucket = new ValueCountMap();
+        while (bucket.size() < numValues)
+            bucket.add(randomValue(random, maxLength), 1 + random.nextInt(5));
+        return bucket;
+    }
+
+    /**
+     * @return the configuration of a run over a synthetic dataset in the given folder, which is generated with the benchmark's seed
+     */
+    static Config newSyntheticConfig(File folder, int numTables, int numColumns, long numRows) {
+        Config config = new Config(Config.Dataset.SYNTHETIC, 0.99, Config.NullHandling.SUBSET, Config.DuplicateHandling.AWARE);
+        config.datasetFolder = folder.getPath() + File.separator;
+        config.tempFolder = folder.getPath() + File.separator + "temp";
+        config.resultFolder = folder.getPath() + File.separator + "results";
+        config.writeResults = false;
+        config.syntheticTables = numTables;
+        config.syntheticColumns = numColumns;
+        config.syntheticRows = numRows;
+        config.syntheticSeed = SEED;
+        return config;
+    }
+
+    /**
+     * @return a BINDER run over the given tables as the runner would set it up
+     */
+    static BINDERFile newBinder(Config config) throws IOException {
+        DefaultFileInputGenerator[] fileInputGenerators = new DefaultFileInputGenerator[config.relationNames.length];
+        for (int i = 0; i < config.relationNames.length; i++)
+            fileInputGenerators[i] = new DefaultFileInputGenerator(config, i);
+
+        BINDERFile binder = new BINDERFile();
+        binder.setRelationalInputConfigurationValue2(BINDERFile.Identifier.INPUT_FILES.name(), fileInputGenerators);
+        binder.setStringConfigurationValue(BINDERFile.Identifier.TEMP_FOLDER_PATH.name(), config.tempFolder);
+        binder.setBooleanConfigurationValue(BINDERFile.Identifier.CLEAN_TEMP.name(), true);
+        binder.setBooleanConfigurationValue(BINDERFile.Identifier.DETECT_NARY.name(), config.detectNary);
+        binder.setConfig(config);
+        return binder;
+    }
+
+    /**
+     * @return a BINDER that is only initialized far enough to write, read and refine the buckets of numAttributes attributes in the given folder
+     */
+    static BINDERFile newBucketBinder(File tempFolder, int numAttributes, Config.BucketFormat bucketFormat) {
+        Config config = new Config(Config.Dataset.TEST, 0.99, Config.NullHandling.SUBSET, Config.DuplicateHandling.AWARE);
+        config.bucketFormat = bucketFormat;
+
+        BINDERFile binder = new BINDERFile();
+        binder.setConfig(config);
+        binder.tempFolder = tempFolder;
+        binder.numColumns = numAttributes;
+        binder.bucketCodec = BucketCodec.forFormat(bucketFormat);
+        binder.numBucketPieces = new int[numAttributes];
+        Arrays.fill(binder.numBucketPieces, 1);
+        binder.columnSizes = new ArrayList<>(numAttributes);
+        binder.bucketSizes = new ArrayList<>(numAttributes);
+        for (int attribute = 0; attribute < numAttributes; attribute++) {
+            binder.columnSizes.add(0L);
+            binder.bucketSizes.add(new long[binder.numBucketsPerColumn]);
+        }
+        binder.refinements = new int[binder.numBucketsPerColumn];
+        binder.maxMemoryUsage = Runtime.getRuntime().maxMemory() / 2;
+        binder.memoryManager = new MemoryManager(binder.maxMemoryUsage, false);
+        return binder;
+    }
+}
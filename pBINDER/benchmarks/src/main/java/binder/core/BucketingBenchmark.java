@@ -0,0 +1,75 @@
+package binder.core;
+
+import binder.runner.Config;
+import binder.structures.ValueCountMap;
+import binder.utils.FileUtils;
+import binder.utils.HashUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks of the unary bucketing: hashing values and assigning them to buckets and writing and reading a bucket file.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BucketingBenchmark {
+
+    private static final int NUM_VALUES = 1 << 16;
+
+    @Param({"10", "1000"})
+    public int numBucketsPerColumn;
+
+    @Param({"1000", "100000"})
+    public int bucketSize;
+
+    @Param({"BINARY", "TEXT"})
+    public Config.BucketFormat bucketFormat;
+
+    private String[] values;
+    private ValueCountMap bucket;
+    private File tempFolder;
+    private BINDERFile binder;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.values = BenchmarkData.randomValues(BenchmarkData.SEED, NUM_VALUES, 20);
+        this.bucket = BenchmarkData.randomBucket(BenchmarkData.SEED, this.bucketSize, 20);
+        this.tempFolder = Files.createTempDirectory("pBINDER-bucketing").toFile();
+        this.binder = BenchmarkData.newBucketBinder(this.tempFolder, 1, this.bucketFormat);
+    }
+
+    @Setup(Level.Invocation)
+    public void cleanBuckets() {
+        // Bucket files are appended to, so every write starts from an empty folder
+        FileUtils.cleanDirectory(this.tempFolder);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        FileUtils.deleteDirectory(this.tempFolder);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(NUM_VALUES)
+    public void calculateBucketFor(Blackhole blackhole) {
+        for (String value : this.values)
+            blackhole.consume(Bucketizer.calculateBucketFor(HashUtils.hash(value), this.numBucketsPerColumn));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public ValueCountMap writeAndReadBucket() throws IOException {
+        Bucketizer.writeBucket(this.binder, 0, 0, -1, this.bucket);
+        return Bucketizer.readBucketAsList(this.binder, 0, 0, -1);
+    }
+}
@@ -0,0 +1,63 @@
+package binder.core;
+
+import binder.runner.Config;
+import binder.structures.AttributeCombination;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark of the apriori-style generation of the n-ary candidates from the pINDs of the previous layer.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CandidateGenerationBenchmark {
+
+    @Param({"10", "30"})
+    public int numColumnsPerTable;
+
+    @Param({"0.3"})
+    public double pINDDensity;
+
+    private BINDERFile binder;
+    private Map<AttributeCombination, List<AttributeCombination>> unaryDep2ref;
+    private Map<AttributeCombination, List<AttributeCombination>> binaryDep2ref;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int numColumns = 2 * this.numColumnsPerTable;
+        this.binder = BenchmarkData.newBucketBinder(null, numColumns, Config.BucketFormat.BINARY);
+        for (int column = 0; column < numColumns; column++)
+            this.binder.columnSizes.set(column, 1L);
+
+        // A random share of all pairs of columns are unary pINDs
+        Random random = new Random(BenchmarkData.SEED);
+        this.unaryDep2ref = new HashMap<>();
+        for (int dep = 0; dep < numColumns; dep++) {
+            List<AttributeCombination> refs = new ArrayList<>();
+            for (int ref = 0; ref < numColumns; ref++)
+                if ((dep != ref) && (random.nextDouble() < this.pINDDensity))
+                    refs.add(new AttributeCombination(ref / this.numColumnsPerTable, 0L, ref));
+            if (!refs.isEmpty())
+                this.unaryDep2ref.put(new AttributeCombination(dep / this.numColumnsPerTable, 0L, dep), refs);
+        }
+
+        // All binary candidates are taken as valid, which maximizes the ternary candidates
+        this.binaryDep2ref = this.binder.generateNPlusOneAryCandidates(this.unaryDep2ref);
+    }
+
+    @Benchmark
+    public Map<AttributeCombination, List<AttributeCombination>> generateBinaryCandidates() {
+        return this.binder.generateNPlusOneAryCandidates(this.unaryDep2ref);
+    }
+
+    @Benchmark
+    public Map<AttributeCombination, List<AttributeCombination>> generateTernaryCandidates() {
+        return this.binder.generateNPlusOneAryCandidates(this.binaryDep2ref);
+    }
+}
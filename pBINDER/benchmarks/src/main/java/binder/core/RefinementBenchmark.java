@@ -0,0 +1,76 @@
+package binder.core;
+
+import binder.runner.Config;
+import binder.utils.FileUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark of the refinement, which splits a bucket level of all active attributes into sub buckets that fit into memory.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RefinementBenchmark {
+
+    @Param({"10", "50"})
+    public int numAttributes;
+
+    @Param({"10000"})
+    public int bucketSize;
+
+    @Param({"4", "16"})
+    public int numSubBuckets;
+
+    private File tempFolder;
+    private BINDERFile binder;
+    private BitSet activeAttributes;
+    private long maxLevelMemory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.tempFolder = Files.createTempDirectory("pBINDER-refinement").toFile();
+        this.binder = BenchmarkData.newBucketBinder(this.tempFolder, this.numAttributes, Config.BucketFormat.BINARY);
+        this.activeAttributes = new BitSet(this.numAttributes);
+        for (int attribute = 0; attribute < this.numAttributes; attribute++) {
+            Bucketizer.writeBucket(this.binder, attribute, 0, -1, BenchmarkData.randomBucket(BenchmarkData.SEED + attribute, this.bucketSize, 20));
+            this.activeAttributes.set(attribute);
+        }
+
+        // The memory would fit one of numSubBuckets sub buckets of the level; as the refinement caches the smallest buckets, it splits the others somewhat further
+        long levelSize = 0;
+        for (int attribute = 0; attribute < this.numAttributes; attribute++)
+            levelSize = levelSize + this.binder.bucketSizes.get(attribute)[0];
+        this.maxLevelMemory = levelSize / this.numSubBuckets + 1;
+    }
+
+    @Setup(Level.Invocation)
+    public void resetSubBuckets() {
+        // Writing the sub buckets appends to their files, so they are deleted before every refinement
+        for (int attribute = 0; attribute < this.numAttributes; attribute++) {
+            File[] subBucketFiles = new File(this.tempFolder, String.valueOf(attribute)).listFiles((folder, name) -> name.contains("_"));
+            if (subBucketFiles != null)
+                for (File subBucketFile : subBucketFiles)
+                    subBucketFile.delete();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        Bucketizer.releaseSubBucketsCache(this.binder);
+        FileUtils.deleteDirectory(this.tempFolder);
+    }
+
+    @Benchmark
+    public int[] refineBucketLevel() throws IOException {
+        return Bucketizer.refineBucketLevel(this.binder, this.activeAttributes, 0, 0, this.maxLevelMemory);
+    }
+}
@@ -0,0 +1,101 @@
+package binder.core;
+
+import binder.runner.Config;
+import binder.structures.InvertedIndex;
+import binder.structures.ValueCountMap;
+import binder.structures.pINDArrayList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmarks of the unary validation: pruning the candidates with the attribute groups of a loaded sub bucket and iterating the candidates of an attribute.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ValidationBenchmark {
+
+    @Param({"10", "100"})
+    public int numAttributes;
+
+    @Param({"1000"})
+    public int bucketSize;
+
+    private Validator validator;
+    private Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs;
+    private List<IntArrayList> attributeGroups;
+    private List<LongArrayList> occurrencesInGroups;
+    private List<BitSet> groupMembers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BINDERFile binder = BenchmarkData.newBucketBinder(null, this.numAttributes, Config.BucketFormat.BINARY);
+        this.validator = new Validator(binder);
+
+        // Every attribute draws its values from a shared domain, so that the attribute groups of the values differ in size
+        Random random = new Random(BenchmarkData.SEED);
+        String[] domain = BenchmarkData.randomValues(BenchmarkData.SEED, 2 * this.bucketSize, 20);
+        InvertedIndex invertedIndex = new InvertedIndex();
+        for (int attribute = 0; attribute < this.numAttributes; attribute++) {
+            ValueCountMap bucket = new ValueCountMap();
+            while (bucket.size() < this.bucketSize)
+                bucket.add(domain[random.nextInt(domain.length)], 1 + random.nextInt(5));
+            invertedIndex.add(attribute, bucket);
+        }
+        this.attributeGroups = new ArrayList<>(invertedIndex.size());
+        this.occurrencesInGroups = new ArrayList<>(invertedIndex.size());
+        this.groupMembers = new ArrayList<>(invertedIndex.size());
+        for (int entry = 0; entry < invertedIndex.size(); entry++) {
+            IntArrayList attributeGroup = new IntArrayList();
+            LongArrayList occurrencesInGroup = new LongArrayList();
+            BitSet members = new BitSet(this.numAttributes);
+            invertedIndex.getGroup(entry, attributeGroup, occurrencesInGroup, members);
+            this.attributeGroups.add(attributeGroup);
+            this.occurrencesInGroups.add(occurrencesInGroup);
+            this.groupMembers.add(members);
+        }
+
+        this.attribute2Refs = newCandidates(this.numAttributes);
+    }
+
+    /**
+     * @return candidates between all pairs of attributes, which have enough violations left to never be removed
+     */
+    private static Int2ObjectOpenHashMap<pINDArrayList> newCandidates(int numAttributes) {
+        IntArrayList allAttributes = new IntArrayList(numAttributes);
+        for (int attribute = 0; attribute < numAttributes; attribute++)
+            allAttributes.add(attribute);
+
+        Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs = new Int2ObjectOpenHashMap<>(numAttributes);
+        for (int attribute = 0; attribute < numAttributes; attribute++)
+            attribute2Refs.put(attribute, new pINDArrayList(Long.MAX_VALUE / 2, allAttributes, attribute));
+        return attribute2Refs;
+    }
+
+    @Benchmark
+    public void prune() {
+        for (int i = 0; i < this.attributeGroups.size(); i++)
+            this.validator.prune(this.attribute2Refs, this.attributeGroups.get(i), this.occurrencesInGroups.get(i), this.groupMembers.get(i));
+    }
+
+    @Benchmark
+    public void iterateCandidates(Blackhole blackhole) {
+        for (int attribute = 0; attribute < this.numAttributes; attribute++) {
+            pINDArrayList.pINDIterator referencedAttributes = this.attribute2Refs.get(attribute).elementIterator();
+            while (referencedAttributes.hasNext()) {
+                pINDArrayList.pINDElement pINDCandidate = referencedAttributes.next();
+                blackhole.consume(pINDCandidate.getReferenced());
+                blackhole.consume(pINDCandidate.getViolationsLeft());
+            }
+        }
+    }
+}
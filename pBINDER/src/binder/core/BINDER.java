@@ -1,22 +1,29 @@
 package binder.core;
 
+import binder.io.BucketCodec;
+import binder.io.ColumnarTableCache;
 import binder.io.DefaultFileInputGenerator;
+import binder.io.ResultSink;
+import binder.metrics.Metrics;
 import binder.runner.Config;
+import binder.structures.Attribute;
 import binder.structures.AttributeCombination;
-import binder.structures.pINDSingleLinkedList;
+import binder.structures.AttributeTrie;
+import binder.structures.PartialIND;
+import binder.structures.ValueCountMap;
+import binder.structures.pINDArrayList;
 import binder.utils.FileUtils;
 import binder.utils.PrintUtils;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectOpenHashSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.*;
 
 public class BINDER {
@@ -34,8 +41,10 @@ public class BINDER {
     public int maxMemoryUsagePercentage = 60; // The algorithm spills to disc if memory usage exceeds X% of available memory
     public int numColumns;
     public long availableMemory;
-    public long maxMemoryUsage;
+    public long maxMemoryUsage; // The bytes the buckets may occupy before they are spilled; derived from maxMemoryUsagePercentage unless it is set before the execution
     public File tempFolder = null;
+    public File columnFolder = null;
+    public File cacheFolder = null;
     public int numUnaryINDs = 0;
     public int numNaryINDs = 0;
     public BitSet nullValueColumns;
@@ -54,16 +63,25 @@ public class BINDER {
     public List<int[]> naryRefinements = null;
     public int[] bucketComparisonOrder = null;
     public ArrayList<Long> columnSizes = null;
+    public ResultSink resultSink = null; // Receives the pINDs as soon as they are final; if not set, the pINDs are written as configured
+    public Metrics metrics = new Metrics(); // The measurements of the phases, tables and bucket levels of the last execution
     protected String tempFolderPath = "BINDER_temp"; // TODO: Use Metanome temp file functionality here (interface TempFileAlgorithm)
     protected boolean nullIsSubset = false;
     protected int maxNaryLevel = 3;
     protected Config config;
-    Int2ObjectOpenHashMap<List<Map<String, Long>>> attribute2subBucketsCache = null;
+    BucketCodec bucketCodec = null;
+    ColumnarTableCache[] tableCaches = null;
+    int[] numBucketPieces = null; // The number of files each bucket level of a unary attribute is split into; see Bucketizer.COMBINED
+    int numRefinedSubBuckets = 1; // The number of sub buckets of the currently refined bucket level
+    List<long[]> bucketSizes = null; // The size of each bucket level of an attribute, measured like the columnSizes when the bucket is written
+    MemoryManager memoryManager = null;
+    Int2ObjectOpenHashMap<List<ValueCountMap>> attribute2subBucketsCache = null;
+    long bytesInSubBucketsCache = 0; // The bytes that the cached sub buckets have reserved in the memory manager until the cache is released
+    Attribute[] unaryAttributes = null;
     int[] tableColumnStartIndexes = null;
     List<String> columnNames = null;
     int[] column2table = null;
-    Int2ObjectOpenHashMap<pINDSingleLinkedList> dep2ref = null;
-    private Map<AttributeCombination, List<AttributeCombination>> naryDep2ref = null;
+    Int2ObjectOpenHashMap<pINDArrayList> dep2ref = null;
 
     @Override
     public String toString() {
@@ -73,27 +91,29 @@ public class BINDER {
     public void execute() throws IOException {
         try {
             this.tableSizes = new long[this.tableNames.length];
+            this.metrics = new Metrics();
             ////////////////////////////////////////////////////////
             // Phase 0: Initialization (Collect basic statistics) //
             ////////////////////////////////////////////////////////
-            this.unaryStatisticTime = System.currentTimeMillis();
+            Metrics.Phase phase = this.metrics.startPhase("initialization", 0);
             Initializer.initialize(this);
-            this.unaryStatisticTime = System.currentTimeMillis() - this.unaryStatisticTime;
+            this.openResultSink();
+            this.unaryStatisticTime = phase.end();
 
             //////////////////////////////////////////////////////
             // Phase 1: Bucketing (Create and fill the buckets) //
             //////////////////////////////////////////////////////
-            this.unaryLoadTime = System.currentTimeMillis();
+            phase = this.metrics.startPhase("bucketing", 1);
             Bucketizer.unaryBucketize(this);
-            this.unaryLoadTime = System.currentTimeMillis() - this.unaryLoadTime;
+            this.unaryLoadTime = phase.end();
 
             //////////////////////////////////////////////////////
             // Phase 2: Checking (Check INDs using the buckets) //
             //////////////////////////////////////////////////////
-            this.unaryCompareTime = System.currentTimeMillis();
+            phase = this.metrics.startPhase("validation", 1);
             Validator validator = new Validator(this);
             validator.checkViaTwoStageIndexAndLists();
-            this.unaryCompareTime = System.currentTimeMillis() - this.unaryCompareTime;
+            this.unaryCompareTime = phase.end();
 
             /////////////////////////////////////////////////////////
             // Phase 3: N-ary IND detection (Find INDs of size > 1 //
@@ -104,9 +124,9 @@ public class BINDER {
             //////////////////////////////////////////////////////
             // Phase 4: Output (Return and/or write the results //
             //////////////////////////////////////////////////////
-            this.outputTime = System.currentTimeMillis();
+            phase = this.metrics.startPhase("output", 0);
             this.output();
-            this.outputTime = System.currentTimeMillis() - this.outputTime;
+            this.outputTime = phase.end();
 
             System.out.println(this);
         } catch (IOException e) {
@@ -114,8 +134,10 @@ public class BINDER {
             throw new IOException(e.getMessage());
         } finally {
             // Clean temp
-            if (this.cleanTemp)
+            if (this.cleanTemp) {
                 FileUtils.cleanDirectory(this.tempFolder);
+                FileUtils.cleanDirectory(this.columnFolder);
+            }
         }
     }
 
@@ -134,16 +156,16 @@ public class BINDER {
         this.naryRefinements = new ArrayList<>();
 
         // Initialize nPlusOneAryDep2ref with unary dep2ref
-        Map<AttributeCombination, List<AttributeCombination>> nPlusOneAryDep2ref = new HashMap<>();
+        Map<AttributeCombination, List<AttributeCombination>> nPlusOneAryDep2ref = new Object2ObjectOpenHashMap<>(this.dep2ref.size());
         for (int dep : this.dep2ref.keySet()) {
             AttributeCombination depAttributeCombination = new AttributeCombination(this.column2table[dep], 0L, dep);
             List<AttributeCombination> refAttributeCombinations = new LinkedList<>();
 
-            pINDSingleLinkedList.pINDIterator refIterator = this.dep2ref.get(dep).elementIterator();
+            pINDArrayList.pINDIterator refIterator = this.dep2ref.get(dep).elementIterator();
             while (refIterator.hasNext()) {
-                pINDSingleLinkedList.pINDElement ref = refIterator.next();
+                pINDArrayList.pINDElement ref = refIterator.next();
                 // init with no violations left, will be adjusted at attribute expansion
-                refAttributeCombinations.add(new AttributeCombination(this.column2table[ref.referenced], 0, ref.referenced));
+                refAttributeCombinations.add(new AttributeCombination(this.column2table[ref.getReferenced()], 0, ref.getReferenced()));
             }
             nPlusOneAryDep2ref.put(depAttributeCombination, refAttributeCombinations);
         }
@@ -151,7 +173,6 @@ public class BINDER {
         int naryLevel = 1;
 
         // Generate, unaryBucketize and test the n-ary INDs level-wise
-        this.naryDep2ref = new HashMap<>();
         this.naryGenerationTime = new LongArrayList();
         this.naryLoadTime = new LongArrayList();
         this.naryCompareTime = new LongArrayList();
@@ -160,15 +181,17 @@ public class BINDER {
 
             // Generate (n+1)-ary IND candidates from the already identified unary and n-ary IND candidates
             final long naryGenerationTimeCurrent = System.currentTimeMillis();
+            Metrics.Phase phase = this.metrics.startPhase("generation", naryLevel);
 
             nPlusOneAryDep2ref = this.generateNPlusOneAryCandidates(nPlusOneAryDep2ref);
             if (nPlusOneAryDep2ref.isEmpty()) {
+                phase.end();
                 logger.info("There are no candidates left. All pINDs have been found.");
                 break;
             }
 
             // Collect all attribute combinations of the current level that are possible refs or deps and enumerate them
-            Set<AttributeCombination> attributeCombinationSet = new HashSet<>(nPlusOneAryDep2ref.keySet());
+            Set<AttributeCombination> attributeCombinationSet = new ObjectOpenHashSet<>(nPlusOneAryDep2ref.keySet());
             for (List<AttributeCombination> columnCombination : nPlusOneAryDep2ref.values())
                 attributeCombinationSet.addAll(columnCombination);
             List<AttributeCombination> attributeCombinations = new ArrayList<>(attributeCombinationSet);
@@ -176,8 +199,10 @@ public class BINDER {
             logger.info("Found " + attributeCombinations.size() + " relevant attribute combinations forming " + nPlusOneAryDep2ref.keySet().stream().mapToInt(x -> finalNPlusOneAryDep2ref.get(x).size()).sum() + " candidates");
 
             // Extend the columnSize array
-            for (int i = 0; i < attributeCombinations.size(); i++)
+            for (int i = 0; i < attributeCombinations.size(); i++) {
                 this.columnSizes.add(0L);
+                this.bucketSizes.add(new long[this.numBucketsPerColumn]);
+            }
 
             int[] currentNarySpillCounts = new int[attributeCombinations.size()];
             for (int attributeCombinationNumber = 0; attributeCombinationNumber < attributeCombinations.size(); attributeCombinationNumber++)
@@ -188,48 +213,24 @@ public class BINDER {
 
             this.naryRefinements.add(currentNaryRefinements);
 
-            this.naryGenerationTime.add(System.currentTimeMillis() - naryGenerationTimeCurrent);
+            this.naryGenerationTime.add(phase.end());
 
-            // Read the input dataset again and unaryBucketize all attribute combinations that are refs or deps
-            long naryLoadTimeCurrent = System.currentTimeMillis();
+            // Read the input dataset (or its column files) again and bucketize all attribute combinations that are refs or deps
+            phase = this.metrics.startPhase("bucketing", naryLevel);
             Bucketizer.naryBucketize(this, attributeCombinations, naryOffset, currentNarySpillCounts);
-            this.naryLoadTime.add(System.currentTimeMillis() - naryLoadTimeCurrent);
+            this.naryLoadTime.add(phase.end());
 
             // Check the n-ary IND candidates
-            long naryCompareTimeCurrent = System.currentTimeMillis();
+            phase = this.metrics.startPhase("validation", naryLevel);
             validator.naryCheckViaTwoStageIndexAndLists(nPlusOneAryDep2ref, attributeCombinations, naryOffset);
 
-            this.naryDep2ref.putAll(nPlusOneAryDep2ref);
-
-            BufferedWriter bw = Files.newBufferedWriter(Path.of("results/temp.txt"));
-            for (AttributeCombination a : nPlusOneAryDep2ref.keySet()) {
-                String relName = tableNames[a.getTable()];
-                relName = relName.substring(0, relName.length() - 4);
-                StringBuilder out = new StringBuilder();
-                out.append('(');
-                for (int attrId : a.getAttributes()) {
-                    out.append(relName).append('.').append(columnNames.get(attrId)).append(",");
-                }
-                out.delete(out.length() - 1, out.length()).append(") <= (");
-                for (AttributeCombination ref : nPlusOneAryDep2ref.get(a)) {
-                    String refRel = tableNames[ref.getTable()];
-                    refRel = refRel.substring(0, refRel.length() - 4);
-                    for (int attrId : ref.getAttributes()) {
-                        out.append(refRel).append('.').append(columnNames.get(attrId)).append(",");
-                    }
-                    out.delete(out.length() - 1, out.length()).append(") (");
-                }
-                out.delete(out.length() - 2, out.length());
-                bw.write(out.toString());
-                bw.newLine();
-            }
+            // The pINDs of this level are final now
+            this.outputNary(nPlusOneAryDep2ref);
 
-            bw.flush();
-            bw.close();
             // Add the number of created buckets for n-ary INDs of this level to the naryOffset
             naryOffset = naryOffset + attributeCombinations.size();
 
-            this.naryCompareTime.add(System.currentTimeMillis() - naryCompareTimeCurrent);
+            this.naryCompareTime.add(phase.end());
 
             long endTime = System.currentTimeMillis() - naryGenerationTimeCurrent;
             logger.info("Finished Level " + naryLevel + ". Took " + String.format("%02dm %02ds %04dms", endTime / 60_000, (endTime / 1000) % 60, endTime % 1000));
@@ -237,128 +238,90 @@ public class BINDER {
     }
 
     /**
-     * generates pIND candidates for the next layer
+     * Generates the pIND candidates for the next layer apriori-style. Dependent attribute combinations are grouped by their table and prefix in a prefix tree, so that
+     * only combinations that can be merged are paired, and all subsets of a new candidate are looked up in the prefix trees with integer keys. The attributes of every
+     * generated dependent attribute combination are in ascending order.
      *
      * @param naryDep2ref the valid pINDs of the current layer
      * @return A dependant to referenced map with (current+1) sized attributes
      */
-    private Map<AttributeCombination, List<AttributeCombination>> generateNPlusOneAryCandidates(Map<AttributeCombination, List<AttributeCombination>> naryDep2ref) {
-        Map<AttributeCombination, List<AttributeCombination>> nPlusOneAryDep2ref = new HashMap<>();
-
-        Map<String, Set<String>> lastLayerLookup = new HashMap<>();
-        naryDep2ref.forEach((key, value) -> {
-            Set<String> referenced = new HashSet<>();
-            for (AttributeCombination ref : value) {
-                referenced.add(ref.toString());
-            }
-            lastLayerLookup.put(key.toString(), referenced);
-        });
+    Map<AttributeCombination, List<AttributeCombination>> generateNPlusOneAryCandidates(Map<AttributeCombination, List<AttributeCombination>> naryDep2ref) {
+        Map<AttributeCombination, List<AttributeCombination>> nPlusOneAryDep2ref = new Object2ObjectOpenHashMap<>();
 
         if ((naryDep2ref == null) || (naryDep2ref.isEmpty()))
             return nPlusOneAryDep2ref;
 
         int previousSize = naryDep2ref.keySet().iterator().next().size();
 
-        List<AttributeCombination> deps = new ArrayList<>(naryDep2ref.keySet());
-        for (int i = 0; i < deps.size() - 1; i++) {
-            AttributeCombination depPivot = deps.get(i);
-            depExpansionLoop:
-            for (int j = i + 1; j < deps.size(); j++) { // if INDs of the form AA<CD should be discovered as well, remove + 1
-                AttributeCombination depExtension = deps.get(j);
-
-                // Ensure same tables
-                if (depPivot.getTable() != depExtension.getTable())
-                    continue;
-
-                // Ensure same prefix
-                if (this.notSamePrefix(depPivot, depExtension))
-                    continue;
-
-                int depExtensionAttr = depExtension.getAttributes()[previousSize - 1];
-
-                List<String> depStrings = new ArrayList<>();
-                if (previousSize > 1) {
-                    // for 3-ary or higher we need to ensure that all subsets have been validated.
-                    int[] depAttributes = Arrays.copyOf(depPivot.getAttributes(), depPivot.getAttributes().length + 1);
-                    depAttributes[depAttributes.length - 1] = depExtensionAttr;
-                    for (int skipIndex = 0; skipIndex < depAttributes.length; skipIndex++) {
-                        StringBuilder attributeString = new StringBuilder();
-                        attributeString.append(depPivot.getTable()).append(": [");
-                        for (int k = 0; k < depAttributes.length; k++) {
-                            if (k == skipIndex) {
-                                continue;
-                            }
-                            attributeString.append(depAttributes[k]).append(", ");
-                        }
-                        attributeString.delete(attributeString.length()-2, attributeString.length());
-                        attributeString.append(']');
+        // Index the valid pINDs of the current layer by the attributes of their dependent and referenced attribute combinations
+        AttributeTrie<Dependent> dependents = new AttributeTrie<>();
+        naryDep2ref.forEach((dep, refs) -> {
+            AttributeTrie<AttributeCombination> refTrie = new AttributeTrie<>();
+            for (AttributeCombination ref : refs)
+                refTrie.put(ref.getTable(), ref.getAttributes(), ref);
+            dependents.put(dep.getTable(), dep.getAttributes(), new Dependent(dep, refs, refTrie));
+        });
 
-                        if (!lastLayerLookup.containsKey(attributeString.toString())) {
+        Dependent[] depSubsets = new Dependent[previousSize - 1];
+        for (List<Dependent> group : dependents.getPrefixGroups()) {
+            // All dependent attribute combinations of a group share the same table and prefix; the smaller last attribute is always the pivot
+            List<Dependent> sortedGroup = new ArrayList<>(group);
+            sortedGroup.sort(Comparator.comparingInt(Dependent::lastAttribute));
+
+            for (int i = 0; i < sortedGroup.size() - 1; i++) {
+                Dependent depPivot = sortedGroup.get(i);
+                int depPivotAttr = depPivot.lastAttribute();
+
+                depExpansionLoop:
+                for (int j = i + 1; j < sortedGroup.size(); j++) {
+                    Dependent depExtension = sortedGroup.get(j);
+                    int depExtensionAttr = depExtension.lastAttribute();
+
+                    // Ensure non-empty attribute extension
+                    if ((previousSize == 1) && ((this.columnSizes.get(depPivotAttr) == 0) || (this.columnSizes.get(depExtensionAttr) == 0)))
+                        continue;
+
+                    // For 3-ary or higher, all subsets need to be valid; the subsets without the pivot or the extension attribute are the pivot and the extension
+                    int table = depPivot.attributeCombination().getTable();
+                    int[] depAttributes = Arrays.copyOf(depPivot.attributeCombination().getAttributes(), previousSize + 1);
+                    depAttributes[previousSize] = depExtensionAttr;
+                    for (int skipIndex = 0; skipIndex < previousSize - 1; skipIndex++) {
+                        depSubsets[skipIndex] = dependents.get(table, depAttributes, skipIndex);
+                        if (depSubsets[skipIndex] == null)
                             continue depExpansionLoop;
-                        }
-                        depStrings.add(attributeString.toString());
                     }
-                }
 
-                int depPivotAttr = depPivot.getAttributes()[previousSize - 1];
-
-                // Ensure non-empty attribute extension
-                if ((previousSize == 1) && ((this.columnSizes.get(depPivotAttr) == 0) || (this.columnSizes.get(depExtensionAttr) == 0)))
-                    continue;
+                    AttributeCombination nPlusOneDep = null;
+                    for (AttributeCombination refPivot : depPivot.refs()) {
+                        int refPivotAttr = refPivot.getAttributes()[previousSize - 1];
 
-                for (AttributeCombination refPivot : naryDep2ref.get(depPivot)) {
-                    refExpansionLoop:
-                    for (AttributeCombination refExtension : naryDep2ref.get(depExtension)) {
+                        // Only referenced attribute combinations of the same table and with the same prefix can extend the pivot
+                        refExpansionLoop:
+                        for (AttributeCombination refExtension : depExtension.refTrie().getValuesWithPrefix(refPivot.getTable(), refPivot.getAttributes(), previousSize - 1)) {
+                            int refExtensionAttr = refExtension.getAttributes()[previousSize - 1];
 
-                        // Ensure same tables
-                        if (refPivot.getTable() != refExtension.getTable())
-                            continue;
+                            // Ensure that the extension attribute is different from the pivot attribute; remove check if INDs of the form AB<CC should be discovered as well
+                            if (refPivotAttr == refExtensionAttr)
+                                continue;
 
-                        // Ensure same prefix
-                        if (this.notSamePrefix(refPivot, refExtension))
-                            continue;
+                            // We want the lhs and rhs to be disjunctive, because INDs with non-disjunctive sides usually don't have practical relevance; remove this check if INDs with overlapping sides are of interest
+                            if ((depPivotAttr == refExtensionAttr) || (depExtensionAttr == refPivotAttr))
+                                continue;
 
-                        int refPivotAttr = refPivot.getAttributes()[previousSize - 1];
-                        int refExtensionAttr = refExtension.getAttributes()[previousSize - 1];
-
-                        // Ensure that the extension attribute is different from the pivot attribute; remove check if INDs of the form AB<CC should be discovered as well
-                        if (refPivotAttr == refExtensionAttr)
-                            continue;
-
-                        // We want the lhs and rhs to be disjunctive, because INDs with non-disjunctive sides usually don't have practical relevance; remove this check if INDs with overlapping sides are of interest
-                        if ((depPivotAttr == refExtensionAttr) || (depExtensionAttr == refPivotAttr))
-                            continue;
-
-                        if (previousSize > 1) {
-                            // for 3-ary or higher we need to ensure that all subsets have been validated.
-                            int[] refAttributes = Arrays.copyOf(refPivot.getAttributes(), refPivot.getAttributes().length + 1);
-                            refAttributes[refAttributes.length - 1] = refExtensionAttr;
-                            for (int skipIndex = 0; skipIndex < refAttributes.length; skipIndex++) {
-                                StringBuilder attributeString = new StringBuilder();
-                                attributeString.append(refPivot.getTable()).append(": [");
-                                for (int k = 0; k < refAttributes.length; k++) {
-                                    if (k == skipIndex) {
-                                        continue;
-                                    }
-                                    attributeString.append(refAttributes[k]).append(", ");
-                                }
-                                attributeString.delete(attributeString.length()-2, attributeString.length());
-                                attributeString.append(']');
-
-                                if (!lastLayerLookup.get(depStrings.get(skipIndex)).contains(attributeString.toString())) {
+                            // For 3-ary or higher, the subsets of the referenced side need to be valid for the respective subsets of the dependent side
+                            int[] refAttributes = Arrays.copyOf(refPivot.getAttributes(), previousSize + 1);
+                            refAttributes[previousSize] = refExtensionAttr;
+                            for (int skipIndex = 0; skipIndex < previousSize - 1; skipIndex++)
+                                if (depSubsets[skipIndex].refTrie().get(refPivot.getTable(), refAttributes, skipIndex) == null)
                                     continue refExpansionLoop;
-                                }
+
+                            // Store the new candidate
+                            if (nPlusOneDep == null) {
+                                nPlusOneDep = new AttributeCombination(table, 0, depAttributes);
+                                nPlusOneAryDep2ref.put(nPlusOneDep, new LinkedList<>());
                             }
+                            nPlusOneAryDep2ref.get(nPlusOneDep).add(new AttributeCombination(refPivot.getTable(), 0, refAttributes));
                         }
-
-                        // Merge the dep attributes and ref attributes, respectively
-                        AttributeCombination nPlusOneDep = new AttributeCombination(depPivot.getTable(), 0, depPivot.getAttributes(), depExtensionAttr);
-                        AttributeCombination nPlusOneRef = new AttributeCombination(refPivot.getTable(), 0, refPivot.getAttributes(), refExtensionAttr);
-
-                        // Store the new candidate
-                        if (!nPlusOneAryDep2ref.containsKey(nPlusOneDep))
-                            nPlusOneAryDep2ref.put(nPlusOneDep, new LinkedList<>());
-                        nPlusOneAryDep2ref.get(nPlusOneDep).add(nPlusOneRef);
                     }
                 }
             }
@@ -367,58 +330,74 @@ public class BINDER {
     }
 
     /**
-     * Given two combinations, this method checks if the first n-1 entries are unequal
-     *
-     * @param combination1 the first combination
-     * @param combination2 the second combination
-     * @return whether any of the first n-1 attributes do not match.
+     * A dependent attribute combination of the current layer with its referenced attribute combinations as list and as prefix tree.
      */
-    private boolean notSamePrefix(AttributeCombination combination1, AttributeCombination combination2) {
-        for (int i = 0; i < combination1.size() - 1; i++) {
-            if (combination1.getAttributes()[i] != combination2.getAttributes()[i]) {
-                return true;
-            }
+    private record Dependent(AttributeCombination attributeCombination, List<AttributeCombination> refs, AttributeTrie<AttributeCombination> refTrie) {
+
+        int lastAttribute() {
+            return this.attributeCombination.getAttributes()[this.attributeCombination.size() - 1];
         }
-        return false;
     }
 
-    private void output() {
-        System.out.println("Generating output ...");
-
-        // Output unary INDs
-        for (int dep : this.dep2ref.keySet()) {
-            String depTableName = this.getTableNameFor(dep, this.tableColumnStartIndexes);
-            String depColumnName = this.columnNames.get(dep);
-
-            pINDSingleLinkedList.pINDIterator refIterator = this.dep2ref.get(dep).elementIterator();
-            while (refIterator.hasNext()) {
-                pINDSingleLinkedList.pINDElement ref = refIterator.next();
-
-                String refTableName = this.getTableNameFor(ref.referenced, this.tableColumnStartIndexes);
-                String refColumnName = this.columnNames.get(ref.referenced);
+    /**
+     * Opens the configured result writer, unless a sink has been set from the outside or no results should be written.
+     */
+    private void openResultSink() throws IOException {
+        if ((this.resultSink == null) && this.config.writeResults)
+            this.resultSink = ResultSink.forFormat(this.config, this.config.resultFolder + File.separator + this.config.resultFileName);
+        if (this.resultSink == null)
+            return;
 
-                // TODO: figure out how to store pINDs
-                this.numUnaryINDs++;
-            }
+        // The table names are the names of the input files, so the file ending is removed
+        String[] relationNames = new String[this.tableNames.length];
+        for (int tableIndex = 0; tableIndex < this.tableNames.length; tableIndex++) {
+            String relationName = this.tableNames[tableIndex];
+            if (!this.config.fileEnding.isEmpty() && relationName.endsWith(this.config.fileEnding))
+                relationName = relationName.substring(0, relationName.length() - this.config.fileEnding.length());
+            relationNames[tableIndex] = relationName;
         }
+        this.resultSink.open(relationNames, this.columnNames);
+    }
 
-        // Output n-ary INDs
-        if (this.naryDep2ref == null)
-            return;
-        for (AttributeCombination depAttributeCombination : this.naryDep2ref.keySet()) {
+    /**
+     * Counts a final unary pIND and passes it on to the result sink.
+     *
+     * @param dep             the dependent attribute
+     * @param ref             the referenced attribute
+     * @param violations      the violations of the pIND
+     * @param exactViolations whether the violations are exact; false if they are an upper bound, because not all values have been validated yet
+     * @param numValues       the number of values of the dependent attribute
+     * @throws IOException if the result sink fails
+     */
+    void outputUnary(int dep, int ref, long violations, boolean exactViolations, long numValues) throws IOException {
+        this.numUnaryINDs++;
 
-            for (AttributeCombination refAttributeCombination : this.naryDep2ref.get(depAttributeCombination)) {
+        if (this.resultSink != null)
+            this.resultSink.receive(new PartialIND(this.column2table[dep], new int[]{dep}, this.column2table[ref], new int[]{ref}, violations, exactViolations, numValues));
+    }
 
-                // TODO: figure out how to store pINDs
+    private void outputNary(Map<AttributeCombination, List<AttributeCombination>> naryDep2ref) throws IOException {
+        for (AttributeCombination depAttributeCombination : naryDep2ref.keySet()) {
+            for (AttributeCombination refAttributeCombination : naryDep2ref.get(depAttributeCombination)) {
                 this.numNaryINDs++;
+
+                // The n-ary pINDs are exact, i.e. they have no violations; the sink gets copies of the attributes, because the combinations stay in use
+                if (this.resultSink != null)
+                    this.resultSink.receive(new PartialIND(depAttributeCombination.getTable(), depAttributeCombination.getAttributes().clone(), refAttributeCombination.getTable(),
+                            refAttributeCombination.getAttributes().clone(), 0L, true, -1L));
             }
         }
     }
 
-    private String getTableNameFor(int column, int[] tableColumnStartIndexes) {
-        for (int i = 1; i < tableColumnStartIndexes.length; i++)
-            if (tableColumnStartIndexes[i] > column)
-                return this.tableNames[i - 1];
-        return this.tableNames[this.tableNames.length - 1];
+    private void output() throws IOException {
+        System.out.println("Generating output ...");
+
+        // All pINDs have been passed to the sink already
+        if (this.resultSink != null)
+            this.resultSink.close();
+
+        logger.info("Found " + this.numUnaryINDs + " unary and " + this.numNaryINDs + " n-ary pINDs");
+        this.metrics.addCounter("unaryINDs", this.numUnaryINDs);
+        this.metrics.addCounter("naryINDs", this.numNaryINDs);
     }
 }
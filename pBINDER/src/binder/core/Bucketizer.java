@@ -1,30 +1,51 @@
 package binder.core;
 
-import binder.io.FileInputIterator;
+import binder.io.BucketIterator;
+import binder.io.ColumnFileIterator;
+import binder.io.ColumnFileWriter;
+import binder.io.ConcatenatedBucketIterator;
+import binder.io.FilteredBucketIterator;
+import binder.io.RecordIterator;
+import binder.io.SortedRunMerger;
 import binder.runner.Config;
 import binder.structures.Attribute;
 import binder.structures.AttributeCombination;
+import binder.structures.BloomFilter;
 import binder.structures.Level;
+import binder.structures.MinHashSketch;
+import binder.structures.PruningStatistics;
+import binder.structures.ValueCountMap;
 import binder.utils.CollectionUtils;
+import binder.utils.ConcurrencyUtils;
 import binder.utils.FileUtils;
-import binder.utils.MeasurementUtils;
+import binder.utils.HashUtils;
+import it.unimi.dsi.fastutil.HashCommon;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Bucketizer {
     static Logger logger = LoggerFactory.getLogger(Bucketizer.class);
 
+    // The number of pieces per level of a column whose levels are all stored in one file
+    static final int COMBINED = 0;
+    private static final int MAX_BUCKET_PIECES = 1 << 10;
+    // Columns that are smaller are stored in one file, because reading them once per level is cheaper than opening one file per level
+    private static final long SMALL_COLUMN_SIZE = 1L << 20;
+    // Bytes that each value requires in the comparison phase for the indexes
+    private static final int OVERHEAD_PER_VALUE_FOR_INDEXES = 64;
+
     /**
-     * Unary Bucketizing
+     * Unary Bucketizing. The tables are bucketized by a pool of {@link Config#numBucketingThreads} threads, which all spill their buckets against the shared
+     * {@link MemoryManager}. Each table is handled by exactly one thread, so the bucket files are the same as in a sequential run.
      *
      * @param binder The BINDER object which should be bucketized
      * @throws IOException if something goes wrong during file handling
@@ -33,73 +54,229 @@ public class Bucketizer {
 
         Attribute[] unaryAttributes = new Attribute[binder.numColumns];
         int[] emptyBuckets = getEmptyBuckets(binder);
+        binder.numBucketPieces = new int[binder.numColumns];
+        Arrays.fill(binder.numBucketPieces, 1);
+        MemoryManager memoryManager = binder.memoryManager;
+
+        int numThreads = Math.min(binder.config.numBucketingThreads, binder.tableNames.length);
+        if (numThreads <= 1) {
+            for (int tableIndex = 0; tableIndex < binder.tableNames.length; tableIndex++)
+                addEmptyBuckets(emptyBuckets, bucketizeTable(binder, tableIndex, unaryAttributes, memoryManager));
+        } else {
+            logger.info("Bucketizing " + binder.tableNames.length + " tables using " + numThreads + " threads");
+            ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+            try {
+                List<Future<int[]>> tableEmptyBuckets = new ArrayList<>(binder.tableNames.length);
+                for (int tableIndex = 0; tableIndex < binder.tableNames.length; tableIndex++) {
+                    final int currentTableIndex = tableIndex;
+                    tableEmptyBuckets.add(executor.submit(() -> bucketizeTable(binder, currentTableIndex, unaryAttributes, memoryManager)));
+                }
+                for (Future<int[]> future : tableEmptyBuckets)
+                    addEmptyBuckets(emptyBuckets, ConcurrencyUtils.await(future));
+            } finally {
+                executor.shutdownNow();
+            }
+        }
 
-        for (int tableIndex = 0; tableIndex < binder.tableNames.length; tableIndex++) {
-            String tableName = binder.tableNames[tableIndex];
+        // Calculate the bucket comparison order from the emptyBuckets to minimize the influence of sparse-attribute-issue
+        calculateBucketComparisonOrder(emptyBuckets, binder.numBucketsPerColumn, binder.numColumns, binder);
 
-            // get the index where the columns start
-            int startTableColumnIndex = binder.tableColumnStartIndexes[tableIndex];
-            // get the number of columns belonging to the given table
-            int numTableColumns = (binder.tableColumnStartIndexes.length > tableIndex + 1) ? binder.tableColumnStartIndexes[tableIndex + 1] - startTableColumnIndex :
-                    binder.numColumns - startTableColumnIndex;
+        binder.unaryAttributes = unaryAttributes;
+    }
 
-            // init empty attributes for the current table
-            for (int i = startTableColumnIndex; i < startTableColumnIndex + numTableColumns; i++) {
-                unaryAttributes[i] = new Attribute(tableIndex, i - startTableColumnIndex, i);
-            }
+    /**
+     * Reads a single table and writes the unary buckets of all its columns to disk. This method only writes to the table's own entries of the shared BINDER arrays,
+     * which is why several tables can be bucketized concurrently.
+     *
+     * @param binder          the binder algorithm
+     * @param tableIndex      the index of the table to bucketize
+     * @param unaryAttributes the attribute statistics of all columns
+     * @param memoryManager   the memory manager shared by all bucketizing threads
+     * @return the number of empty buckets per bucket level of this table
+     * @throws IOException if something goes wrong during file handling
+     */
+    private static int[] bucketizeTable(BINDER binder, int tableIndex, Attribute[] unaryAttributes, MemoryManager memoryManager) throws IOException {
+        long startTime = System.nanoTime();
+        String tableName = binder.tableNames[tableIndex];
+        int[] emptyBuckets = new int[binder.numBucketsPerColumn];
 
-            logger.debug("(" + (tableIndex + 1) + "/" + (binder.tableNames.length) + ") Building unary buckets for " + tableName + " [" + numTableColumns + "]");
+        // get the index where the columns start
+        int startTableColumnIndex = binder.tableColumnStartIndexes[tableIndex];
+        // get the number of columns belonging to the given table
+        int numTableColumns = getNumTableColumns(binder, tableIndex);
+
+        // init empty attributes for the current table
+        for (int i = startTableColumnIndex; i < startTableColumnIndex + numTableColumns; i++) {
+            unaryAttributes[i] = new Attribute(tableIndex, i - startTableColumnIndex, i, binder.numBucketsPerColumn);
+            if (binder.config.statisticalPruning)
+                unaryAttributes[i].statistics = new PruningStatistics(binder.numBucketsPerColumn);
+            if (binder.config.sketchPruning)
+                unaryAttributes[i].sketch = new MinHashSketch(binder.config.sketchSize);
+        }
 
-            // Initialize buckets
-            List<List<Map<String, Long>>> buckets = initializeBuckets(binder, numTableColumns);
+        logger.debug("(" + (tableIndex + 1) + "/" + (binder.tableNames.length) + ") Building unary buckets for " + tableName + " [" + numTableColumns + "]");
 
-            // Initialize value counters
-            int numValuesSinceLastMemoryCheck = 0;
-            int[] numValuesInColumn = new int[binder.numColumns];
+        // Initialize buckets
+        List<List<ValueCountMap>> buckets = initializeBuckets(binder, numTableColumns, memoryManager);
+        // The empty buckets already occupy their initial buffers, which stay allocated across spills until the buckets are released
+        long baseBytes = sizeInBytes(buckets);
+        memoryManager.reserve(baseBytes);
 
-            // Load data for the current table
-            FileInputIterator inputIterator = null;
-            try {
-                inputIterator = new FileInputIterator(tableName, binder.config, binder.inputRowLimit);
-                long rowCount = 0;
+        // Initialize value counters
+        int numValuesSinceLastMemoryCheck = 0;
+        long numValuesHashed = 0;
+        long inputBytes = 0;
+        long[] bytesInColumn = new long[numTableColumns];
+        BitSet nullValueColumns = new BitSet(numTableColumns);
 
-                while (inputIterator.next()) {
-                    rowCount++;
-                    for (int columnNumber = 0; columnNumber < numTableColumns; columnNumber++) {
-                        String value = inputIterator.getValue(columnNumber);
+        // Load data for the current table; unless the table is cached, the parsed records are kept as column files for the n-ary bucketing
+        RecordIterator inputIterator = null;
+        ColumnFileWriter columnWriter = null;
+        try {
+            if (binder.tableCaches[tableIndex] != null) {
+                BitSet allColumns = new BitSet(numTableColumns);
+                allColumns.set(0, numTableColumns);
+                inputIterator = binder.tableCaches[tableIndex].iterator(allColumns, binder.inputRowLimit);
+            } else {
+                inputIterator = RecordIterator.openFile(tableName, binder.config, binder.inputRowLimit);
+                inputBytes = getInputFile(binder, tableName).length();
+                binder.metrics.addBytesRead(inputBytes);
+                if (binder.detectNary && binder.config.columnarInput)
+                    columnWriter = new ColumnFileWriter(getColumnFolder(binder, tableIndex), numTableColumns);
+            }
+            long rowCount = 0;
 
-                        if (value == null) {
-                            binder.nullValueColumns.set(startTableColumnIndex + columnNumber);
-                            unaryAttributes[startTableColumnIndex + columnNumber].nulls++;
-                            continue;
-                        }
-                        // Bucketize
-                        unaryAttributes[startTableColumnIndex + columnNumber].totalValues++;
-                        int bucketNumber = calculateBucketFor(value, binder.numBucketsPerColumn);
-                        if (1L == buckets.get(columnNumber).get(bucketNumber).compute(value, (key, amount) -> amount == null ? 1L : 1L + amount)) {
-                            numValuesSinceLastMemoryCheck++;
-                            numValuesInColumn[columnNumber] = numValuesInColumn[columnNumber] + 1;
-                            // Occasionally check the memory consumption
-                            if (numValuesSinceLastMemoryCheck >= binder.memoryCheckFrequency) {
-                                numValuesSinceLastMemoryCheck = 0;
-
-                                spillTillMemoryUnderThreshold(binder, numTableColumns, startTableColumnIndex, buckets, numValuesInColumn);
-                            }
-                        }
+            while (inputIterator.next()) {
+                rowCount++;
+                if (columnWriter != null)
+                    columnWriter.write(inputIterator);
+                for (int columnNumber = 0; columnNumber < numTableColumns; columnNumber++) {
+                    String value = inputIterator.getValue(columnNumber);
+
+                    if (value == null) {
+                        nullValueColumns.set(columnNumber);
+                        unaryAttributes[startTableColumnIndex + columnNumber].nulls++;
+                        continue;
+                    }
+                    // Bucketize
+                    unaryAttributes[startTableColumnIndex + columnNumber].totalValues++;
+                    numValuesHashed++;
+                    long hash = HashUtils.hash(value);
+                    int bucketNumber = calculateBucketFor(hash, binder.numBucketsPerColumn);
+                    unaryAttributes[startTableColumnIndex + columnNumber].valuesPerBucket[bucketNumber]++;
+                    ValueCountMap bucket = buckets.get(columnNumber).get(bucketNumber);
+                    long bucketSize = bucket.sizeInBytes();
+                    if (bucket.add(value, hash, 1L)) {
+                        numValuesSinceLastMemoryCheck++;
+                        // Only values that are new to their bucket can be new to the sketch
+                        if (unaryAttributes[startTableColumnIndex + columnNumber].sketch != null)
+                            unaryAttributes[startTableColumnIndex + columnNumber].sketch.add(hash);
+                    }
+
+                    // The bucket only occupies more memory if one of its arrays needed to be enlarged
+                    long growth = bucket.sizeInBytes() - bucketSize;
+                    if (growth > 0) {
+                        bytesInColumn[columnNumber] = bytesInColumn[columnNumber] + growth;
+                        memoryManager.reserve(growth);
+                    }
+
+                    // Occasionally check the memory consumption
+                    if (numValuesSinceLastMemoryCheck >= binder.memoryCheckFrequency) {
+                        numValuesSinceLastMemoryCheck = 0;
+
+                        spillTillMemoryUnderThreshold(binder, numTableColumns, startTableColumnIndex, buckets, bytesInColumn, unaryAttributes, memoryManager);
                     }
                 }
-                binder.tableSizes[tableIndex] = rowCount;
-            } finally {
-                if (inputIterator != null) inputIterator.close();
             }
+            binder.tableSizes[tableIndex] = rowCount;
+            if (columnWriter != null)
+                columnWriter.close();
+        } finally {
+            if (inputIterator != null) inputIterator.close();
+            FileUtils.close(columnWriter);
+        }
 
-            // Write buckets to disk
-            toDisk(binder, emptyBuckets, numTableColumns, startTableColumnIndex, buckets);
+        // Write buckets to disk
+        toDisk(binder, emptyBuckets, numTableColumns, startTableColumnIndex, buckets, unaryAttributes);
+
+        // The buckets of this table are on disk now, so their buffers can be reused for the next table
+        long tableBytes = 0;
+        for (long columnBytes : bytesInColumn)
+            tableBytes = tableBytes + columnBytes;
+        releaseBuckets(buckets);
+        memoryManager.release(baseBytes + tableBytes);
+
+        synchronized (binder.nullValueColumns) {
+            for (int columnNumber = nullValueColumns.nextSetBit(0); columnNumber >= 0; columnNumber = nullValueColumns.nextSetBit(columnNumber + 1))
+                binder.nullValueColumns.set(startTableColumnIndex + columnNumber);
         }
 
-        // Calculate the bucket comparison order from the emptyBuckets to minimize the influence of sparse-attribute-issue
-        calculateBucketComparisonOrder(emptyBuckets, binder.numBucketsPerColumn, binder.numColumns, binder);
+        // The bucket files of the table's columns are complete now, so their sizes are the bytes that the table has written
+        long distinctValues = 0;
+        long spills = 0;
+        long bucketBytes = 0;
+        for (int globalColumnIndex = startTableColumnIndex; globalColumnIndex < startTableColumnIndex + numTableColumns; globalColumnIndex++) {
+            distinctValues = distinctValues + unaryAttributes[globalColumnIndex].distinctValues;
+            spills = spills + binder.spillCounts[globalColumnIndex];
+            File[] bucketFiles = new File(binder.tempFolder, String.valueOf(globalColumnIndex)).listFiles();
+            if (bucketFiles != null)
+                for (File bucketFile : bucketFiles)
+                    bucketBytes = bucketBytes + bucketFile.length();
+        }
+        binder.metrics.addValuesHashed(numValuesHashed);
+        binder.metrics.addTable(tableName, binder.tableSizes[tableIndex], inputBytes, numValuesHashed, distinctValues, spills, bucketBytes, System.nanoTime() - startTime);
+        return emptyBuckets;
+    }
+
+    /**
+     * Opens a table for the n-ary bucketing. Only the columns of the given attribute combinations are read from the columnar cache of the table or, if the table is
+     * not cached, from the column files of the unary bucketing. The input file is only parsed again if neither exists.
+     *
+     * @param binder                      the binder algorithm
+     * @param tableIndex                  the index of the table to open
+     * @param attributeCombinations       all relevant attribute combinations
+     * @param attributeCombinationNumbers the numbers of the attribute combinations that belong to the table
+     * @return an iterator over the records of the table
+     * @throws IOException if the table can not be opened
+     */
+    private static RecordIterator openTable(BINDER binder, int tableIndex, List<AttributeCombination> attributeCombinations, IntArrayList attributeCombinationNumbers)
+            throws IOException {
+        int startTableColumnIndex = binder.tableColumnStartIndexes[tableIndex];
+        int numTableColumns = getNumTableColumns(binder, tableIndex);
+
+        BitSet projection = new BitSet(numTableColumns);
+        for (int attributeCombinationNumber : attributeCombinationNumbers)
+            for (int attribute : attributeCombinations.get(attributeCombinationNumber).getAttributes())
+                projection.set(attribute - startTableColumnIndex);
+
+        if (binder.tableCaches[tableIndex] != null)
+            return binder.tableCaches[tableIndex].iterator(projection, binder.inputRowLimit);
+
+        File tableFolder = getColumnFolder(binder, tableIndex);
+        if (!binder.config.columnarInput || !ColumnFileIterator.exists(tableFolder, numTableColumns)) {
+            binder.metrics.addBytesRead(getInputFile(binder, binder.tableNames[tableIndex]).length());
+            return RecordIterator.openFile(binder.tableNames[tableIndex], binder.config, binder.inputRowLimit);
+        }
+        return new ColumnFileIterator(tableFolder, numTableColumns, projection, binder.tableSizes[tableIndex]);
+    }
+
+    static int getNumTableColumns(BINDER binder, int tableIndex) {
+        int startTableColumnIndex = binder.tableColumnStartIndexes[tableIndex];
+        return (binder.tableColumnStartIndexes.length > tableIndex + 1) ? binder.tableColumnStartIndexes[tableIndex + 1] - startTableColumnIndex :
+                binder.numColumns - startTableColumnIndex;
+    }
+
+    private static File getColumnFolder(BINDER binder, int tableIndex) {
+        return new File(binder.columnFolder, String.valueOf(tableIndex));
+    }
+
+    private static File getInputFile(BINDER binder, String tableName) {
+        return new File(binder.config.datasetFolder + binder.config.datasetName + File.separator + tableName);
+    }
 
+    private static void addEmptyBuckets(int[] emptyBuckets, int[] tableEmptyBuckets) {
+        for (int bucketNumber = 0; bucketNumber < emptyBuckets.length; bucketNumber++)
+            emptyBuckets[bucketNumber] = emptyBuckets[bucketNumber] + tableEmptyBuckets[bucketNumber];
     }
 
     /**
@@ -120,6 +297,7 @@ public class Bucketizer {
             table2attributeCombinationNumbers.get(attributeCombinations.get(attributeCombinationNumber).getTable()).add(attributeCombinationNumber);
 
         int[] emptyBuckets = new int[binder.numBucketsPerColumn];
+        MemoryManager memoryManager = binder.memoryManager;
 
         for (int tableIndex = 0; tableIndex < binder.tableNames.length; tableIndex++) {
             int numTableAttributeCombinations = table2attributeCombinationNumbers.get(tableIndex).size();
@@ -133,33 +311,32 @@ public class Bucketizer {
             }
 
             // Initialize buckets
-            Int2ObjectOpenHashMap<List<Map<String, Long>>> buckets = new Int2ObjectOpenHashMap<>(numTableAttributeCombinations);
+            Int2ObjectOpenHashMap<List<ValueCountMap>> buckets = new Int2ObjectOpenHashMap<>(numTableAttributeCombinations);
             for (int attributeCombinationNumber : table2attributeCombinationNumbers.get(tableIndex)) {
-                List<Map<String, Long>> attributeCombinationBuckets = new ArrayList<>();
+                List<ValueCountMap> attributeCombinationBuckets = new ArrayList<>();
                 for (int bucketNumber = 0; bucketNumber < binder.numBucketsPerColumn; bucketNumber++)
-                    attributeCombinationBuckets.add(new HashMap<>());
+                    attributeCombinationBuckets.add(new ValueCountMap(memoryManager));
                 buckets.put(attributeCombinationNumber, attributeCombinationBuckets);
             }
+            long baseBytes = sizeInBytes(buckets.values());
+            memoryManager.reserve(baseBytes);
 
             // Initialize value counters
             int numValuesSinceLastMemoryCheck = 0;
-            int[] numValuesInAttributeCombination = new int[attributeCombinations.size()];
-            for (int attributeCombinationNumber = 0; attributeCombinationNumber < attributeCombinations.size(); attributeCombinationNumber++)
-                numValuesInAttributeCombination[attributeCombinationNumber] = 0;
+            long numValuesHashed = 0;
+            long[] bytesInAttributeCombination = new long[attributeCombinations.size()];
 
             // Load data
-            FileInputIterator inputIterator = new FileInputIterator(binder.tableNames[tableIndex], binder.config, binder.inputRowLimit);
+            RecordIterator inputIterator = openTable(binder, tableIndex, attributeCombinations, table2attributeCombinationNumbers.get(tableIndex));
 
             while (inputIterator.next()) {
-                List<String> values = inputIterator.getValues();
-
                 for (int attributeCombinationNumber : table2attributeCombinationNumbers.get(tableIndex)) {
                     AttributeCombination attributeCombination = attributeCombinations.get(attributeCombinationNumber);
 
                     boolean anyNull = false;
                     List<String> attributeCombinationValues = new ArrayList<>(attributeCombination.getAttributes().length);
                     for (int attribute : attributeCombination.getAttributes()) {
-                        String attributeValue = values.get(attribute - startTableColumnIndex);
+                        String attributeValue = inputIterator.getValue(attribute - startTableColumnIndex);
                         anyNull = (attributeValue == null);
                         if (anyNull) break;
                         attributeCombinationValues.add(attributeValue);
@@ -175,68 +352,81 @@ public class Bucketizer {
                     String value = CollectionUtils.concat(attributeCombinationValues, valueSeparator);
 
                     // Bucketize
-                    int bucketNumber = Bucketizer.calculateBucketFor(value, binder.numBucketsPerColumn);
-                    long amount = buckets.get(attributeCombinationNumber).get(bucketNumber).getOrDefault(value, 0L);
-                    if (amount == 0) {
+                    numValuesHashed++;
+                    long hash = HashUtils.hash(value);
+                    int bucketNumber = Bucketizer.calculateBucketFor(hash, binder.numBucketsPerColumn);
+                    ValueCountMap bucket = buckets.get(attributeCombinationNumber).get(bucketNumber);
+                    long bucketSize = bucket.sizeInBytes();
+                    if (bucket.add(value, hash, 1L))
                         numValuesSinceLastMemoryCheck++;
-                        numValuesInAttributeCombination[attributeCombinationNumber] = numValuesInAttributeCombination[attributeCombinationNumber] + 1;
+
+                    // The bucket only occupies more memory if one of its arrays needed to be enlarged
+                    long growth = bucket.sizeInBytes() - bucketSize;
+                    if (growth > 0) {
+                        bytesInAttributeCombination[attributeCombinationNumber] = bytesInAttributeCombination[attributeCombinationNumber] + growth;
+                        memoryManager.reserve(growth);
                     }
-                    buckets.get(attributeCombinationNumber).get(bucketNumber).put(value, ++amount);
 
                     // Occasionally check the memory consumption
                     if (numValuesSinceLastMemoryCheck >= binder.memoryCheckFrequency) {
                         numValuesSinceLastMemoryCheck = 0;
 
                         // Spill to disk if necessary
-                        while (ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() > binder.maxMemoryUsage) {
+                        while (memoryManager.isExceeded()) {
                             // Identify largest buffer
                             int largestAttributeCombinationNumber = 0;
-                            int largestAttributeCombinationSize = numValuesInAttributeCombination[largestAttributeCombinationNumber];
-                            for (int otherAttributeCombinationNumber = 1; otherAttributeCombinationNumber < numValuesInAttributeCombination.length; otherAttributeCombinationNumber++) {
-                                if (largestAttributeCombinationSize < numValuesInAttributeCombination[otherAttributeCombinationNumber]) {
+                            long largestAttributeCombinationSize = bytesInAttributeCombination[largestAttributeCombinationNumber];
+                            for (int otherAttributeCombinationNumber = 1; otherAttributeCombinationNumber < bytesInAttributeCombination.length; otherAttributeCombinationNumber++) {
+                                if (largestAttributeCombinationSize < bytesInAttributeCombination[otherAttributeCombinationNumber]) {
                                     largestAttributeCombinationNumber = otherAttributeCombinationNumber;
-                                    largestAttributeCombinationSize = numValuesInAttributeCombination[otherAttributeCombinationNumber];
+                                    largestAttributeCombinationSize = bytesInAttributeCombination[otherAttributeCombinationNumber];
                                 }
                             }
+                            if (largestAttributeCombinationSize == 0) break;
 
                             // Write buckets from the largest column to disk and empty written buckets
                             for (int largeBucketNumber = 0; largeBucketNumber < binder.numBucketsPerColumn; largeBucketNumber++) {
-                                writeBucket(binder.tempFolder, naryOffset + largestAttributeCombinationNumber, largeBucketNumber, -1,
-                                        buckets.get(largestAttributeCombinationNumber).get(largeBucketNumber), binder.columnSizes);
-                                buckets.get(largestAttributeCombinationNumber).set(largeBucketNumber, new HashMap<>());
+                                ValueCountMap largeBucket = buckets.get(largestAttributeCombinationNumber).get(largeBucketNumber);
+                                writeBucket(binder, naryOffset + largestAttributeCombinationNumber, largeBucketNumber, -1, largeBucket);
+                                largeBucket.clear();
                             }
-
-                            numValuesInAttributeCombination[largestAttributeCombinationNumber] = 0;
+                            memoryManager.release(largestAttributeCombinationSize);
+                            bytesInAttributeCombination[largestAttributeCombinationNumber] = 0;
 
                             narySpillCounts[largestAttributeCombinationNumber] = narySpillCounts[largestAttributeCombinationNumber] + 1;
-
-                            System.gc();
+                            binder.metrics.addSpill();
                         }
                     }
                 }
             }
             inputIterator.close();
-
+            binder.metrics.addValuesHashed(numValuesHashed);
 
             // Write buckets to disk
+            long bytesInTable = 0;
             for (int attributeCombinationNumber : table2attributeCombinationNumbers.get(tableIndex)) {
                 if (narySpillCounts[attributeCombinationNumber] == 0) { // if an attribute combination was spilled to disk, we do not count empty buckets for this attribute
                     // combination, because the partitioning distributes the values evenly and hence all buckets should have been populated
                     for (int bucketNumber = 0; bucketNumber < binder.numBucketsPerColumn; bucketNumber++) {
-                        Map<String, Long> bucket = buckets.get(attributeCombinationNumber).get(bucketNumber);
+                        ValueCountMap bucket = buckets.get(attributeCombinationNumber).get(bucketNumber);
                         if (bucket.size() != 0)
-                            Bucketizer.writeBucket(binder.tempFolder, naryOffset + attributeCombinationNumber, bucketNumber, -1, bucket, binder.columnSizes);
+                            writeBucket(binder, naryOffset + attributeCombinationNumber, bucketNumber, -1, bucket);
                         else
                             emptyBuckets[bucketNumber] = emptyBuckets[bucketNumber] + 1;
                     }
                 } else {
                     for (int bucketNumber = 0; bucketNumber < binder.numBucketsPerColumn; bucketNumber++) {
-                        Map<String, Long> bucket = buckets.get(attributeCombinationNumber).get(bucketNumber);
+                        ValueCountMap bucket = buckets.get(attributeCombinationNumber).get(bucketNumber);
                         if (bucket.size() != 0)
-                            Bucketizer.writeBucket(binder.tempFolder, naryOffset + attributeCombinationNumber, bucketNumber, -1, bucket, binder.columnSizes);
+                            writeBucket(binder, naryOffset + attributeCombinationNumber, bucketNumber, -1, bucket);
                     }
                 }
+                bytesInTable = bytesInTable + bytesInAttributeCombination[attributeCombinationNumber];
             }
+
+            // The buckets of this table are on disk now, so their buffers can be reused for the next table
+            releaseBuckets(buckets.values());
+            memoryManager.release(baseBytes + bytesInTable);
         }
 
         // Calculate the bucket comparison order from the emptyBuckets to minimize the influence of sparse-attribute-issue
@@ -244,17 +434,45 @@ public class Bucketizer {
     }
 
 
-    private static List<List<Map<String, Long>>> initializeBuckets(BINDER binder, int numTableColumns) {
-        List<List<Map<String, Long>>> buckets = new ArrayList<>(numTableColumns);
+    private static List<List<ValueCountMap>> initializeBuckets(BINDER binder, int numTableColumns, MemoryManager memoryManager) {
+        List<List<ValueCountMap>> buckets = new ArrayList<>(numTableColumns);
         for (int columnNumber = 0; columnNumber < numTableColumns; columnNumber++) {
-            List<Map<String, Long>> attributeBuckets = new ArrayList<>();
+            List<ValueCountMap> attributeBuckets = new ArrayList<>();
             for (int bucketNumber = 0; bucketNumber < binder.numBucketsPerColumn; bucketNumber++)
-                attributeBuckets.add(new HashMap<>());
+                attributeBuckets.add(new ValueCountMap(memoryManager));
             buckets.add(attributeBuckets);
         }
         return buckets;
     }
 
+    private static long sizeInBytes(Collection<List<ValueCountMap>> buckets) {
+        long size = 0;
+        for (List<ValueCountMap> attributeBuckets : buckets)
+            for (ValueCountMap bucket : attributeBuckets)
+                size = size + bucket.sizeInBytes();
+        return size;
+    }
+
+    private static void releaseBuckets(Collection<List<ValueCountMap>> buckets) {
+        for (List<ValueCountMap> attributeBuckets : buckets)
+            for (ValueCountMap bucket : attributeBuckets)
+                bucket.release();
+    }
+
+    /**
+     * Gives the buffers of the cached sub buckets back to the memory manager and empties the cache.
+     *
+     * @param binder the binder algorithm
+     */
+    static void releaseSubBucketsCache(BINDER binder) {
+        if (binder.attribute2subBucketsCache != null) {
+            releaseBuckets(binder.attribute2subBucketsCache.values());
+            binder.memoryManager.release(binder.bytesInSubBucketsCache);
+        }
+        binder.attribute2subBucketsCache = null;
+        binder.bytesInSubBucketsCache = 0;
+    }
+
     private static int[] getEmptyBuckets(BINDER binder) {
         // Initialize the counters that count the empty buckets per bucket level to identify sparse buckets and promising bucket levels for comparison
         int[] emptyBuckets = new int[binder.numBucketsPerColumn];
@@ -263,66 +481,171 @@ public class Bucketizer {
 
         // Initialize aggregators to measure the size of the columns
         binder.columnSizes = new ArrayList<>(binder.numColumns);
-        for (int column = 0; column < binder.numColumns; column++)
+        binder.bucketSizes = new ArrayList<>(binder.numColumns);
+        for (int column = 0; column < binder.numColumns; column++) {
             binder.columnSizes.add(0L);
+            binder.bucketSizes.add(new long[binder.numBucketsPerColumn]);
+        }
         return emptyBuckets;
     }
 
-    private static void spillTillMemoryUnderThreshold(BINDER binder, int numTableColumns, int startTableColumnIndex, List<List<Map<String, Long>>> buckets,
-                                                      int[] numValuesInColumn) throws IOException {
-        // Spill to disk if necessary
-        while (ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() > binder.maxMemoryUsage) {
+    private static void spillTillMemoryUnderThreshold(BINDER binder, int numTableColumns, int startTableColumnIndex, List<List<ValueCountMap>> buckets,
+                                                      long[] bytesInColumn, Attribute[] unaryAttributes, MemoryManager memoryManager) throws IOException {
+        // Spill to disk if necessary; if this table holds no values in memory, the other threads need to spill their buckets
+        while (memoryManager.isExceeded()) {
             // Identify largest buffer
             int largestColumnNumber = 0;
-            int largestColumnSize = numValuesInColumn[largestColumnNumber];
+            long largestColumnSize = bytesInColumn[largestColumnNumber];
             for (int otherColumnNumber = 1; otherColumnNumber < numTableColumns; otherColumnNumber++) {
-                if (largestColumnSize < numValuesInColumn[otherColumnNumber]) {
+                if (largestColumnSize < bytesInColumn[otherColumnNumber]) {
                     largestColumnNumber = otherColumnNumber;
-                    largestColumnSize = numValuesInColumn[otherColumnNumber];
+                    largestColumnSize = bytesInColumn[otherColumnNumber];
                 }
             }
+            if (largestColumnSize == 0) return;
 
             // Write buckets from the largest column to disk and empty written buckets
             int globalLargestColumnIndex = startTableColumnIndex + largestColumnNumber;
             for (int largeBucketNumber = 0; largeBucketNumber < binder.numBucketsPerColumn; largeBucketNumber++) {
-                writeBucket(binder.tempFolder, globalLargestColumnIndex, largeBucketNumber, -1, buckets.get(largestColumnNumber).get(largeBucketNumber), binder.columnSizes);
-                buckets.get(largestColumnNumber).set(largeBucketNumber, new HashMap<>());
+                ValueCountMap largeBucket = buckets.get(largestColumnNumber).get(largeBucketNumber);
+                if (unaryAttributes[globalLargestColumnIndex].statistics != null)
+                    unaryAttributes[globalLargestColumnIndex].statistics.update(largeBucketNumber, largeBucket);
+                unaryAttributes[globalLargestColumnIndex].entriesPerBucket[largeBucketNumber] += largeBucket.size();
+                writeBucket(binder, globalLargestColumnIndex, largeBucketNumber, -1, largeBucket);
+                largeBucket.clear();
             }
-            numValuesInColumn[largestColumnNumber] = 0;
+            memoryManager.release(largestColumnSize);
+            bytesInColumn[largestColumnNumber] = 0;
 
             binder.spillCounts[globalLargestColumnIndex] = binder.spillCounts[globalLargestColumnIndex] + 1;
-
-            System.gc();
+            binder.metrics.addSpill();
         }
     }
 
-    private static void toDisk(BINDER binder, int[] emptyBuckets, int numTableColumns, int startTableColumnIndex, List<List<Map<String, Long>>> buckets) throws IOException {
+    private static void toDisk(BINDER binder, int[] emptyBuckets, int numTableColumns, int startTableColumnIndex, List<List<ValueCountMap>> buckets,
+                               Attribute[] unaryAttributes) throws IOException {
         for (int columnNumber = 0; columnNumber < numTableColumns; columnNumber++) {
             int globalColumnIndex = startTableColumnIndex + columnNumber;
             if (binder.spillCounts[globalColumnIndex] == 0) { // if a column was spilled to disk, we do not count empty buckets for this column, because the partitioning
                 // distributes the values evenly and hence all buckets should have been populated
+                if (binder.config.adaptiveBuckets)
+                    chooseBucketPieces(binder, globalColumnIndex, buckets.get(columnNumber));
                 for (int bucketNumber = 0; bucketNumber < binder.numBucketsPerColumn; bucketNumber++) {
-                    Map<String, Long> bucket = buckets.get(columnNumber).get(bucketNumber);
-                    if (bucket.size() != 0)
-                        writeBucket(binder.tempFolder, globalColumnIndex, bucketNumber, -1, bucket, binder.columnSizes);
-                    else emptyBuckets[bucketNumber] = emptyBuckets[bucketNumber] + 1;
+                    ValueCountMap bucket = buckets.get(columnNumber).get(bucketNumber);
+                    unaryAttributes[globalColumnIndex].distinctValues += bucket.size();
+                    if (binder.config.duplicateHandling == Config.DuplicateHandling.UNAWARE)
+                        unaryAttributes[globalColumnIndex].valuesPerBucket[bucketNumber] = bucket.size();
+                    if (unaryAttributes[globalColumnIndex].statistics != null)
+                        unaryAttributes[globalColumnIndex].statistics.update(bucketNumber, bucket);
+                    if (bucket.size() != 0) {
+                        writeBucket(binder, globalColumnIndex, bucketNumber, -1, bucket);
+                        if (binder.config.validationStrategy == Config.ValidationStrategy.BLOOM)
+                            writeBucketFilter(binder, globalColumnIndex, bucketNumber, bucket);
+                    } else emptyBuckets[bucketNumber] = emptyBuckets[bucketNumber] + 1;
                 }
             } else {
                 for (int bucketNumber = 0; bucketNumber < binder.numBucketsPerColumn; bucketNumber++) {
-                    Map<String, Long> bucket = buckets.get(columnNumber).get(bucketNumber);
+                    ValueCountMap bucket = buckets.get(columnNumber).get(bucketNumber);
+                    if (unaryAttributes[globalColumnIndex].statistics != null)
+                        unaryAttributes[globalColumnIndex].statistics.update(bucketNumber, bucket);
+                    unaryAttributes[globalColumnIndex].entriesPerBucket[bucketNumber] += bucket.size();
                     if (bucket.size() != 0)
-                        writeBucket(binder.tempFolder, globalColumnIndex, bucketNumber, -1, bucket, binder.columnSizes);
+                        writeBucket(binder, globalColumnIndex, bucketNumber, -1, bucket);
                 }
+                // The spilled blocks of a bucket may share values, so the distinct values can only be counted on the complete buckets
+                if (needsDistinctValues(binder))
+                    for (int bucketNumber = 0; bucketNumber < binder.numBucketsPerColumn; bucketNumber++) {
+                        ValueCountMap bucket = readBucketAsList(binder, globalColumnIndex, bucketNumber, -1);
+                        int distinctValues = bucket.size();
+                        unaryAttributes[globalColumnIndex].distinctValues += distinctValues;
+                        unaryAttributes[globalColumnIndex].valuesPerBucket[bucketNumber] = distinctValues;
+                        if (unaryAttributes[globalColumnIndex].statistics != null)
+                            unaryAttributes[globalColumnIndex].statistics.setDistinctValues(bucketNumber, distinctValues);
+                        if (binder.config.validationStrategy == Config.ValidationStrategy.BLOOM)
+                            writeBucketFilter(binder, globalColumnIndex, bucketNumber, bucket);
+                    }
+                else if (binder.config.validationStrategy == Config.ValidationStrategy.BLOOM)
+                    for (int bucketNumber = 0; bucketNumber < binder.numBucketsPerColumn; bucketNumber++)
+                        writeBucketFilter(binder, globalColumnIndex, bucketNumber, unaryAttributes[globalColumnIndex].entriesPerBucket[bucketNumber]);
             }
         }
     }
 
-    static int calculateBucketFor(String value, int numBucketsPerColumn) {
-        return Math.abs(value.hashCode() % numBucketsPerColumn); // range partitioning
+    /**
+     * Counting the distinct values of a spilled column reads all its buckets once more. The count is only needed if duplicates are ignored and the threshold allows
+     * violations, because the violation budget of a candidate is then a share of the distinct values of its dependent column. Otherwise, the values per bucket of a
+     * spilled column keep counting all occurrences, which bounds the distinct values from above.
+     *
+     * @param binder the binder algorithm
+     * @return whether the distinct values of the spilled columns have to be counted
+     */
+    private static boolean needsDistinctValues(BINDER binder) {
+        return (binder.config.duplicateHandling == Config.DuplicateHandling.UNAWARE) && (binder.config.nullHandling == Config.NullHandling.SUBSET)
+                && (binder.config.threshold < 1.0);
     }
 
-    private static int calculateBucketFor(String value, int bucketNumber, int numSubBuckets, int numBucketsPerColumn) {
-        return ((Math.abs(value.hashCode() % (numBucketsPerColumn * numSubBuckets)) - bucketNumber) / numBucketsPerColumn); // range partitioning
+    /**
+     * Decides how the buckets of a column that has never been spilled are laid out on disk. All values of such a column are in memory, so its size is known exactly.
+     * Small columns keep all levels in one file. Large columns split every level into as many pieces as the validation needs sub buckets for the level if all
+     * attributes are as large and active, rounded up to a power of two; the sub buckets of a refined level are then read from the pieces instead of being re-partitioned.
+     *
+     * @param binder            the binder algorithm
+     * @param globalColumnIndex the column to lay out
+     * @param columnBuckets     the buckets of the column by level
+     */
+    private static void chooseBucketPieces(BINDER binder, int globalColumnIndex, List<ValueCountMap> columnBuckets) {
+        long columnSize = 0;
+        for (ValueCountMap bucket : columnBuckets)
+            for (int index = 0; index < bucket.size(); index++)
+                columnSize = columnSize + bucket.getValueLength(index) + ValueCountMap.BYTES_PER_ENTRY + OVERHEAD_PER_VALUE_FOR_INDEXES;
+
+        if (columnSize < SMALL_COLUMN_SIZE) {
+            binder.numBucketPieces[globalColumnIndex] = COMBINED;
+            return;
+        }
+
+        long levelSize = columnSize / binder.numBucketsPerColumn;
+        long maxBucketSize = binder.maxMemoryUsage / binder.numColumns;
+        long numPieces = HashCommon.nextPowerOfTwo(levelSize / maxBucketSize + 1);
+        binder.numBucketPieces[globalColumnIndex] = (int) Math.min(numPieces, MAX_BUCKET_PIECES);
+    }
+
+    private static int getNumBucketPieces(BINDER binder, int attributeNumber) {
+        if ((binder.numBucketPieces == null) || (attributeNumber >= binder.numBucketPieces.length)) return 1;
+        return binder.numBucketPieces[attributeNumber];
+    }
+
+    /**
+     * @return the pieces of a pre-split attribute that form the given sub bucket of the currently refined level; all pieces if the level is read as a whole, and
+     * null if the attribute is not pre-split or its pieces do not align with the sub buckets
+     */
+    private static IntArrayList getPieceNumbers(BINDER binder, int attributeNumber, int subBucketNumber) {
+        int numPieces = getNumBucketPieces(binder, attributeNumber);
+        if (numPieces <= 1) return null;
+        if ((subBucketNumber >= 0) && (numPieces % binder.numRefinedSubBuckets != 0)) return null;
+
+        IntArrayList pieceNumbers = new IntArrayList();
+        int first = Math.max(subBucketNumber, 0);
+        int step = (subBucketNumber >= 0) ? binder.numRefinedSubBuckets : 1;
+        for (int piece = first; piece < numPieces; piece += step)
+            pieceNumbers.add(piece);
+        return pieceNumbers;
+    }
+
+    /**
+     * @param hash the hash of a value as computed by {@link HashUtils#hash(String)}
+     * @return the bucket of the value, i.e. the hash modulo the number of buckets read as an unsigned number
+     */
+    static int calculateBucketFor(long hash, int numBucketsPerColumn) {
+        return (int) Long.remainderUnsigned(hash, numBucketsPerColumn);
+    }
+
+    /**
+     * @param hash the hash of a value as computed by {@link HashUtils#hash(String)}
+     * @return the sub bucket of the value within its bucket; the values of a sub bucket share the hash modulo #buckets * #sub buckets
+     */
+    private static int calculateBucketFor(long hash, int numSubBuckets, int numBucketsPerColumn) {
+        return (int) (Long.remainderUnsigned(hash, (long) numBucketsPerColumn * numSubBuckets) / numBucketsPerColumn);
     }
 
     static void calculateBucketComparisonOrder(int[] emptyBuckets, int numBucketsPerColumn, int numColumns, BINDER binder) {
@@ -336,72 +659,178 @@ public class Bucketizer {
             binder.bucketComparisonOrder[rank] = levels.get(rank).number();
     }
 
-    static void writeBucket(File tempFolder, int attributeNumber, int bucketNumber, int subBucketNumber, Map<String, Long> values, ArrayList<Long> columnSizes) throws IOException {
-        // Write the values
-        String bucketFilePath = getBucketFilePath(tempFolder, attributeNumber, bucketNumber, subBucketNumber);
-        writeToDisk(bucketFilePath, values);
+    static void writeBucket(BINDER binder, int attributeNumber, int bucketNumber, int subBucketNumber, ValueCountMap values) throws IOException {
+        if ((values == null) || (values.isEmpty())) return;
+
+        // Write the values; the merge validation expects every block of a bucket file to be a sorted run
+        if (binder.config.validationStrategy == Config.ValidationStrategy.MERGE)
+            values.sort();
+        int numPieces = (subBucketNumber < 0) ? getNumBucketPieces(binder, attributeNumber) : 1;
+        if (numPieces == COMBINED) {
+            binder.bucketCodec.write(getColumnFilePath(binder.tempFolder, attributeNumber), values);
+        } else if (numPieces > 1) {
+            // Pieces are assigned like sub buckets, so that the pieces of a sub bucket can be found without reading the level
+            List<IntArrayList> pieceIndexes = new ArrayList<>(numPieces);
+            for (int piece = 0; piece < numPieces; piece++)
+                pieceIndexes.add(new IntArrayList());
+            for (int index = 0; index < values.size(); index++)
+                pieceIndexes.get(calculateBucketFor(values.getHash(index), numPieces, binder.numBucketsPerColumn)).add(index);
+            for (int piece = 0; piece < numPieces; piece++)
+                if (!pieceIndexes.get(piece).isEmpty())
+                    binder.bucketCodec.write(getPieceFilePath(binder.tempFolder, attributeNumber, bucketNumber, piece), values, pieceIndexes.get(piece));
+        } else {
+            binder.bucketCodec.write(getBucketFilePath(binder.tempFolder, attributeNumber, bucketNumber, subBucketNumber), values);
+        }
 
-        // Add the size of the written values to the size of the current attribute
-        long size = columnSizes.get(attributeNumber);
-        // Bytes that each value requires in the comparison phase for the indexes
-        int overheadPerValueForIndexes = 64;
-        for (String value : values.keySet())
-            size = size + MeasurementUtils.sizeOf64(value) + overheadPerValueForIndexes;
-        columnSizes.set(attributeNumber, size);
+        // Add the size of the written values to the size of the current attribute and, unless a sub bucket was written, to the size of its bucket
+        long size = 0;
+        for (int index = 0; index < values.size(); index++)
+            size = size + values.getValueLength(index) + ValueCountMap.BYTES_PER_ENTRY + OVERHEAD_PER_VALUE_FOR_INDEXES;
+        binder.columnSizes.set(attributeNumber, binder.columnSizes.get(attributeNumber) + size);
+        if (subBucketNumber < 0) {
+            long[] attributeBucketSizes = binder.bucketSizes.get(attributeNumber);
+            attributeBucketSizes[bucketNumber] = attributeBucketSizes[bucketNumber] + size;
+        }
     }
 
-    private static void writeToDisk(String bucketFilePath, Map<String, Long> values) throws IOException {
-        if ((values == null) || (values.isEmpty())) return;
+    /**
+     * Writes the Bloom filter of a complete bucket that is held in memory. The filter is reserved in the memory manager while it is built.
+     */
+    private static void writeBucketFilter(BINDER binder, int attributeNumber, int bucketNumber, ValueCountMap bucket) throws IOException {
+        long filterBytes = BloomFilter.sizeInBytes(bucket.size(), binder.config.bloomFilterBitsPerValue);
+        binder.memoryManager.reserve(filterBytes);
+        try {
+            BloomFilter filter = new BloomFilter(bucket.size(), binder.config.bloomFilterBitsPerValue);
+            for (int index = 0; index < bucket.size(); index++)
+                filter.add(bucket.getHash(index));
+            writeBucketFilter(binder, attributeNumber, bucketNumber, filter);
+        } finally {
+            binder.memoryManager.release(filterBytes);
+        }
+    }
 
-        BufferedWriter writer = null;
+    /**
+     * Writes the Bloom filter of a complete bucket by reading the bucket from disk, e.g. after its column was spilled. The filter is reserved in the memory manager
+     * while it is built.
+     *
+     * @param maxDistinctValues an upper bound of the distinct values of the bucket, e.g. the sum of the entries of its spilled blocks, to which the filter is sized
+     */
+    private static void writeBucketFilter(BINDER binder, int attributeNumber, int bucketNumber, long maxDistinctValues) throws IOException {
+        long filterBytes = BloomFilter.sizeInBytes(maxDistinctValues, binder.config.bloomFilterBitsPerValue);
+        binder.memoryManager.reserve(filterBytes);
+        BucketIterator iterator = null;
         try {
-            writer = FileUtils.buildFileWriter(bucketFilePath, true);
-            for (String value : values.keySet()) {
-                writer.write(value);
-                writer.newLine();
-                writer.write(values.get(value).toString());
-                writer.newLine();
-            }
-            writer.flush();
+            BloomFilter filter = new BloomFilter(maxDistinctValues, binder.config.bloomFilterBitsPerValue);
+            iterator = getBucketIterator(binder, attributeNumber, bucketNumber, -1);
+            if (iterator != null)
+                while (iterator.next())
+                    filter.add(iterator.getHash());
+            writeBucketFilter(binder, attributeNumber, bucketNumber, filter);
         } finally {
-            FileUtils.close(writer);
+            FileUtils.close(iterator);
+            binder.memoryManager.release(filterBytes);
         }
     }
 
-    static Map<String, Long> readBucketAsList(BINDER binder, int attributeNumber, int bucketNumber, int subBucketNumber) throws IOException {
+    private static void writeBucketFilter(BINDER binder, int attributeNumber, int bucketNumber, BloomFilter filter) throws IOException {
+        String filterFilePath = getFilterFilePath(binder.tempFolder, attributeNumber, bucketNumber);
+        filter.write(filterFilePath);
+        binder.metrics.addBytesWritten(new File(filterFilePath).length());
+    }
+
+    /**
+     * @return the Bloom filter of a bucket level of the attribute, which also covers each of its sub buckets; null if no filter has been written
+     * @throws IOException if the filter file can not be read
+     */
+    static BloomFilter readBucketFilter(BINDER binder, int attributeNumber, int bucketNumber) throws IOException {
+        String filterFilePath = getFilterFilePath(binder.tempFolder, attributeNumber, bucketNumber);
+        BloomFilter filter = BloomFilter.read(filterFilePath);
+        if (filter != null)
+            binder.metrics.addBytesRead(new File(filterFilePath).length());
+        return filter;
+    }
+
+    /**
+     * Reads a bucket or sub bucket entry by entry without holding it in memory.
+     *
+     * @return an iterator over the entries of the bucket, which may repeat values of a spilled bucket; null if the bucket is empty
+     * @throws IOException if the bucket file can not be read
+     */
+    static BucketIterator readBucketAsStream(BINDER binder, int attributeNumber, int bucketNumber, int subBucketNumber) throws IOException {
         if ((binder.attribute2subBucketsCache != null) && (binder.attribute2subBucketsCache.containsKey(attributeNumber)))
-            return binder.attribute2subBucketsCache.get(attributeNumber).get(subBucketNumber);
+            return SortedRunMerger.of(binder.attribute2subBucketsCache.get(attributeNumber).get(subBucketNumber));
 
-        Map<String, Long> bucket = new HashMap<>();
-        String bucketFilePath = getBucketFilePath(binder.tempFolder, attributeNumber, bucketNumber, subBucketNumber);
-        readFromDisk(bucketFilePath, bucket);
-        return bucket;
+        return getBucketIterator(binder, attributeNumber, bucketNumber, subBucketNumber);
     }
 
-    private static void readFromDisk(String bucketFilePath, Map<String, Long> values) throws IOException {
-        File file = new File(bucketFilePath);
-        if (!file.exists()) return;
+    static ValueCountMap readBucketAsList(BINDER binder, int attributeNumber, int bucketNumber, int subBucketNumber) throws IOException {
+        if ((binder.attribute2subBucketsCache != null) && (binder.attribute2subBucketsCache.containsKey(attributeNumber)))
+            return binder.attribute2subBucketsCache.get(attributeNumber).get(subBucketNumber);
+
+        ValueCountMap bucket = new ValueCountMap();
+        BucketIterator iterator = getBucketIterator(binder, attributeNumber, bucketNumber, subBucketNumber);
+        if (iterator == null) return bucket;
 
-        BufferedReader reader = null;
-        String value;
         try {
-            reader = FileUtils.buildFileReader(bucketFilePath);
-            while ((value = reader.readLine()) != null) {
-                long amount = Long.parseLong(reader.readLine());
-                values.put(value, amount);
-            }
+            // A spilled bucket consists of several blocks, which might contain the same value
+            while (iterator.next())
+                bucket.add(iterator.getValue(), iterator.getHash(), iterator.getCount());
         } finally {
-            FileUtils.close(reader);
+            FileUtils.close(iterator);
         }
+        return bucket;
     }
 
-    private static BufferedReader getBucketReader(File tempFolder, int attributeNumber, int bucketNumber) throws IOException {
-        String bucketFilePath = getBucketFilePath(tempFolder, attributeNumber, bucketNumber, -1);
+    /**
+     * Reads a bucket as one sorted run by merging the sorted runs that were written for it.
+     *
+     * @return an iterator over the sorted values of the bucket or null if the bucket is empty
+     * @throws IOException if the bucket file can not be read
+     */
+    static BucketIterator readBucketAsSortedRun(BINDER binder, int attributeNumber, int bucketNumber, int subBucketNumber) throws IOException {
+        if ((binder.attribute2subBucketsCache != null) && (binder.attribute2subBucketsCache.containsKey(attributeNumber)))
+            return SortedRunMerger.of(binder.attribute2subBucketsCache.get(attributeNumber).get(subBucketNumber));
+
+        if ((subBucketNumber < 0) && (getNumBucketPieces(binder, attributeNumber) == COMBINED)) {
+            List<BucketIterator> runs = new ArrayList<>();
+            for (BucketIterator run : binder.bucketCodec.readRuns(getColumnFilePath(binder.tempFolder, attributeNumber)))
+                runs.add(new FilteredBucketIterator(run, hash -> calculateBucketFor(hash, binder.numBucketsPerColumn) == bucketNumber));
+            return SortedRunMerger.of(runs);
+        }
+
+        IntArrayList pieceNumbers = getPieceNumbers(binder, attributeNumber, subBucketNumber);
+        if (pieceNumbers != null) {
+            List<BucketIterator> runs = new ArrayList<>();
+            for (int piece : pieceNumbers)
+                runs.addAll(binder.bucketCodec.readRuns(getPieceFilePath(binder.tempFolder, attributeNumber, bucketNumber, piece)));
+            return SortedRunMerger.of(runs);
+        }
+
+        return SortedRunMerger.of(binder.bucketCodec.readRuns(getBucketFilePath(binder.tempFolder, attributeNumber, bucketNumber, subBucketNumber)));
+    }
+
+    /**
+     * @return an iterator over the entries of a bucket or sub bucket in the layout of its attribute; null if the bucket is empty
+     */
+    private static BucketIterator getBucketIterator(BINDER binder, int attributeNumber, int bucketNumber, int subBucketNumber) throws IOException {
+        if ((subBucketNumber < 0) && (getNumBucketPieces(binder, attributeNumber) == COMBINED)) {
+            BucketIterator iterator = binder.bucketCodec.read(getColumnFilePath(binder.tempFolder, attributeNumber));
+            if (iterator == null) return null;
+            return new FilteredBucketIterator(iterator, hash -> calculateBucketFor(hash, binder.numBucketsPerColumn) == bucketNumber);
+        }
 
-        File file = new File(bucketFilePath);
-        if (!file.exists()) return null;
+        IntArrayList pieceNumbers = getPieceNumbers(binder, attributeNumber, subBucketNumber);
+        if (pieceNumbers != null) {
+            // The pieces hold disjoint values, so they can be read one after another
+            List<BucketIterator> pieces = new ArrayList<>(pieceNumbers.size());
+            for (int piece : pieceNumbers) {
+                BucketIterator iterator = binder.bucketCodec.read(getPieceFilePath(binder.tempFolder, attributeNumber, bucketNumber, piece));
+                if (iterator != null) pieces.add(iterator);
+            }
+            return pieces.isEmpty() ? null : new ConcatenatedBucketIterator(pieces);
+        }
 
-        return FileUtils.buildFileReader(bucketFilePath);
+        return binder.bucketCodec.read(getBucketFilePath(binder.tempFolder, attributeNumber, bucketNumber, subBucketNumber));
     }
 
     private static String getBucketFilePath(File tempFolder, int attributeNumber, int bucketNumber, int subBucketNumber) {
@@ -410,25 +839,102 @@ public class Bucketizer {
         return tempFolder.getPath() + File.separator + attributeNumber + File.separator + bucketNumber;
     }
 
+    private static String getPieceFilePath(File tempFolder, int attributeNumber, int bucketNumber, int pieceNumber) {
+        return tempFolder.getPath() + File.separator + attributeNumber + File.separator + bucketNumber + "-" + pieceNumber;
+    }
+
+    private static String getFilterFilePath(File tempFolder, int attributeNumber, int bucketNumber) {
+        return tempFolder.getPath() + File.separator + attributeNumber + File.separator + bucketNumber + ".bloom";
+    }
+
+    private static String getColumnFilePath(File tempFolder, int attributeNumber) {
+        return tempFolder.getPath() + File.separator + attributeNumber + File.separator + "all";
+    }
+
     static int[] refineBucketLevel(BINDER binder, BitSet activeAttributes, int attributeOffset, int level) throws IOException {
-        // The offset is used for n-ary INDs, because their buckets are placed behind the unary buckets on disk, which is important if the unary buckets have not been deleted
-        // before
-        // Empty sub bucket cache, because it will be refilled in the following
-        logger.info("Refining at level " + (level + 1));
-        binder.attribute2subBucketsCache = null;
+        return refineBucketLevel(binder, activeAttributes, attributeOffset, level, binder.maxMemoryUsage);
+    }
 
-        // Give a hint to the gc
-        System.gc();
+    /**
+     * How a bucket level is refined.
+     *
+     * @param numSubBuckets   the number of sub buckets; 1 if the level does not need to be refined
+     * @param splitAttributes the active attributes whose buckets are split into sub buckets on disk; the buckets of all other active attributes are cached as a whole
+     */
+    private record Refinement(int numSubBuckets, BitSet splitAttributes) {
+    }
 
-        // Measure the size of the level and find the attribute with the largest bucket
-        int numAttributes = 0;
+    /**
+     * Plans the refinement of a bucket level from the sizes of the level's buckets, so that a skewed level is split as far as its buckets require, while the other
+     * levels are not refined at all. The smallest buckets of the level are cached as long as they take at most half of the given memory together; only the remaining,
+     * oversized buckets are split into as many sub buckets as they need, so that one sub bucket of each of them fits into the memory next to the cached buckets.
+     *
+     * @param binder           the binder algorithm
+     * @param activeAttributes the attributes that are loaded for the level
+     * @param attributeOffset  the offset of the attribute numbers on disk
+     * @param level            the bucket level to refine
+     * @param maxLevelMemory   the memory that one sub bucket of all active attributes may use
+     * @return the number of sub buckets and the attributes whose buckets need to be split
+     */
+    private static Refinement planRefinement(BINDER binder, BitSet activeAttributes, int attributeOffset, int level, long maxLevelMemory) {
+        IntArrayList attributes = new IntArrayList(activeAttributes.cardinality());
         long levelSize = 0;
         for (int attribute = activeAttributes.nextSetBit(0); attribute >= 0; attribute = activeAttributes.nextSetBit(attribute + 1)) {
-            numAttributes++;
-            int attributeIndex = attribute + attributeOffset;
-            long bucketSize = binder.columnSizes.get(attributeIndex) / binder.numBucketsPerColumn;
-            levelSize = levelSize + bucketSize;
+            attributes.add(attribute);
+            levelSize = levelSize + binder.bucketSizes.get(attribute + attributeOffset)[level];
+        }
+
+        BitSet splitAttributes = new BitSet();
+        if (levelSize <= maxLevelMemory)
+            return new Refinement(1, splitAttributes);
+
+        // Cache the smallest buckets and split the rest
+        attributes.sort((a, b) -> Long.compare(binder.bucketSizes.get(a + attributeOffset)[level], binder.bucketSizes.get(b + attributeOffset)[level]));
+        long cachedSize = 0;
+        for (int attribute : attributes) {
+            long bucketSize = binder.bucketSizes.get(attribute + attributeOffset)[level];
+            if (splitAttributes.isEmpty() && (cachedSize + bucketSize <= maxLevelMemory / 2)) cachedSize = cachedSize + bucketSize;
+            else splitAttributes.set(attribute);
         }
+        // The cached buckets take at most half of the memory, so the split buckets exceed the other half and need at least two sub buckets
+        int numSubBuckets = (int) ((levelSize - cachedSize) / (maxLevelMemory - cachedSize)) + 1;
+
+        // Pre-split attributes can only provide their sub buckets from their pieces if the number of sub buckets is a power of two
+        if (binder.config.adaptiveBuckets)
+            numSubBuckets = HashCommon.nextPowerOfTwo(numSubBuckets);
+        return new Refinement(numSubBuckets, splitAttributes);
+    }
+
+    /**
+     * Calculates into how many sub buckets a bucket level needs to be split, so that each sub bucket of all active attributes fits into the given amount of memory.
+     *
+     * @param binder           the binder algorithm
+     * @param activeAttributes the attributes that are loaded for the level
+     * @param attributeOffset  the offset of the attribute numbers on disk
+     * @param level            the bucket level
+     * @param maxLevelMemory   the memory that one sub bucket of all active attributes may use
+     * @return the number of sub buckets; 1 if the level does not need to be refined
+     */
+    static int calculateNumSubBuckets(BINDER binder, BitSet activeAttributes, int attributeOffset, int level, long maxLevelMemory) {
+        return planRefinement(binder, activeAttributes, attributeOffset, level, maxLevelMemory).numSubBuckets();
+    }
+
+    /**
+     * Splits the buckets of the given level into sub buckets, if all buckets of the level together do not fit into the given amount of memory. The sub buckets of small
+     * buckets are kept in the attribute2subBucketsCache, those of oversized buckets are written to disk (see {@link #planRefinement}).
+     *
+     * @param maxLevelMemory the memory that one sub bucket of all active attributes may use
+     * @return the numbers of the sub buckets; {-1} if the level does not need to be refined
+     * @throws IOException if a bucket can not be read or a sub bucket can not be written
+     */
+    static int[] refineBucketLevel(BINDER binder, BitSet activeAttributes, int attributeOffset, int level, long maxLevelMemory) throws IOException {
+        // The offset is used for n-ary INDs, because their buckets are placed behind the unary buckets on disk, which is important if the unary buckets have not been deleted
+        // before
+        // Empty sub bucket cache, because it will be refilled in the following
+        logger.info("Refining at level " + (level + 1));
+        releaseSubBucketsCache(binder);
+
+        int numAttributes = activeAttributes.cardinality();
 
         // If there are no active attributes, no refinement is needed
         if (numAttributes == 0) {
@@ -437,9 +943,9 @@ public class Bucketizer {
             return subBucketNumbers;
         }
 
-        // Define the number of sub buckets
-        long maxBucketSize = binder.maxMemoryUsage / numAttributes;
-        int numSubBuckets = (int) (levelSize / binder.maxMemoryUsage) + 1;
+        // Define the number of sub buckets and which buckets need to be split on disk
+        Refinement refinement = planRefinement(binder, activeAttributes, attributeOffset, level, maxLevelMemory);
+        int numSubBuckets = refinement.numSubBuckets();
 
         int[] subBucketNumbers = new int[numSubBuckets];
 
@@ -454,58 +960,88 @@ public class Bucketizer {
 
         if (attributeOffset == 0) binder.refinements[level] = numSubBuckets;
         else binder.naryRefinements.get(binder.naryRefinements.size() - 1)[level] = numSubBuckets;
+        binder.metrics.addRefinement();
 
         binder.attribute2subBucketsCache = new Int2ObjectOpenHashMap<>(numSubBuckets);
+        binder.numRefinedSubBuckets = numSubBuckets;
+
+        // The cached sub buckets stay reserved until the cache is released
+        MemoryManager memoryManager = binder.memoryManager;
 
         // Refine
         for (int attribute = activeAttributes.nextSetBit(0); attribute >= 0; attribute = activeAttributes.nextSetBit(attribute + 1)) {
             int attributeIndex = attribute + attributeOffset;
+            boolean split = refinement.splitAttributes().get(attribute);
+
+            // A pre-split attribute already holds the sub buckets of the level in its pieces
+            if (split && (getPieceNumbers(binder, attributeIndex, 0) != null))
+                continue;
 
-            List<Map<String, Long>> subBuckets = new ArrayList<>(numSubBuckets);
+            List<ValueCountMap> subBuckets = new ArrayList<>(numSubBuckets);
             for (int subBucket = 0; subBucket < numSubBuckets; subBucket++)
-                subBuckets.add(new HashMap<>());
+                subBuckets.add(new ValueCountMap(memoryManager));
+            long baseBytes = sizeInBytes(List.of(subBuckets));
+            memoryManager.reserve(baseBytes);
+            long bytesInSubBuckets = 0;
 
-            BufferedReader reader = null;
-            String value;
+            BucketIterator iterator = null;
             boolean spilled = false;
             try {
-                reader = getBucketReader(binder.tempFolder, attributeIndex, level);
+                iterator = getBucketIterator(binder, attributeIndex, level, -1);
 
-                if (reader != null) {
+                if (iterator != null) {
                     int numValuesSinceLastMemoryCheck = 0;
 
-                    while ((value = reader.readLine()) != null) {
-                        int bucketNumber = calculateBucketFor(value, level, numSubBuckets, binder.numBucketsPerColumn);
-                        long amount = Long.parseLong(reader.readLine());
-                        subBuckets.get(bucketNumber).compute(value, (k, v) -> v == null ? amount : v + amount);
+                    while (iterator.next()) {
+                        // The stored hash decides the sub bucket, so the value is not hashed again
+                        long hash = iterator.getHash();
+                        int bucketNumber = calculateBucketFor(hash, numSubBuckets, binder.numBucketsPerColumn);
+                        long amount = iterator.getCount();
+                        ValueCountMap subBucket = subBuckets.get(bucketNumber);
+                        long subBucketSize = subBucket.sizeInBytes();
+                        subBucket.add(iterator.getValue(), hash, amount);
                         numValuesSinceLastMemoryCheck++;
 
+                        long growth = subBucket.sizeInBytes() - subBucketSize;
+                        if (growth > 0) {
+                            bytesInSubBuckets = bytesInSubBuckets + growth;
+                            memoryManager.reserve(growth);
+                        }
+
                         // Occasionally check the memory consumption
                         if (numValuesSinceLastMemoryCheck >= binder.memoryCheckFrequency) {
                             numValuesSinceLastMemoryCheck = 0;
 
                             // Spill to disk if necessary
-                            if (ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() > binder.maxMemoryUsage) {
-                                for (int subBucket = 0; subBucket < numSubBuckets; subBucket++) {
-                                    writeBucket(binder.tempFolder, attributeIndex, level, subBucket, subBuckets.get(subBucket), binder.columnSizes);
-                                    subBuckets.set(subBucket, new HashMap<>());
+                            if (memoryManager.isExceeded()) {
+                                for (int spilledSubBucket = 0; spilledSubBucket < numSubBuckets; spilledSubBucket++) {
+                                    writeBucket(binder, attributeIndex, level, spilledSubBucket, subBuckets.get(spilledSubBucket));
+                                    subBuckets.get(spilledSubBucket).clear();
                                 }
+                                memoryManager.release(bytesInSubBuckets);
+                                bytesInSubBuckets = 0;
 
                                 spilled = true;
-                                System.gc();
+                                binder.metrics.addSpill();
                             }
                         }
                     }
                 }
             } finally {
-                FileUtils.close(reader);
+                FileUtils.close(iterator);
             }
 
-            // Large sub buckets need to be written to disk; small sub buckets can stay in memory
-            if ((binder.columnSizes.get(attributeIndex) / binder.numBucketsPerColumn > maxBucketSize) || spilled)
-                for (int subBucket = 0; subBucket < numSubBuckets; subBucket++)
-                    writeBucket(binder.tempFolder, attributeIndex, level, subBucket, subBuckets.get(subBucket), binder.columnSizes);
-            else binder.attribute2subBucketsCache.put(attributeIndex, subBuckets);
+            // The sub buckets of oversized buckets need to be written to disk; those of small buckets can stay in memory
+            if (split || spilled) {
+                for (int subBucket = 0; subBucket < numSubBuckets; subBucket++) {
+                    writeBucket(binder, attributeIndex, level, subBucket, subBuckets.get(subBucket));
+                    subBuckets.get(subBucket).release();
+                }
+                memoryManager.release(baseBytes + bytesInSubBuckets);
+            } else {
+                binder.attribute2subBucketsCache.put(attributeIndex, subBuckets);
+                binder.bytesInSubBucketsCache = binder.bytesInSubBucketsCache + baseBytes + bytesInSubBuckets;
+            }
         }
 
         return subBucketNumbers;
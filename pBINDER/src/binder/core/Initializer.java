@@ -1,6 +1,9 @@
 package binder.core;
 
+import binder.io.BucketCodec;
+import binder.io.ColumnarTableCache;
 import binder.io.DefaultFileInputGenerator;
+import binder.io.MeasuredBucketCodec;
 import binder.io.RelationalFileInput;
 import binder.utils.FileUtils;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
@@ -28,16 +31,28 @@ public class Initializer {
         // Initialize temp folder
         binder.tempFolder = new File(binder.tempFolderPath + File.separator + "temp");
 
+        // The column files of the tables are kept next to the temp folder, because the temp folder is cleaned before the n-ary detection
+        binder.columnFolder = new File(binder.tempFolderPath + File.separator + "columns");
+
         // Clean temp if there are files from previous runs that may pollute this run
         FileUtils.cleanDirectory(binder.tempFolder);
+        FileUtils.cleanDirectory(binder.columnFolder);
+
+        // Initialize the format of the bucket files
+        binder.bucketCodec = new MeasuredBucketCodec(BucketCodec.forFormat(binder.config.bucketFormat), binder.metrics);
 
-        // Initialize memory management
+        // Initialize memory management; a memory limit that has been set from the outside is kept
         binder.availableMemory = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
-        binder.maxMemoryUsage = (long) (binder.availableMemory * (binder.maxMemoryUsagePercentage / 100.0f));
+        if (binder.maxMemoryUsage <= 0)
+            binder.maxMemoryUsage = (long) (binder.availableMemory * (binder.maxMemoryUsagePercentage / 100.0f));
+        binder.memoryManager = new MemoryManager(binder.maxMemoryUsage, binder.config.offHeapBuckets);
 
         // Query meta data for input tables
         initializeMetaData(binder);
 
+        // Convert the input tables into their columnar cache or reuse the cache of a previous run
+        initializeTableCaches(binder);
+
         // Build an index that assigns the columns to their tables, because the n-ary detection can only group those attributes that belong to the same table and the foreign key detection also only groups attributes from different tables.
         binder.column2table = new int[binder.numColumns];
         int table = 0;
@@ -78,6 +93,8 @@ public class Initializer {
         binder.numColumns = binder.columnNames.size();
         binder.columnSizes = new ArrayList<>(binder.numColumns);
         for (int i = 0; i < binder.numColumns; i++) binder.columnSizes.add(0L);
+        binder.bucketSizes = new ArrayList<>(binder.numColumns);
+        for (int i = 0; i < binder.numColumns; i++) binder.bucketSizes.add(new long[binder.numBucketsPerColumn]);
 
         binder.nullValueColumns = new BitSet(binder.numColumns);
 
@@ -90,6 +107,34 @@ public class Initializer {
 
     }
 
+    /**
+     * Opens the columnar cache of every table if it is enabled. Tables whose cache does not exist or is outdated are converted now; a table that can not be converted
+     * within the memory limit is read from its input file instead.
+     *
+     * @param binder The Algorithm class
+     */
+    private static void initializeTableCaches(BINDER binder) throws IOException {
+        binder.tableCaches = new ColumnarTableCache[binder.tableNames.length];
+        if (!binder.config.columnarCache) return;
+
+        binder.cacheFolder = new File(binder.tempFolderPath + File.separator + "cache");
+        for (int tableIndex = 0; tableIndex < binder.tableNames.length; tableIndex++) {
+            String tableName = binder.tableNames[tableIndex];
+            int numTableColumns = Bucketizer.getNumTableColumns(binder, tableIndex);
+
+            binder.tableCaches[tableIndex] = ColumnarTableCache.open(binder.cacheFolder, tableName, binder.config, numTableColumns);
+            if (binder.tableCaches[tableIndex] != null) {
+                logger.info("Reusing the columnar cache of " + tableName);
+                continue;
+            }
+
+            logger.info("Building the columnar cache of " + tableName);
+            binder.tableCaches[tableIndex] = ColumnarTableCache.build(binder.cacheFolder, tableName, binder.config, numTableColumns, binder.maxMemoryUsage);
+            if (binder.tableCaches[tableIndex] == null)
+                logger.warn("The columnar cache of " + tableName + " exceeds the memory or file size limits; the table is read from its input file");
+        }
+    }
+
     static void collectStatisticsFrom(BINDER binder, DefaultFileInputGenerator inputGenerator) throws IOException {
         RelationalFileInput input = inputGenerator.generateNewCopy();
         // Query attribute names and types
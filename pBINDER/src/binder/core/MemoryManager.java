@@ -0,0 +1,94 @@
+package binder.core;
+
+import binder.structures.BufferAllocator;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps track of the memory that the in-memory buckets occupy and provides the buffers in which they store their values. Every thread that fills buckets reserves the
+ * exact number of bytes by which its buckets grow and releases them again once the buckets are spilled to disk. Spill decisions only depend on these counters and
+ * not on the heap usage, which is inaccurate until the garbage collector has run.
+ * <p>
+ * The buffers are allocated on the heap or, if configured, off-heap as direct buffers. Buffers of spilled buckets are pooled by their size and handed out again to
+ * growing buckets, so that their memory is reused instead of waiting for the garbage collector to free it.
+ */
+class MemoryManager implements BufferAllocator {
+
+    private static final int MIN_BUFFER_SIZE_SHIFT = 8;
+    private static final int MAX_BUFFER_SIZE_SHIFT = 30;
+    // The pool keeps at most this fraction of the maximum memory usage in unused buffers
+    private static final int MAX_POOLED_MEMORY_DIVISOR = 8;
+
+    private final long maxMemoryUsage;
+    private final boolean offHeap;
+    private final AtomicLong reserved = new AtomicLong(0L);
+    private final AtomicLong pooled = new AtomicLong(0L);
+    private final ConcurrentLinkedQueue<ByteBuffer>[] pool;
+
+    MemoryManager(long maxMemoryUsage, boolean offHeap) {
+        this.maxMemoryUsage = maxMemoryUsage;
+        this.offHeap = offHeap;
+        this.pool = newPool(MAX_BUFFER_SIZE_SHIFT + 1);
+        for (int shift = MIN_BUFFER_SIZE_SHIFT; shift <= MAX_BUFFER_SIZE_SHIFT; shift++)
+            this.pool[shift] = new ConcurrentLinkedQueue<>();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ConcurrentLinkedQueue<ByteBuffer>[] newPool(int numSizeClasses) {
+        return (ConcurrentLinkedQueue<ByteBuffer>[]) new ConcurrentLinkedQueue<?>[numSizeClasses];
+    }
+
+    void reserve(long bytes) {
+        this.reserved.addAndGet(bytes);
+    }
+
+    void release(long bytes) {
+        this.reserved.addAndGet(-bytes);
+    }
+
+    /**
+     * @return whether the reservations of all threads together exceed the maximum memory usage
+     */
+    boolean isExceeded() {
+        return this.reserved.get() > this.maxMemoryUsage;
+    }
+
+    /**
+     * Hands out a pooled buffer of the capacity's size class or allocates a new one. Buffers are not reserved here, because their owners account for them as part of
+     * their size.
+     */
+    @Override
+    public ByteBuffer allocate(int capacity) {
+        int shift = sizeClassOf(capacity);
+        if (shift > MAX_BUFFER_SIZE_SHIFT)
+            return this.offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+
+        ByteBuffer buffer = this.pool[shift].poll();
+        if (buffer != null) {
+            this.pooled.addAndGet(-buffer.capacity());
+            return buffer.clear();
+        }
+        return this.offHeap ? ByteBuffer.allocateDirect(1 << shift) : ByteBuffer.allocate(1 << shift);
+    }
+
+    @Override
+    public void free(ByteBuffer buffer) {
+        int shift = sizeClassOf(buffer.capacity());
+        if ((shift > MAX_BUFFER_SIZE_SHIFT) || (buffer.capacity() != (1 << shift)) || (buffer.isDirect() != this.offHeap))
+            return;
+
+        // Buffers that do not fit into the pool anymore are left to the garbage collector
+        if (this.pooled.addAndGet(buffer.capacity()) > this.maxMemoryUsage / MAX_POOLED_MEMORY_DIVISOR) {
+            this.pooled.addAndGet(-buffer.capacity());
+            return;
+        }
+        this.pool[shift].offer(buffer);
+    }
+
+    private static int sizeClassOf(int capacity) {
+        if (capacity <= (1 << MIN_BUFFER_SIZE_SHIFT)) return MIN_BUFFER_SIZE_SHIFT;
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    }
+}
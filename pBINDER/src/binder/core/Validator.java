@@ -1,17 +1,33 @@
 package binder.core;
 
+import binder.io.BucketIterator;
+import binder.metrics.Metrics;
 import binder.runner.Config;
+import binder.structures.Attribute;
 import binder.structures.AttributeCombination;
-import binder.structures.pINDSingleLinkedList;
+import binder.structures.BloomFilter;
+import binder.structures.EncodedBucketLevel;
+import binder.structures.InvertedIndex;
+import binder.structures.MinHashSketch;
+import binder.structures.PruningStatistics;
+import binder.structures.ValueCountMap;
+import binder.structures.pINDArrayList;
+import binder.utils.ConcurrencyUtils;
+import binder.utils.FileUtils;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.ints.IntListIterator;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class Validator {
 
@@ -19,7 +35,12 @@ public class Validator {
     private final double threshold;
     int numColumns;
     BitSet activeAttributes;
+    private boolean concurrentValidation = false;
     List<AttributeCombination> attributeCombinations;
+    // Maps the attribute combinations of the current n-ary level to their position in attributeCombinations
+    private Object2IntOpenHashMap<AttributeCombination> attributeCombination2Index;
+    // The unary candidates that can no longer be violated and have been output already
+    private Int2ObjectOpenHashMap<pINDArrayList> finalDep2ref;
     Logger logger = LoggerFactory.getLogger(Validator.class);
 
     BINDER binder;
@@ -41,7 +62,7 @@ public class Validator {
             if (naryDep2ref.containsKey(attributeCombination)) {
                 // All attribute combinations referenced by this attribute are active
                 for (AttributeCombination refAttributeCombination : naryDep2ref.get(attributeCombination))
-                    activeAttributeCombinations.set(attributeCombinations.indexOf(refAttributeCombination));
+                    activeAttributeCombinations.set(this.indexOf(refAttributeCombination));
                 // This attribute combination is active if it references any other attribute
                 if (!naryDep2ref.get(attributeCombination).isEmpty()) activeAttributeCombinations.set(attribute);
             }
@@ -55,80 +76,141 @@ public class Validator {
         ////////////////////////////////////////////////////
 
         this.attributeCombinations = attributeCombinations;
+        this.attributeCombination2Index = new Object2IntOpenHashMap<>(attributeCombinations.size());
+        this.attributeCombination2Index.defaultReturnValue(-1);
+        for (int index = 0; index < attributeCombinations.size(); index++)
+            this.attributeCombination2Index.put(attributeCombinations.get(index), index);
 
         // Iterate the buckets for all remaining INDs until the end is reached or no more INDs exist
         BitSet activeAttributeCombinations = new BitSet(attributeCombinations.size());
         activeAttributeCombinations.set(0, attributeCombinations.size());
 
         levelLoop(naryDep2ref, naryOffset, activeAttributeCombinations);
+        Bucketizer.releaseSubBucketsCache(binder);
 
         // Format the results by removing all dependent attribute combinations which have no referenced attribute combinations
         naryDep2ref.keySet().removeIf(attributeCombination -> naryDep2ref.get(attributeCombination).isEmpty());
     }
 
     private void levelLoop(Map<AttributeCombination, List<AttributeCombination>> naryDep2ref, int naryOffset, BitSet activeAttributeCombinations) throws IOException {
+        int arity = attributeCombinations.get(0).size();
         for (int bucketNumber : binder.bucketComparisonOrder) {
+            Metrics.BucketLevel level = binder.metrics.startLevel(arity, countCandidates(naryDep2ref));
+            int numLoadedAttributeCombinations = 0;
+
             // Refine the current bucket level if it does not fit into memory at once
             int[] subBucketNumbers = Bucketizer.refineBucketLevel(binder, activeAttributeCombinations, naryOffset, bucketNumber);
             for (int subBucketNumber : subBucketNumbers) {
                 // Identify all currently active attributes
                 activeAttributeCombinations = getActiveAttributeCombinations(activeAttributeCombinations, naryDep2ref, attributeCombinations);
                 binder.naryActiveAttributesPerBucketLevel.add(activeAttributeCombinations.cardinality());
-                if (activeAttributeCombinations.isEmpty()) return;
+                numLoadedAttributeCombinations = Math.max(numLoadedAttributeCombinations, activeAttributeCombinations.cardinality());
+                if (activeAttributeCombinations.isEmpty()) {
+                    level.end(new int[]{bucketNumber}, subBucketNumbers.length, numLoadedAttributeCombinations, countCandidates(naryDep2ref));
+                    return;
+                }
 
-                // Load next bucket level as two stage index
-                Int2ObjectOpenHashMap<Map<String, Long>> attributeCombination2Bucket = new Int2ObjectOpenHashMap<>();
-                Map<String, IntArrayList> invertedIndex = new HashMap<>();
-                for (int attributeCombination = activeAttributeCombinations.nextSetBit(0); attributeCombination >= 0; attributeCombination =
-                        activeAttributeCombinations.nextSetBit(attributeCombination + 1)) {
-                    // Build the index
-                    Map<String, Long> bucket = Bucketizer.readBucketAsList(binder, naryOffset + attributeCombination, bucketNumber, subBucketNumber);
-                    attributeCombination2Bucket.put(attributeCombination, bucket);
-                    // Build the inverted index
-                    for (String value : bucket.keySet()) {
-                        if (!invertedIndex.containsKey(value)) invertedIndex.put(value, new IntArrayList(2));
-                        invertedIndex.get(value).add(attributeCombination);
-                    }
+                if (binder.config.validationStrategy == Config.ValidationStrategy.DICTIONARY) {
+                    validateNarySubBucketViaDictionary(naryDep2ref, naryOffset, activeAttributeCombinations, bucketNumber, subBucketNumber);
+                    continue;
                 }
 
-                // Check nary pINDs
+                // Load next bucket level as inverted index
+                InvertedIndex invertedIndex = new InvertedIndex();
                 for (int attributeCombination = activeAttributeCombinations.nextSetBit(0); attributeCombination >= 0; attributeCombination =
-                        activeAttributeCombinations.nextSetBit(attributeCombination + 1)) {
-                    for (String value : attributeCombination2Bucket.get(attributeCombination).keySet()) {
-                        // Break if the attribute combination does not reference any other attribute combination
-                        if (!naryDep2ref.containsKey(attributeCombinations.get(attributeCombination)) || (naryDep2ref.get(attributeCombinations.get(attributeCombination)).isEmpty()))
-                            break;
+                        activeAttributeCombinations.nextSetBit(attributeCombination + 1))
+                    invertedIndex.add(attributeCombination, Bucketizer.readBucketAsList(binder, naryOffset + attributeCombination, bucketNumber, subBucketNumber));
+
+                // Check nary pINDs
+                IntArrayList attributeCombinationGroup = new IntArrayList();
+                LongArrayList occurrencesInGroup = new LongArrayList();
+                BitSet groupMembers = new BitSet(attributeCombinations.size());
+                for (int entry = 0; entry < invertedIndex.size(); entry++) {
+                    // Prune using the group of attribute combinations containing the current value
+                    invertedIndex.getGroup(entry, attributeCombinationGroup, occurrencesInGroup, groupMembers);
+                    prune(naryDep2ref, attributeCombinationGroup, occurrencesInGroup, groupMembers);
+
+                    for (int attributeCombination : attributeCombinationGroup)
+                        groupMembers.clear(attributeCombination);
+                    attributeCombinationGroup.clear();
+                    occurrencesInGroup.clear();
+                }
+            }
+            level.end(new int[]{bucketNumber}, subBucketNumbers.length, numLoadedAttributeCombinations, countCandidates(naryDep2ref));
+        }
+    }
 
-                        // Continue if the current value has already been handled
-                        if (!invertedIndex.containsKey(value)) continue;
+    private static long countCandidates(Map<AttributeCombination, List<AttributeCombination>> naryDep2ref) {
+        long numCandidates = 0;
+        for (List<AttributeCombination> refs : naryDep2ref.values())
+            numCandidates = numCandidates + refs.size();
+        return numCandidates;
+    }
 
-                        // Prune using the group of attributes containing the current value
-                        IntArrayList sameValueGroup = invertedIndex.get(value);
-                        prune(value, naryDep2ref, sameValueGroup, attributeCombination2Bucket);
+    private static long countCandidates(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs) {
+        long numCandidates = 0;
+        for (pINDArrayList refs : attribute2Refs.values())
+            numCandidates = numCandidates + refs.size();
+        return numCandidates;
+    }
 
-                        // Remove the current value from the index as it has now been handled
-                        invertedIndex.remove(value);
-                    }
+    /**
+     * Validates the n-ary candidates on the dictionary encoding of a sub-bucket. Each candidate is checked by comparing the sorted value ids of its attribute
+     * combinations.
+     *
+     * @param naryDep2ref                 The current n-ary pIND candidates
+     * @param naryOffset                  the number of attributes created in lower levels
+     * @param activeAttributeCombinations the attribute combinations that take part in the sub-bucket
+     * @param bucketNumber                the bucket level to validate
+     * @param subBucketNumber             the sub-bucket of the level to validate
+     * @throws IOException if a (sub)bucket can not be read from disk.
+     */
+    private void validateNarySubBucketViaDictionary(Map<AttributeCombination, List<AttributeCombination>> naryDep2ref, int naryOffset, BitSet activeAttributeCombinations,
+                                                    int bucketNumber, int subBucketNumber) throws IOException {
+        EncodedBucketLevel encodedLevel = new EncodedBucketLevel();
+        for (int attributeCombination = activeAttributeCombinations.nextSetBit(0); attributeCombination >= 0; attributeCombination =
+                activeAttributeCombinations.nextSetBit(attributeCombination + 1))
+            encodedLevel.add(attributeCombination, Bucketizer.readBucketAsList(binder, naryOffset + attributeCombination, bucketNumber, subBucketNumber));
+
+        for (int attributeCombination = activeAttributeCombinations.nextSetBit(0); attributeCombination >= 0; attributeCombination =
+                activeAttributeCombinations.nextSetBit(attributeCombination + 1)) {
+            List<AttributeCombination> references = naryDep2ref.get(this.attributeCombinations.get(attributeCombination));
+            if (references == null) continue;
+
+            Iterator<AttributeCombination> referenceIterator = references.iterator();
+            while (referenceIterator.hasNext()) {
+                AttributeCombination reference = referenceIterator.next();
+                long violations = encodedLevel.countViolations(attributeCombination, this.indexOf(reference), true, reference.violationsLeft);
+                if (violations == 0) continue;
+
+                reference.violationsLeft -= violations;
+                if (reference.violationsLeft < 0L) {
+                    referenceIterator.remove();
                 }
             }
         }
     }
 
+    private int indexOf(AttributeCombination attributeCombination) {
+        return this.attributeCombination2Index.getInt(attributeCombination);
+    }
+
     /**
      * n-ary puring method to update the naryDep2ref object.
      * Using the attributeCombinationGroup, the method ensures that only pINDs stay valid, which are still possible.
      *
-     * @param value                       String value which connects the attributes
-     * @param naryDep2ref                 The current n-ary pIND candidates
-     * @param attributeCombinationGroup   ids of the attributes sharing the given value
-     * @param attributeCombination2Bucket maps the id of an attribute to the bucket associated with that attribute
+     * @param naryDep2ref               The current n-ary pIND candidates
+     * @param attributeCombinationGroup ids of the attributes sharing a value
+     * @param occurrencesInGroup        the number of occurrences of the value in each attribute of the group
+     * @param groupMembers              the attributes of the group as a BitSet
      */
-    private void prune(String value, Map<AttributeCombination, List<AttributeCombination>> naryDep2ref, IntArrayList attributeCombinationGroup, Int2ObjectOpenHashMap<Map<String,
-            Long>> attributeCombination2Bucket) {
+    private void prune(Map<AttributeCombination, List<AttributeCombination>> naryDep2ref, IntArrayList attributeCombinationGroup, LongArrayList occurrencesInGroup,
+                       BitSet groupMembers) {
         // iterate over dependent attributes which contain the given value
-        for (int dependant : attributeCombinationGroup) {
+        for (int i = 0; i < attributeCombinationGroup.size(); i++) {
+            int dependant = attributeCombinationGroup.getInt(i);
             // get number of occurrences in attribute combination
-            long occurrences = attributeCombination2Bucket.get(dependant).get(value);
+            long occurrences = occurrencesInGroup.getLong(i);
 
             // if the attribute in the attributeCombinationGroup is not only a referenced attribute, we continue with the next one
             if (!naryDep2ref.containsKey(this.attributeCombinations.get(dependant))) {
@@ -140,7 +222,7 @@ public class Validator {
                 AttributeCombination reference = referenceIterator.next();
 
                 // check if referenced combination contains the value
-                if (!attributeCombination2Bucket.get(this.attributeCombinations.indexOf(reference)).containsKey(value)) {
+                if (!groupMembers.get(this.indexOf(reference))) {
                     reference.violationsLeft -= occurrences;
 
                     if (reference.violationsLeft < 0L) {
@@ -152,49 +234,73 @@ public class Validator {
     }
 
     /**
-     * All attributes that share a value form an attribute group. This method prunes the existing attribute refs by
-     * removing all references fom each attribute which have no more validations left.
+     * Prunes the references of all attributes in an attribute group, which the merge or the index validation has collected for one value.
      *
-     * @param attribute2Refs Map from attribute index to referenced attributes
-     * @param attributeGroup List of attribute indices that share a value
+     * @param attribute2Refs     Map from attribute index to referenced attributes
+     * @param attributeGroup     List of attribute indices that share a value
+     * @param occurrencesInGroup the number of occurrences of the value in each attribute of the group
+     * @param groupMembers       the attributes of the group as a BitSet
      */
-    private void prune(String value, Int2ObjectOpenHashMap<pINDSingleLinkedList> attribute2Refs, IntArrayList attributeGroup,
-                       Int2ObjectOpenHashMap<Map<String, Long>> attribute2Bucket) {
-        // iterate over every attribute which is in the attribute group
-        for (int dependant : attributeGroup) {
-            // get occurrences of value in current attribute
-            long occurrences = attribute2Bucket.get(dependant).get(value);
-
-            // for each possible pIND
-            pINDSingleLinkedList.pINDIterator referencedAttributes = attribute2Refs.get(dependant).elementIterator();
-            while (referencedAttributes.hasNext()) {
-                pINDSingleLinkedList.pINDElement pINDCandidate = referencedAttributes.next();
-                // for every pINDCandidate we check if the value is also present
-                if (!attribute2Bucket.get(pINDCandidate.referenced).containsKey(value)) {
-
-                    // if it is not present the open violations get decreased by the number of occurrences of the value
-                    if (binder.config.duplicateHandling == Config.DuplicateHandling.AWARE) {
-                        pINDCandidate.violationsLeft -= occurrences;
-                    } else {
-                        // in an unaware setting, we only care about distinct violations
-                        pINDCandidate.violationsLeft -= 1;
-                    }
+    void prune(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs, IntArrayList attributeGroup, LongArrayList occurrencesInGroup, BitSet groupMembers) {
+        for (int i = 0; i < attributeGroup.size(); i++) {
+            long occurrences = occurrencesInGroup.getLong(i);
 
-                    // if there should not be any violations left, we remove the attribute from the pINDCandidate attributes-
-                    if (pINDCandidate.violationsLeft < 0L) {
-                        referencedAttributes.remove();
-                    }
+            pINDArrayList.pINDIterator referencedAttributes = attribute2Refs.get(attributeGroup.getInt(i)).elementIterator();
+            while (referencedAttributes.hasNext()) {
+                pINDArrayList.pINDElement pINDCandidate = referencedAttributes.next();
+                // the value is missing in every referenced attribute that is not part of the group
+                if (!groupMembers.get(pINDCandidate.getReferenced()) && addViolation(pINDCandidate, occurrences)) {
+                    referencedAttributes.remove();
                 }
             }
         }
     }
 
+    /**
+     * Registers a value of the dependent attribute that does not occur in the referenced attribute of the given candidate.
+     *
+     * @param pINDCandidate the violated candidate
+     * @param occurrences   the number of occurrences of the value in the dependent attribute
+     * @return whether the candidate has no violations left and needs to be removed
+     */
+    private boolean addViolation(pINDArrayList.pINDElement pINDCandidate, long occurrences) {
+        // if it is not present the open violations get decreased by the number of occurrences of the value;
+        // in an unaware setting, we only care about distinct violations
+        return addViolations(pINDCandidate, (binder.config.duplicateHandling == Config.DuplicateHandling.AWARE) ? occurrences : 1L);
+    }
+
+    /**
+     * @param pINDCandidate the violated candidate
+     * @param violations    the number of violations to subtract from the candidate's violations left
+     * @return whether the candidate has no violations left and needs to be removed
+     */
+    private boolean addViolations(pINDArrayList.pINDElement pINDCandidate, long violations) {
+        // other threads might iterate the same candidates, so violated candidates are removed after the concurrent validation
+        if (this.concurrentValidation) {
+            pINDCandidate.decreaseViolationsLeftAtomically(violations);
+            return false;
+        }
+
+        return pINDCandidate.decreaseViolationsLeft(violations) < 0L;
+    }
+
     /**
      * @param attribute2Refs A Map with attribute indices as keys and lists of referenced attributes by the key attribute.
      * @throws IOException if a (sub)bucket can not be found on disk.
      */
-    private void discoverUnary(Int2ObjectOpenHashMap<pINDSingleLinkedList> attribute2Refs) throws IOException {
-        for (int bucketNumber : binder.bucketComparisonOrder) {
+    private void discoverUnary(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs) throws IOException {
+        if (binder.config.numValidationThreads > 1) {
+            discoverUnaryConcurrently(attribute2Refs);
+            return;
+        }
+
+        for (int levelIndex = 0; levelIndex < binder.bucketComparisonOrder.length; levelIndex++) {
+            int bucketNumber = binder.bucketComparisonOrder[levelIndex];
+            if (binder.config.incrementalUnaryOutput)
+                finalizeCandidates(attribute2Refs, levelIndex);
+            Metrics.BucketLevel level = binder.metrics.startLevel(1, countCandidates(attribute2Refs));
+            int numLoadedAttributes = 0;
+
             // Refine the current bucket level if it does not fit into memory at once
             int[] subBucketNumbers = Bucketizer.refineBucketLevel(binder, activeAttributes, 0, bucketNumber);
 
@@ -205,64 +311,299 @@ public class Validator {
                 // safe the number of attributes which are still active in this bucket.
                 // This number will always be smaller than the previous in the list
                 binder.activeAttributesPerBucketLevel.add(activeAttributes.cardinality());
+                numLoadedAttributes = Math.max(numLoadedAttributes, activeAttributes.cardinality());
 
                 // If there are no more active attributes, all pINDs have been found.
-                if (activeAttributes.isEmpty()) return;
+                if (activeAttributes.isEmpty()) {
+                    level.end(new int[]{bucketNumber}, subBucketNumbers.length, numLoadedAttributes, countCandidates(attribute2Refs));
+                    return;
+                }
 
-                // the attribute2bucket Map take the attribute index as a key and returns the buckets values
-                Int2ObjectOpenHashMap<Map<String, Long>> attribute2Bucket = new Int2ObjectOpenHashMap<>(numColumns);
+                validateSubBucket(attribute2Refs, bucketNumber, subBucketNumber);
+            }
+            level.end(new int[]{bucketNumber}, subBucketNumbers.length, numLoadedAttributes, countCandidates(attribute2Refs));
+        }
+    }
 
-                // the invertedIndex stores in which buckets each value exists
-                Map<String, IntArrayList> invertedIndex = new HashMap<>();
+    /**
+     * Validates several bucket levels or sub buckets at the same time. Pruning within a level only decreases the violations left of the candidates, which is
+     * commutative, so the levels do not depend on each other. While a batch of levels is validated, the candidates are only decreased atomically and violated
+     * candidates are removed after the batch has finished. To stay within the memory limit, every level or sub bucket of a batch may only use a share of the memory.
+     *
+     * @param attribute2Refs A Map with attribute indices as keys and lists of referenced attributes by the key attribute.
+     * @throws IOException if a (sub)bucket can not be found on disk.
+     */
+    private void discoverUnaryConcurrently(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs) throws IOException {
+        int numThreads = binder.config.numValidationThreads;
+        long maxUnitMemory = binder.maxMemoryUsage / numThreads;
+        logger.info("Validating with " + numThreads + " threads");
+
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            int levelIndex = 0;
+            while (levelIndex < binder.bucketComparisonOrder.length) {
+                if (binder.config.incrementalUnaryOutput)
+                    finalizeCandidates(attribute2Refs, levelIndex);
+
+                // update all currently active attributes; the set stays fixed while the batch is validated
+                updateActiveAttributesFromLists(attribute2Refs);
+                if (activeAttributes.isEmpty()) {
+                    binder.activeAttributesPerBucketLevel.add(0);
+                    return;
+                }
+
+                // Either validate the next levels that fit into memory as a whole or split the next level into sub buckets that are validated concurrently
+                Metrics.BucketLevel level = binder.metrics.startLevel(1, countCandidates(attribute2Refs));
+                IntArrayList bucketNumbers = new IntArrayList();
+                List<int[]> batch = new ArrayList<>();
+                if (Bucketizer.calculateNumSubBuckets(binder, activeAttributes, 0, binder.bucketComparisonOrder[levelIndex], maxUnitMemory) == 1) {
+                    // A level that needs to be refined ends the batch, because only one level at a time can cache its sub buckets
+                    while ((batch.size() < numThreads) && (levelIndex < binder.bucketComparisonOrder.length)
+                            && (Bucketizer.calculateNumSubBuckets(binder, activeAttributes, 0, binder.bucketComparisonOrder[levelIndex], maxUnitMemory) == 1)) {
+                        int bucketNumber = binder.bucketComparisonOrder[levelIndex++];
+                        bucketNumbers.add(bucketNumber);
+                        for (int subBucketNumber : Bucketizer.refineBucketLevel(binder, activeAttributes, 0, bucketNumber, maxUnitMemory))
+                            batch.add(new int[]{bucketNumber, subBucketNumber});
+                    }
+                } else {
+                    int bucketNumber = binder.bucketComparisonOrder[levelIndex++];
+                    bucketNumbers.add(bucketNumber);
+                    for (int subBucketNumber : Bucketizer.refineBucketLevel(binder, activeAttributes, 0, bucketNumber, maxUnitMemory))
+                        batch.add(new int[]{bucketNumber, subBucketNumber});
+                }
+
+                this.concurrentValidation = true;
+                List<Future<?>> validations = new ArrayList<>(batch.size());
+                for (int[] unit : batch) {
+                    binder.activeAttributesPerBucketLevel.add(activeAttributes.cardinality());
+                    validations.add(executor.submit(() -> {
+                        validateSubBucket(attribute2Refs, unit[0], unit[1]);
+                        return null;
+                    }));
+                }
+                try {
+                    for (Future<?> validation : validations)
+                        ConcurrencyUtils.await(validation);
+                } finally {
+                    this.concurrentValidation = false;
+                }
+
+                removeViolatedCandidates(attribute2Refs);
+                level.end(bucketNumbers.toIntArray(), batch.size() / bucketNumbers.size(), activeAttributes.cardinality(), countCandidates(attribute2Refs));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-                // load the entire sub-bucket into the inverted index
-                loadSubBucket(bucketNumber, subBucketNumber, attribute2Bucket, invertedIndex);
+    private void validateSubBucket(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs, int bucketNumber, int subBucketNumber) throws IOException {
+        switch (binder.config.validationStrategy) {
+            case INDEX -> validateSubBucketViaIndex(attribute2Refs, bucketNumber, subBucketNumber);
+            case MERGE -> validateSubBucketViaMerging(attribute2Refs, bucketNumber, subBucketNumber);
+            case DICTIONARY -> validateSubBucketViaDictionary(attribute2Refs, bucketNumber, subBucketNumber);
+            case BLOOM -> validateSubBucketViaFilters(attribute2Refs, bucketNumber, subBucketNumber);
+        }
+    }
 
-                // validate the attributes using the bucket values
-                validateSubBucket(attribute2Refs, attribute2Bucket, invertedIndex);
+    /**
+     * Removes all candidates of the active attributes that ran out of violations during a concurrent validation.
+     *
+     * @param attribute2Refs A Map with attribute indices as keys and lists of referenced attributes by the key attribute.
+     */
+    private void removeViolatedCandidates(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs) {
+        for (int attribute = getNextAttribute(); attribute != -1; attribute = getNextAttribute(++attribute)) {
+            pINDArrayList.pINDIterator referencedAttributes = attribute2Refs.get(attribute).elementIterator();
+            while (referencedAttributes.hasNext()) {
+                if (referencedAttributes.next().getViolationsLeft() < 0L) {
+                    referencedAttributes.remove();
+                }
             }
         }
     }
 
-    private void loadSubBucket(int bucketNumber, int subBucketNumber, Int2ObjectOpenHashMap<Map<String, Long>> attribute2Bucket, Map<String, IntArrayList> invertedIndex) throws IOException {
+    private void validateSubBucketViaIndex(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs, int bucketNumber, int subBucketNumber) throws IOException {
+        // the invertedIndex stores in which buckets each value exists
+        InvertedIndex invertedIndex = new InvertedIndex();
+
+        // load the entire sub-bucket into the inverted index
+        loadSubBucket(bucketNumber, subBucketNumber, invertedIndex);
+
+        // validate the attributes using the bucket values
+        validateSubBucket(attribute2Refs, invertedIndex);
+    }
+
+    /**
+     * Validates a sub-bucket like the index validation, but only loads the attributes that still reference other attributes. An attribute that is only referenced is
+     * first probed with the values of the loaded attributes through the Bloom filter of its bucket level. If the filter rules out every value, the attribute's bucket
+     * is not read at all; otherwise its bucket is streamed and added to the attribute groups of the values it contains, which confirms the possible hits exactly.
+     *
+     * @param attribute2Refs  A Map with attribute indices as keys and lists of referenced attributes by the key attribute.
+     * @param bucketNumber    the bucket level to validate
+     * @param subBucketNumber the sub-bucket of the level to validate
+     * @throws IOException if a (sub)bucket or a filter can not be read from disk.
+     */
+    private void validateSubBucketViaFilters(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs, int bucketNumber, int subBucketNumber) throws IOException {
+        Int2ObjectOpenHashMap<ValueCountMap> attribute2Bucket = new Int2ObjectOpenHashMap<>(numColumns);
+        InvertedIndex invertedIndex = new InvertedIndex();
+        IntArrayList referenceOnlyAttributes = new IntArrayList();
         for (int attribute = getNextAttribute(); attribute != -1; attribute = getNextAttribute(++attribute)) {
-            // load the bucket of the active attribute
-            Map<String, Long> bucket = Bucketizer.readBucketAsList(binder, attribute, bucketNumber, subBucketNumber);
+            if (attribute2Refs.get(attribute).isEmpty()) {
+                referenceOnlyAttributes.add(attribute);
+                continue;
+            }
+            ValueCountMap bucket = Bucketizer.readBucketAsList(binder, attribute, bucketNumber, subBucketNumber);
             attribute2Bucket.put(attribute, bucket);
+            invertedIndex.add(attribute, bucket);
+        }
 
-            // Build the inverted index
-            addBucketToIndex(invertedIndex, attribute, bucket);
+        // Collect the loaded attributes that reference each attribute that is only referenced
+        Int2ObjectOpenHashMap<IntArrayList> referenced2Dependents = new Int2ObjectOpenHashMap<>(referenceOnlyAttributes.size());
+        BitSet referencedAttributes = new BitSet(numColumns);
+        for (int dependent : attribute2Bucket.keySet()) {
+            referencedAttributes.clear();
+            attribute2Refs.get(dependent).setOwnValuesIn(referencedAttributes);
+            for (int attribute : referenceOnlyAttributes)
+                if (referencedAttributes.get(attribute))
+                    referenced2Dependents.computeIfAbsent(attribute, key -> new IntArrayList()).add(dependent);
         }
+
+        // The values of the referencing attributes are probed against the filter with the hashes that are stored in their buckets
+        for (int attribute : referenceOnlyAttributes) {
+            IntArrayList dependents = referenced2Dependents.get(attribute);
+            if (dependents == null) continue;
+
+            BloomFilter filter = Bucketizer.readBucketFilter(binder, attribute, bucketNumber);
+            if ((filter != null) && !mightContainAny(filter, dependents, attribute2Bucket)) continue;
+
+            BucketIterator referencedValues = Bucketizer.readBucketAsStream(binder, attribute, bucketNumber, subBucketNumber);
+            if (referencedValues == null) continue;
+            try {
+                // A value of a spilled bucket may be repeated, but it is added to its group only once
+                while (referencedValues.next())
+                    invertedIndex.addIfContained(attribute, referencedValues.getValue(), referencedValues.getHash(), referencedValues.getCount());
+            } finally {
+                FileUtils.close(referencedValues);
+            }
+        }
+
+        validateSubBucket(attribute2Refs, invertedIndex);
     }
 
-    private void validateSubBucket(Int2ObjectOpenHashMap<pINDSingleLinkedList> attribute2Refs, Int2ObjectOpenHashMap<Map<String, Long>> attribute2Bucket, Map<String,
-            IntArrayList> invertedIndex) {
-        for (int attribute = getNextAttribute(); attribute != -1; attribute = getNextAttribute(++attribute)) {
-            // iteration over the values of the attribute
-            for (String value : attribute2Bucket.get(attribute).keySet()) {
+    /**
+     * @param filter           the filter of an attribute that is only referenced
+     * @param dependents       the loaded attributes that reference the filtered attribute
+     * @param attribute2Bucket the loaded buckets
+     * @return whether any value of the dependent attributes might be contained in the filtered attribute
+     */
+    private boolean mightContainAny(BloomFilter filter, IntArrayList dependents, Int2ObjectOpenHashMap<ValueCountMap> attribute2Bucket) {
+        for (int dependent : dependents) {
+            ValueCountMap bucket = attribute2Bucket.get(dependent);
+            for (int index = 0; index < bucket.size(); index++)
+                if (filter.mightContain(bucket.getHash(index))) return true;
+        }
+        return false;
+    }
 
-                // Break if the attribute does not reference any other attribute
-                if (attribute2Refs.get(attribute).isEmpty()) break;
+    /**
+     * Validates a sub-bucket by merging the sorted runs of all active attributes. Equal values of different attributes line up at the heads of the runs and form the
+     * attribute groups, which are pruned one after another. Only the current value of each active attribute is held in memory.
+     *
+     * @param attribute2Refs  A Map with attribute indices as keys and lists of referenced attributes by the key attribute.
+     * @param bucketNumber    the bucket level to validate
+     * @param subBucketNumber the sub-bucket of the level to validate
+     * @throws IOException if a (sub)bucket can not be read from disk.
+     */
+    private void validateSubBucketViaMerging(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs, int bucketNumber, int subBucketNumber) throws IOException {
+        PriorityQueue<AttributeRun> attributeRuns = new PriorityQueue<>(activeAttributes.cardinality() + 1);
+        List<AttributeRun> groupRuns = new ArrayList<>();
+        try {
+            for (int attribute = getNextAttribute(); attribute != -1; attribute = getNextAttribute(++attribute)) {
+                BucketIterator run = Bucketizer.readBucketAsSortedRun(binder, attribute, bucketNumber, subBucketNumber);
+                if ((run != null) && run.next()) attributeRuns.add(new AttributeRun(attribute, run));
+                else FileUtils.close(run);
+            }
 
-                // Continue if the current value has already been handled
-                if (!invertedIndex.containsKey(value)) continue;
+            IntArrayList attributeGroup = new IntArrayList();
+            LongArrayList occurrencesInGroup = new LongArrayList();
+            BitSet groupMembers = new BitSet(numColumns);
+            while (!attributeRuns.isEmpty()) {
+                // Collect all attributes that share the smallest value
+                String value = attributeRuns.peek().value;
+                while (!attributeRuns.isEmpty() && attributeRuns.peek().value.equals(value)) {
+                    AttributeRun attributeRun = attributeRuns.poll();
+                    attributeGroup.add(attributeRun.attribute);
+                    occurrencesInGroup.add(attributeRun.count);
+                    groupMembers.set(attributeRun.attribute);
+                    groupRuns.add(attributeRun);
+                }
 
-                // Prune using the group of attributes containing the current value
-                IntArrayList sameValueGroup = invertedIndex.get(value);
-                prune(value, attribute2Refs, sameValueGroup, attribute2Bucket);
+                prune(attribute2Refs, attributeGroup, occurrencesInGroup, groupMembers);
 
-                // Remove the current value from the index as it has now been handled
-                invertedIndex.remove(value);
+                // Move the runs of the group on to their next values
+                for (AttributeRun attributeRun : groupRuns) {
+                    if (attributeRun.advance()) attributeRuns.add(attributeRun);
+                    else FileUtils.close(attributeRun.run);
+                }
+                groupRuns.clear();
+                for (int attribute : attributeGroup)
+                    groupMembers.clear(attribute);
+                attributeGroup.clear();
+                occurrencesInGroup.clear();
             }
+        } finally {
+            for (AttributeRun attributeRun : attributeRuns)
+                FileUtils.close(attributeRun.run);
+            for (AttributeRun attributeRun : groupRuns)
+                FileUtils.close(attributeRun.run);
         }
     }
 
-    private void addBucketToIndex(Map<String, IntArrayList> invertedIndex, int attribute, Map<String, Long> bucket) {
-        for (String value : bucket.keySet()) {
-            if (!invertedIndex.containsKey(value)) {
-                invertedIndex.put(value, new IntArrayList());
+    /**
+     * Validates a sub-bucket on its dictionary encoding. Instead of grouping the attributes by value, every candidate counts the values of its dependent attribute that
+     * are missing in its referenced attribute by comparing their sorted value ids.
+     *
+     * @param attribute2Refs  A Map with attribute indices as keys and lists of referenced attributes by the key attribute.
+     * @param bucketNumber    the bucket level to validate
+     * @param subBucketNumber the sub-bucket of the level to validate
+     * @throws IOException if a (sub)bucket can not be read from disk.
+     */
+    private void validateSubBucketViaDictionary(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs, int bucketNumber, int subBucketNumber) throws IOException {
+        EncodedBucketLevel encodedLevel = new EncodedBucketLevel();
+        for (int attribute = getNextAttribute(); attribute != -1; attribute = getNextAttribute(++attribute))
+            encodedLevel.add(attribute, Bucketizer.readBucketAsList(binder, attribute, bucketNumber, subBucketNumber));
+
+        boolean countOccurrences = binder.config.duplicateHandling == Config.DuplicateHandling.AWARE;
+        for (int attribute = getNextAttribute(); attribute != -1; attribute = getNextAttribute(++attribute)) {
+            pINDArrayList.pINDIterator referencedAttributes = attribute2Refs.get(attribute).elementIterator();
+            while (referencedAttributes.hasNext()) {
+                pINDArrayList.pINDElement pINDCandidate = referencedAttributes.next();
+                long violations = encodedLevel.countViolations(attribute, pINDCandidate.getReferenced(), countOccurrences, pINDCandidate.getViolationsLeft());
+                if ((violations > 0) && addViolations(pINDCandidate, violations)) {
+                    referencedAttributes.remove();
+                }
             }
-            invertedIndex.get(value).add(attribute);
+        }
+    }
+
+    private void loadSubBucket(int bucketNumber, int subBucketNumber, InvertedIndex invertedIndex) throws IOException {
+        // Build the inverted index from the buckets of the active attributes
+        for (int attribute = getNextAttribute(); attribute != -1; attribute = getNextAttribute(++attribute))
+            invertedIndex.add(attribute, Bucketizer.readBucketAsList(binder, attribute, bucketNumber, subBucketNumber));
+    }
+
+    private void validateSubBucket(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs, InvertedIndex invertedIndex) {
+        IntArrayList attributeGroup = new IntArrayList();
+        LongArrayList occurrencesInGroup = new LongArrayList();
+        BitSet groupMembers = new BitSet(numColumns);
+        for (int entry = 0; entry < invertedIndex.size(); entry++) {
+            // Prune using the group of attributes containing the current value
+            invertedIndex.getGroup(entry, attributeGroup, occurrencesInGroup, groupMembers);
+            prune(attribute2Refs, attributeGroup, occurrencesInGroup, groupMembers);
+
+            for (int attribute : attributeGroup)
+                groupMembers.clear(attribute);
+            attributeGroup.clear();
+            occurrencesInGroup.clear();
         }
     }
 
@@ -291,7 +632,7 @@ public class Validator {
      *
      * @param attribute2Refs The attribute references list. For each attribute this object stores the indices of all referenced attributes.
      */
-    private void updateActiveAttributesFromLists(Int2ObjectOpenHashMap<pINDSingleLinkedList> attribute2Refs) {
+    private void updateActiveAttributesFromLists(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs) {
         BitSet activeAttributes = new BitSet(numColumns);
 
         // iterate over all previouslyActiveAttributes
@@ -321,30 +662,34 @@ public class Validator {
         }
 
         // Empty attributes can directly be placed in the output as they are contained in everything else; no empty attribute needs to be checked
-        Int2ObjectOpenHashMap<pINDSingleLinkedList> dep2refFinal = new Int2ObjectOpenHashMap<>(numColumns);
-        Int2ObjectOpenHashMap<pINDSingleLinkedList> attribute2Refs = new Int2ObjectOpenHashMap<>(numColumns);
+        Int2ObjectOpenHashMap<pINDArrayList> dep2refFinal = new Int2ObjectOpenHashMap<>(numColumns);
+        Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs = new Int2ObjectOpenHashMap<>(numColumns);
 
         fetchCandidates(unknown, attribute2Refs, dep2refFinal);
 
+        // Empty attributes have no values left to validate, so their candidates are final right away
+        this.finalDep2ref = new Int2ObjectOpenHashMap<>(numColumns);
+        finalizeCandidates(dep2refFinal, binder.bucketComparisonOrder.length);
+
+        // Discard candidates that the sketches of their columns already show to be violated
+        if (binder.config.sketchPruning)
+            pruneViaSketches(attribute2Refs);
+
         // The initially active attributes are all non-empty attributes
         initializeAttributeBitSet();
 
         // Iterate the buckets for all remaining INDs until the end is reached or no more INDs exist
         discoverUnary(attribute2Refs);
+        Bucketizer.releaseSubBucketsCache(binder);
 
-        // Remove all dependencies, where no reference exists.
-        // These attributes are not a subset of anything else.
-        cleanEmptyDependencies(attribute2Refs);
-
-        binder.dep2ref = attribute2Refs;
-        // add the dependency reference pairs which where already known
-        binder.dep2ref.putAll(dep2refFinal);
+        // All remaining candidates are final now. Dependencies without any references are not a subset of anything else and do not appear in the final candidates.
+        finalizeCandidates(attribute2Refs, binder.bucketComparisonOrder.length);
+        binder.dep2ref = this.finalDep2ref;
+        this.finalDep2ref = null;
 
         int numPINDs = 0;
-        for (int i : binder.dep2ref.keySet()) {
-            pINDSingleLinkedList.pINDIterator ei = binder.dep2ref.get(i).elementIterator();
-            while (ei.next() != null) numPINDs++;
-        }
+        for (int i : binder.dep2ref.keySet())
+            numPINDs = numPINDs + binder.dep2ref.get(i).size();
 
         logger.info("Finished validation. Found " + numPINDs + " pINDs");
     }
@@ -358,17 +703,143 @@ public class Validator {
         }
     }
 
-    private void cleanEmptyDependencies(Int2ObjectOpenHashMap<pINDSingleLinkedList> attribute2Refs) {
-        IntIterator depIterator = attribute2Refs.keySet().iterator();
-        while (depIterator.hasNext()) {
-            // if the referenced side is empty the attribute does not form any pINDs
-            if (attribute2Refs.get(depIterator.nextInt()).isEmpty()) {
-                depIterator.remove();
+    /**
+     * The head of the sorted run of an active attribute during the merge validation.
+     */
+    private static class AttributeRun implements Comparable<AttributeRun> {
+
+        private final int attribute;
+        private final BucketIterator run;
+        private String value;
+        private long count;
+
+        private AttributeRun(int attribute, BucketIterator run) {
+            this.attribute = attribute;
+            this.run = run;
+            this.value = run.getValue();
+            this.count = run.getCount();
+        }
+
+        private boolean advance() throws IOException {
+            if (!this.run.next()) return false;
+            this.value = this.run.getValue();
+            this.count = this.run.getCount();
+            return true;
+        }
+
+        @Override
+        public int compareTo(AttributeRun other) {
+            int order = this.value.compareTo(other.value);
+            return (order != 0) ? order : Integer.compare(this.attribute, other.attribute);
+        }
+    }
+
+    /**
+     * @param attribute the index of an attribute
+     * @return the number of values that the attribute contains; distinct values only count once if duplicates are ignored
+     */
+    private long getNumValues(int attribute) {
+        Attribute unaryAttribute = binder.unaryAttributes[attribute];
+        return (binder.config.duplicateHandling == Config.DuplicateHandling.AWARE) ? unaryAttribute.totalValues : unaryAttribute.distinctValues;
+    }
+
+    /**
+     * The violation budget is the share of the dependent values that the threshold allows to be missing in the referenced attribute. It is counted in the same unit as
+     * the violations, i.e. in occurrences if duplicates are counted and in distinct values if they are ignored, so that it does not depend on how the values are
+     * stored or how their size is estimated.
+     *
+     * @param dependent the index of the dependent attribute of a candidate
+     * @return the number of violations that a candidate with this dependent attribute may have
+     */
+    private long getViolationBudget(int dependent) {
+        return (long) ((1.0 - this.threshold) * ((double) getNumValues(dependent)));
+    }
+
+    /**
+     * Discards the candidates whose dependent values are clearly not contained in the referenced attribute, before any bucket is read. The sampled values of the
+     * dependent sketch that are missing in the referenced sketch are certain violations; their share of the sample, less the safety margin, estimates the share of
+     * missing distinct values. Because every missing distinct value causes at least one violation, a candidate is discarded if either number exceeds its violations.
+     *
+     * @param attribute2Refs A Map with attribute indices as keys and lists of referenced attributes by the key attribute.
+     */
+    private void pruneViaSketches(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs) {
+        long numCandidates = 0;
+        long numDiscarded = 0;
+        for (Int2ObjectMap.Entry<pINDArrayList> entry : attribute2Refs.int2ObjectEntrySet()) {
+            Attribute dependent = binder.unaryAttributes[entry.getIntKey()];
+            long allowedViolations = entry.getValue().getInitialViolations();
+            // The distinct values of spilled columns are only counted if the violation budget depends on them
+            double distinctValues = (dependent.distinctValues > 0) ? dependent.distinctValues : dependent.sketch.estimateDistinctValues();
+
+            pINDArrayList.pINDIterator referencedAttributes = entry.getValue().elementIterator();
+            while (referencedAttributes.hasNext()) {
+                pINDArrayList.pINDElement pINDCandidate = referencedAttributes.next();
+                numCandidates++;
+
+                MinHashSketch.Containment containment = dependent.sketch.containmentIn(binder.unaryAttributes[pINDCandidate.getReferenced()].sketch);
+                if (containment.sampled() == 0) continue;
+
+                double missingShare = (double) containment.missing() / containment.sampled() - binder.config.sketchSafetyMargin;
+                double estimatedMissingValues = missingShare * distinctValues;
+                if ((containment.missing() > allowedViolations) || (estimatedMissingValues > allowedViolations)) {
+                    referencedAttributes.remove();
+                    numDiscarded++;
+                }
+            }
+        }
+        logger.info("The sketches discarded " + numDiscarded + " of " + numCandidates + " candidates");
+        binder.metrics.addCounter("candidatesPrunedBySketches", numDiscarded);
+    }
+
+    /**
+     * Finalizes and outputs every candidate that the bucket levels from the given position in the comparison order onward can no longer violate, i.e. whose violations
+     * left cover all remaining values of its dependent attribute. The finalized candidates are removed from the candidates to check, so that their attributes can become
+     * inactive before all levels have been validated. After the last level, all candidates are finalized.
+     *
+     * @param attribute2Refs A Map with attribute indices as keys and lists of referenced attributes by the key attribute.
+     * @param levelIndex     the position of the next bucket level to validate in the bucket comparison order
+     * @throws IOException if the result sink fails
+     */
+    private void finalizeCandidates(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs, int levelIndex) throws IOException {
+        for (Int2ObjectMap.Entry<pINDArrayList> entry : attribute2Refs.int2ObjectEntrySet()) {
+            int dep = entry.getIntKey();
+            pINDArrayList refs = entry.getValue();
+            long remainingValues = getNumRemainingValues(dep, levelIndex);
+
+            pINDArrayList.pINDIterator referencedAttributes = refs.elementIterator();
+            while (referencedAttributes.hasNext()) {
+                pINDArrayList.pINDElement pINDCandidate = referencedAttributes.next();
+                if (pINDCandidate.getViolationsLeft() < remainingValues) continue;
+
+                // Assume that all remaining values are violations, so that the violations left of a final candidate can only be too low
+                long violationsLeft = pINDCandidate.getViolationsLeft() - remainingValues;
+                pINDArrayList finalRefs = this.finalDep2ref.get(dep);
+                if (finalRefs == null) {
+                    finalRefs = new pINDArrayList(refs.getInitialViolations());
+                    this.finalDep2ref.put(dep, finalRefs);
+                }
+                finalRefs.add(pINDCandidate.getReferenced(), violationsLeft);
+                binder.outputUnary(dep, pINDCandidate.getReferenced(), refs.getInitialViolations() - violationsLeft, remainingValues == 0, getNumValues(dep));
+
+                referencedAttributes.remove();
             }
         }
     }
 
-    private void fetchCandidates(IntArrayList columns, Int2ObjectOpenHashMap<pINDSingleLinkedList> attributes2refCheck, Int2ObjectOpenHashMap<pINDSingleLinkedList> dep2refFinal) {
+    /**
+     * @param attribute  the index of an attribute
+     * @param levelIndex the position of the next bucket level to validate in the bucket comparison order
+     * @return the number of values of the attribute in the bucket levels that have not been validated yet, counted like the violations
+     */
+    private long getNumRemainingValues(int attribute, int levelIndex) {
+        long[] valuesPerBucket = binder.unaryAttributes[attribute].valuesPerBucket;
+        long remainingValues = 0;
+        for (int i = levelIndex; i < binder.bucketComparisonOrder.length; i++)
+            remainingValues = remainingValues + valuesPerBucket[binder.bucketComparisonOrder[i]];
+        return remainingValues;
+    }
+
+    private void fetchCandidates(IntArrayList columns, Int2ObjectOpenHashMap<pINDArrayList> attributes2refCheck, Int2ObjectOpenHashMap<pINDArrayList> dep2refFinal) {
 
         // assume all columns are empty. An empty column has no values at all
         IntArrayList nonEmptyColumns = new IntArrayList(columns.size());
@@ -390,11 +861,10 @@ public class Validator {
                     // if the left-hand side has no non-null values, it is a subset of all columns.
                     // We can directly add such a column to the final set.
                     if (columnSizes.get(dep) == 0) {
-                        dep2refFinal.put(dep, new pINDSingleLinkedList(0L, columns, dep));
+                        dep2refFinal.put(dep, new pINDArrayList(0L, columns, dep));
                     } else {
                         // TODO: account for NULLS in violations
-                        long violations = (long) ((1.0 - threshold) * ((double) columnSizes.get(dep)));
-                        attributes2refCheck.put(dep, new pINDSingleLinkedList(violations, nonEmptyColumns, dep));
+                        attributes2refCheck.put(dep, new pINDArrayList(getViolationBudget(dep), nonEmptyColumns, dep));
                     }
                 }
             }
@@ -416,7 +886,7 @@ public class Validator {
                             iterator.remove();
                     }
 
-                    attributes2refCheck.put(dep, new pINDSingleLinkedList(0L, seed, dep));
+                    attributes2refCheck.put(dep, new pINDArrayList(0L, seed, dep));
                 }
             }
 
@@ -425,5 +895,37 @@ public class Validator {
                 // TODO: we need to check if the attributes have null and if under a given threshold an pIND is still possible
             }
         }
+
+        // Discard candidates whose bucket statistics already prove too many violations
+        if (binder.config.statisticalPruning)
+            pruneViaStatistics(attributes2refCheck);
+    }
+
+    /**
+     * Discards the candidates that are impossible under the threshold according to the {@link PruningStatistics} of their attributes.
+     *
+     * @param attribute2Refs A Map with attribute indices as keys and lists of referenced attributes by the key attribute.
+     */
+    private void pruneViaStatistics(Int2ObjectOpenHashMap<pINDArrayList> attribute2Refs) {
+        long numCandidates = 0;
+        long numDiscarded = 0;
+        for (Int2ObjectMap.Entry<pINDArrayList> entry : attribute2Refs.int2ObjectEntrySet()) {
+            Attribute dependent = binder.unaryAttributes[entry.getIntKey()];
+            long allowedViolations = entry.getValue().getInitialViolations();
+
+            pINDArrayList.pINDIterator referencedAttributes = entry.getValue().elementIterator();
+            while (referencedAttributes.hasNext()) {
+                pINDArrayList.pINDElement pINDCandidate = referencedAttributes.next();
+                numCandidates++;
+
+                PruningStatistics referenced = binder.unaryAttributes[pINDCandidate.getReferenced()].statistics;
+                if (!dependent.statistics.isValid(referenced, dependent.valuesPerBucket, allowedViolations)) {
+                    referencedAttributes.remove();
+                    numDiscarded++;
+                }
+            }
+        }
+        logger.info("The statistics discarded " + numDiscarded + " of " + numCandidates + " candidates");
+        binder.metrics.addCounter("candidatesPrunedByStatistics", numDiscarded);
     }
 }
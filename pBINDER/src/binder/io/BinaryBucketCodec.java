@@ -0,0 +1,277 @@
+package binder.io;
+
+import binder.structures.ValueCountMap;
+import binder.utils.FileUtils;
+import it.unimi.dsi.fastutil.ints.IntList;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores the entries of a bucket in a compact binary format. Each block starts with its length in bytes (eight bytes) and the number of its entries; each entry consists
+ * of the length of the value in bytes, the UTF-8 encoded value, its number of occurrences and its hash. Lengths and counts are written as variable-length integers
+ * (seven bits per byte, least significant group first), so that small numbers only take a single byte; the hash always takes eight bytes. Values are written as they
+ * are, i.e. line breaks do not need to be masked.
+ */
+public class BinaryBucketCodec implements BucketCodec {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    // Runs are read concurrently for all active attributes, so each of them only gets a small buffer
+    private static final int RUN_BUFFER_SIZE = 1 << 13;
+
+    @Override
+    public void write(String bucketFilePath, ValueCountMap values, IntList indexes) throws IOException {
+        FileUtils.createFile(bucketFilePath, false);
+
+        try (FileChannel channel = FileChannel.open(Path.of(bucketFilePath), StandardOpenOption.WRITE)) {
+            long blockStart = channel.size();
+            channel.position(blockStart);
+
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+            buffer.putLong(0L); // placeholder for the length of the block
+            int numEntries = (indexes == null) ? values.size() : indexes.size();
+            writeVarLong(buffer, numEntries);
+            for (int entry = 0; entry < numEntries; entry++) {
+                int index = (indexes == null) ? entry : indexes.getInt(entry);
+                // The map already holds the UTF-8 bytes of its values, so they are copied without encoding them again
+                ByteBuffer value = values.getValueBytes(index);
+                int length = value.remaining();
+
+                // A length, a count and a hash take at most 28 bytes
+                if (buffer.remaining() < length + 28)
+                    flush(channel, buffer);
+
+                writeVarLong(buffer, length);
+                // The count and the hash behind the value take at most 18 bytes
+                if (length + 18 <= buffer.remaining()) {
+                    buffer.put(value);
+                } else {
+                    // The value is too large for the buffer and is written directly
+                    flush(channel, buffer);
+                    while (value.hasRemaining())
+                        channel.write(value);
+                }
+                writeVarLong(buffer, values.getCount(index));
+                buffer.putLong(values.getHash(index));
+            }
+            flush(channel, buffer);
+
+            // Fill in the length of the block
+            ByteBuffer blockLength = ByteBuffer.allocate(Long.BYTES).putLong(0, channel.position() - blockStart - Long.BYTES);
+            while (blockLength.hasRemaining())
+                channel.write(blockLength, blockStart + blockLength.position());
+        }
+    }
+
+    @Override
+    public BucketIterator read(String bucketFilePath) throws IOException {
+        if (!new File(bucketFilePath).exists()) return null;
+
+        FileChannel channel = FileChannel.open(Path.of(bucketFilePath), StandardOpenOption.READ);
+        return new BinaryBucketIterator(channel, 0, channel.size(), BUFFER_SIZE, true);
+    }
+
+    @Override
+    public List<BucketIterator> readRuns(String bucketFilePath) throws IOException {
+        List<BucketIterator> runs = new ArrayList<>();
+        if (!new File(bucketFilePath).exists()) return runs;
+
+        // All runs share one channel, which is closed together with the last of them
+        FileChannel channel = FileChannel.open(Path.of(bucketFilePath), StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(Long.BYTES);
+            long blockStart = 0;
+            long fileSize = channel.size();
+            while (blockStart < fileSize) {
+                header.clear();
+                while (header.hasRemaining())
+                    if (channel.read(header, blockStart + header.position()) < 0) throw new EOFException("Truncated block header in bucket file");
+                long blockEnd = blockStart + Long.BYTES + header.getLong(0);
+                runs.add(new BinaryBucketIterator(channel, blockStart, blockEnd, RUN_BUFFER_SIZE, false));
+                blockStart = blockEnd;
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+
+        SharedChannel sharedChannel = new SharedChannel(channel, runs.size());
+        for (BucketIterator run : runs)
+            ((BinaryBucketIterator) run).sharedChannel = sharedChannel;
+        if (runs.isEmpty()) channel.close();
+        return runs;
+    }
+
+    @Override
+    public boolean supportsLineBreaks() {
+        return true;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value = value >>> 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Closes a channel once all iterators reading from it have been closed.
+     */
+    private static class SharedChannel {
+
+        private final FileChannel channel;
+        private int openReaders;
+
+        private SharedChannel(FileChannel channel, int openReaders) {
+            this.channel = channel;
+            this.openReaders = openReaders;
+        }
+
+        private void release() throws IOException {
+            if (--this.openReaders == 0) this.channel.close();
+        }
+    }
+
+    /**
+     * Iterates the blocks between a start and an end position of a bucket file. The iterator reads with absolute positions, so that several iterators can share one
+     * channel.
+     */
+    private static class BinaryBucketIterator implements BucketIterator {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private final long end;
+        private final boolean ownsChannel;
+        private SharedChannel sharedChannel = null;
+        private boolean closed = false;
+        private long position;
+        private long entriesLeftInBlock = 0;
+        private String value = null;
+        private long hash = 0;
+        private long count = 0;
+
+        private BinaryBucketIterator(FileChannel channel, long start, long end, int bufferSize, boolean ownsChannel) {
+            this.channel = channel;
+            this.position = start;
+            this.end = end;
+            this.buffer = ByteBuffer.allocate(bufferSize);
+            this.buffer.flip();
+            this.ownsChannel = ownsChannel;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            // Skip to the next block that contains entries
+            while (this.entriesLeftInBlock == 0) {
+                if (!this.buffer.hasRemaining() && !this.fill(1)) return false;
+                if (!this.fill(Long.BYTES)) throw new EOFException("Truncated block header in bucket file");
+                this.buffer.position(this.buffer.position() + Long.BYTES); // the length of the block is only needed to find the runs
+                this.entriesLeftInBlock = this.readVarLong();
+            }
+
+            int length = (int) this.readVarLong();
+            if (length <= this.buffer.capacity()) {
+                if (!this.fill(length)) throw new EOFException("Truncated value in bucket file");
+                this.value = new String(this.buffer.array(), this.buffer.arrayOffset() + this.buffer.position(), length, StandardCharsets.UTF_8);
+                this.buffer.position(this.buffer.position() + length);
+            } else {
+                byte[] largeValue = new byte[length];
+                int read = 0;
+                while (read < length) {
+                    if (!this.buffer.hasRemaining() && !this.fill(1)) throw new EOFException("Truncated value in bucket file");
+                    int chunk = Math.min(length - read, this.buffer.remaining());
+                    this.buffer.get(largeValue, read, chunk);
+                    read = read + chunk;
+                }
+                this.value = new String(largeValue, StandardCharsets.UTF_8);
+            }
+            this.count = this.readVarLong();
+            if (!this.fill(Long.BYTES)) throw new EOFException("Truncated hash in bucket file");
+            this.hash = this.buffer.getLong();
+            this.entriesLeftInBlock--;
+            return true;
+        }
+
+        /**
+         * Ensures that at least the given number of bytes can be read from the buffer without touching the channel again.
+         *
+         * @param numBytes the number of bytes that are needed
+         * @return false if the end of the range is reached before the bytes are available
+         */
+        private boolean fill(int numBytes) throws IOException {
+            if (this.buffer.remaining() >= numBytes) return true;
+
+            this.buffer.compact();
+            while (this.buffer.position() < numBytes) {
+                int bytesToRead = (int) Math.min(this.buffer.remaining(), this.end - this.position);
+                if (bytesToRead <= 0) {
+                    this.buffer.flip();
+                    return false;
+                }
+                int oldLimit = this.buffer.limit();
+                this.buffer.limit(this.buffer.position() + bytesToRead);
+                int read = this.channel.read(this.buffer, this.position);
+                this.buffer.limit(oldLimit);
+                if (read < 0) {
+                    this.buffer.flip();
+                    return false;
+                }
+                this.position = this.position + read;
+            }
+            this.buffer.flip();
+            return true;
+        }
+
+        private long readVarLong() throws IOException {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                if (!this.buffer.hasRemaining() && !this.fill(1)) throw new EOFException("Truncated number in bucket file");
+                byte b = this.buffer.get();
+                result = result | ((long) (b & 0x7F) << shift);
+                if (b >= 0) return result;
+                shift = shift + 7;
+            }
+        }
+
+        @Override
+        public String getValue() {
+            return this.value;
+        }
+
+        @Override
+        public long getHash() {
+            return this.hash;
+        }
+
+        @Override
+        public long getCount() {
+            return this.count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.closed) return;
+            this.closed = true;
+
+            if (this.ownsChannel) this.channel.close();
+            else if (this.sharedChannel != null) this.sharedChannel.release();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package binder.io;
+
+import binder.structures.PartialIND;
+import binder.utils.FileUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes the pINDs in a compact binary format. The file starts with the format version, the names of the tables and the names of the columns; each pIND then consists
+ * of its arity, the dependent table and attributes, the referenced table and attributes as indexes into these names, its violations, whether the violations are exact
+ * and its coverage. A pIND with arity zero marks the end of the file.
+ */
+public class BinaryResultWriter implements ResultSink {
+
+    public static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final String resultFilePath;
+    private DataOutputStream out = null;
+
+    public BinaryResultWriter(String resultFilePath) {
+        this.resultFilePath = resultFilePath;
+    }
+
+    @Override
+    public void open(String[] relationNames, List<String> columnNames) throws IOException {
+        FileUtils.createFile(this.resultFilePath, true);
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(this.resultFilePath), BUFFER_SIZE));
+
+        this.out.writeInt(VERSION);
+        this.out.writeInt(relationNames.length);
+        for (String relationName : relationNames)
+            this.out.writeUTF(relationName);
+        this.out.writeInt(columnNames.size());
+        for (String columnName : columnNames)
+            this.out.writeUTF(columnName);
+    }
+
+    @Override
+    public void receive(PartialIND pIND) throws IOException {
+        this.out.writeInt(pIND.arity());
+        this.out.writeInt(pIND.dependentTable());
+        for (int attribute : pIND.dependent())
+            this.out.writeInt(attribute);
+        this.out.writeInt(pIND.referencedTable());
+        for (int attribute : pIND.referenced())
+            this.out.writeInt(attribute);
+        this.out.writeLong(pIND.violations());
+        this.out.writeBoolean(pIND.exactViolations());
+        this.out.writeDouble(pIND.coverage());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.out != null) {
+            this.out.writeInt(0);
+            this.out.close();
+            this.out = null;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package binder.io;
+
+import binder.runner.Config;
+import binder.structures.ValueCountMap;
+import it.unimi.dsi.fastutil.ints.IntList;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A BucketCodec defines how the values of a bucket and their number of occurrences are stored on disk. A bucket file consists of one or more blocks, because every spill of
+ * a bucket appends a new block to the existing file. The same value might therefore occur in several blocks of one file.
+ */
+public interface BucketCodec {
+
+    static BucketCodec forFormat(Config.BucketFormat bucketFormat) {
+        return switch (bucketFormat) {
+            case TEXT -> new TextBucketCodec();
+            case BINARY -> new BinaryBucketCodec();
+        };
+    }
+
+    /**
+     * Appends the given values as a new block to the bucket file. The entries are written in the order of their index, so a sorted map produces a sorted run. The file
+     * and its parent directories are created if they do not exist.
+     *
+     * @param bucketFilePath the path of the bucket file
+     * @param values         the values of the bucket mapped to their number of occurrences
+     * @throws IOException if the file can not be written
+     */
+    default void write(String bucketFilePath, ValueCountMap values) throws IOException {
+        this.write(bucketFilePath, values, null);
+    }
+
+    /**
+     * Appends the entries with the given indexes as a new block to the bucket file.
+     *
+     * @param bucketFilePath the path of the bucket file
+     * @param values         the values of the bucket mapped to their number of occurrences
+     * @param indexes        the indexes of the entries to write in ascending order; null to write all entries
+     * @throws IOException if the file can not be written
+     */
+    void write(String bucketFilePath, ValueCountMap values, IntList indexes) throws IOException;
+
+    /**
+     * @param bucketFilePath the path of the bucket file
+     * @return an iterator over all entries of all blocks in the bucket file or null if the file does not exist
+     * @throws IOException if the file can not be opened
+     */
+    BucketIterator read(String bucketFilePath) throws IOException;
+
+    /**
+     * Opens every block of the bucket file as an iterator of its own. If the blocks were written from sorted maps, each iterator is a sorted run.
+     *
+     * @param bucketFilePath the path of the bucket file
+     * @return one iterator per block of the bucket file; an empty list if the file does not exist
+     * @throws IOException if the file can not be opened
+     */
+    List<BucketIterator> readRuns(String bucketFilePath) throws IOException;
+
+    /**
+     * @return whether values containing line breaks can be written without changing them
+     */
+    boolean supportsLineBreaks();
+}
@@ -0,0 +1,22 @@
+package binder.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Iterates the entries of a bucket file. After a successful call of {@link #next()}, the value of the current entry, its hash and its number of occurrences can be
+ * queried.
+ */
+public interface BucketIterator extends Closeable {
+
+    boolean next() throws IOException;
+
+    String getValue();
+
+    /**
+     * @return the hash of the current value as computed by {@link binder.utils.HashUtils#hash(String)}
+     */
+    long getHash();
+
+    long getCount();
+}
@@ -0,0 +1,91 @@
+package binder.io;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+
+/**
+ * Iterates the records of a table that was written by a {@link ColumnFileWriter}. Only the requested columns are opened and read; querying any other column
+ * returns null.
+ */
+public class ColumnFileIterator implements RecordIterator {
+
+    private final DataInputStream[] columns;
+    private final String[] record;
+    private final long numRecords;
+    private byte[] buffer = new byte[256];
+    private long recordsRead = 0;
+
+    /**
+     * @param tableFolder the folder that holds the column files of the table
+     * @param numColumns  the number of columns of the table
+     * @param projection  the columns that should be read
+     * @param numRecords  the number of records that were written for the table
+     * @throws IOException if a column file can not be opened
+     */
+    public ColumnFileIterator(File tableFolder, int numColumns, BitSet projection, long numRecords) throws IOException {
+        this.columns = new DataInputStream[numColumns];
+        this.record = new String[numColumns];
+        this.numRecords = numRecords;
+        try {
+            for (int column = projection.nextSetBit(0); column >= 0; column = projection.nextSetBit(column + 1))
+                this.columns[column] = new DataInputStream(new BufferedInputStream(new FileInputStream(ColumnFileWriter.getColumnFile(tableFolder, column)),
+                        ColumnFileWriter.BUFFER_SIZE));
+        } catch (IOException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param tableFolder the folder that holds the column files of the table
+     * @param numColumns  the number of columns of the table
+     * @return whether all column files of the table exist
+     */
+    public static boolean exists(File tableFolder, int numColumns) {
+        for (int column = 0; column < numColumns; column++)
+            if (!ColumnFileWriter.getColumnFile(tableFolder, column).isFile())
+                return false;
+        return true;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (this.recordsRead >= this.numRecords) return false;
+
+        for (int column = 0; column < this.columns.length; column++) {
+            if (this.columns[column] == null) continue;
+
+            int length = this.columns[column].readInt();
+            if (length == ColumnFileWriter.NULL_LENGTH) {
+                this.record[column] = null;
+                continue;
+            }
+            if (length > this.buffer.length)
+                this.buffer = new byte[Math.max(length, this.buffer.length * 2)];
+            this.columns[column].readFully(this.buffer, 0, length);
+            this.record[column] = new String(this.buffer, 0, length, StandardCharsets.UTF_8);
+        }
+        this.recordsRead++;
+        return true;
+    }
+
+    @Override
+    public String getValue(int columnIndex) {
+        return this.record[columnIndex];
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (DataInputStream column : this.columns) {
+            if (column == null) continue;
+            try {
+                column.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if (exception != null) throw exception;
+    }
+}
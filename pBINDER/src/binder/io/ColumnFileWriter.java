@@ -0,0 +1,67 @@
+package binder.io;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the records of a table column by column, so that later passes over the table can read only the columns they need and skip the parsing of the input file.
+ * Every column is stored in its own file as a sequence of length prefixed UTF-8 values in record order; a null value is stored as the length -1. The position of a
+ * value within its column file is therefore the id of its record.
+ */
+public class ColumnFileWriter implements Closeable {
+
+    static final int NULL_LENGTH = -1;
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataOutputStream[] columns;
+
+    /**
+     * @param tableFolder the folder that holds the column files of the table; it is created if necessary
+     * @param numColumns  the number of columns of the table
+     * @throws IOException if a column file can not be created
+     */
+    public ColumnFileWriter(File tableFolder, int numColumns) throws IOException {
+        if (!tableFolder.exists() && !tableFolder.mkdirs())
+            throw new IOException("Could not create the column folder " + tableFolder.getPath());
+
+        this.columns = new DataOutputStream[numColumns];
+        try {
+            for (int column = 0; column < numColumns; column++)
+                this.columns[column] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getColumnFile(tableFolder, column)), BUFFER_SIZE));
+        } catch (IOException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    static File getColumnFile(File tableFolder, int column) {
+        return new File(tableFolder, String.valueOf(column));
+    }
+
+    public void write(RecordIterator record) throws IOException {
+        for (int column = 0; column < this.columns.length; column++) {
+            String value = record.getValue(column);
+            if (value == null) {
+                this.columns[column].writeInt(NULL_LENGTH);
+                continue;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            this.columns[column].writeInt(bytes.length);
+            this.columns[column].write(bytes);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException exception = null;
+        for (DataOutputStream column : this.columns) {
+            if (column == null) continue;
+            try {
+                column.close();
+            } catch (IOException e) {
+                exception = e;
+            }
+        }
+        if (exception != null) throw exception;
+    }
+}
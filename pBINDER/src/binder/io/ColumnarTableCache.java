@@ -0,0 +1,193 @@
+package binder.io;
+
+import binder.runner.Config;
+import binder.structures.ValueCountMap;
+import binder.utils.FileUtils;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+
+/**
+ * A dictionary encoded, columnar copy of an input table that survives between runs. The cache of a table is a folder with one file per column, a shared string heap
+ * and a meta file:
+ * <ul>
+ *     <li>every column file holds one int per record, which is the id of the record's value in the table's dictionary or -1 for null</li>
+ *     <li>the heap holds the UTF-8 bytes of all distinct values of the table in id order and the offsets file the start of each value in the heap</li>
+ *     <li>the meta file identifies the source file by its modification time and size and the parser settings that were used to read it</li>
+ * </ul>
+ * The meta file is written last, so that an interrupted conversion is never mistaken for a valid cache. All files are read through memory mappings, see
+ * {@link MappedTableIterator}.
+ */
+public class ColumnarTableCache {
+
+    private static final int FORMAT_VERSION = 1;
+    static final int NULL_ID = -1;
+    static final String META_FILE = "meta";
+    static final String HEAP_FILE = "heap";
+    static final String OFFSETS_FILE = "offsets";
+
+    private final File folder;
+    private final int numColumns;
+    private final long numRecords;
+    private final int numValues;
+
+    private ColumnarTableCache(File folder, int numColumns, long numRecords, int numValues) {
+        this.folder = folder;
+        this.numColumns = numColumns;
+        this.numRecords = numRecords;
+        this.numValues = numValues;
+    }
+
+    /**
+     * Opens the cache of a table if it exists and is still up-to-date.
+     *
+     * @param cacheFolder  the folder that holds the caches of all tables
+     * @param relationName the name of the table
+     * @param config       the configuration, which defines the source file and the parser settings
+     * @param numColumns   the number of columns of the table
+     * @return the cache of the table or null if it has to be (re-)built
+     * @throws IOException if the meta file exists but can not be read
+     */
+    public static ColumnarTableCache open(File cacheFolder, String relationName, Config config, int numColumns) throws IOException {
+        File folder = new File(cacheFolder, relationName);
+        File metaFile = new File(folder, META_FILE);
+        if (!metaFile.isFile()) return null;
+
+        File source = getSourceFile(relationName, config);
+        try (DataInputStream meta = new DataInputStream(new BufferedInputStream(new FileInputStream(metaFile)))) {
+            if ((meta.readInt() != FORMAT_VERSION) || (meta.readLong() != source.lastModified()) || (meta.readLong() != source.length()) ||
+                    !meta.readUTF().equals(getParserSettings(config)) || (meta.readInt() != numColumns))
+                return null;
+            return new ColumnarTableCache(folder, numColumns, meta.readLong(), meta.readInt());
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Converts a table into its cache. The conversion is given up if the dictionary of the table outgrows the given memory or a file would become too large for a
+     * single memory mapping.
+     *
+     * @param cacheFolder        the folder that holds the caches of all tables
+     * @param relationName       the name of the table
+     * @param config             the configuration, which defines the source file and the parser settings
+     * @param numColumns         the number of columns of the table
+     * @param maxDictionaryBytes the maximum memory of the dictionary
+     * @return the cache of the table or null if the conversion was given up
+     * @throws IOException if the table can not be read or the cache can not be written
+     */
+    public static ColumnarTableCache build(File cacheFolder, String relationName, Config config, int numColumns, long maxDictionaryBytes) throws IOException {
+        File folder = new File(cacheFolder, relationName);
+        FileUtils.cleanDirectory(folder);
+        if (!folder.exists() && !folder.mkdirs())
+            throw new IOException("Could not create the cache folder " + folder.getPath());
+
+        File source = getSourceFile(relationName, config);
+        long lastModified = source.lastModified();
+        long length = source.length();
+
+        // Encode the columns
+        ValueCountMap dictionary = new ValueCountMap();
+        DataOutputStream[] columns = new DataOutputStream[numColumns];
+        RecordIterator input = null;
+        long numRecords = 0;
+        boolean complete = false;
+        try {
+            input = RecordIterator.openFile(relationName, config, -1);
+            for (int column = 0; column < numColumns; column++)
+                columns[column] = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getColumnFile(folder, column)), ColumnFileWriter.BUFFER_SIZE));
+
+            while (input.next()) {
+                for (int column = 0; column < numColumns; column++) {
+                    String value = input.getValue(column);
+                    columns[column].writeInt((value == null) ? NULL_ID : dictionary.addAndGetIndex(value, 1L));
+                }
+                numRecords++;
+
+                if (((numRecords & 0xFFF) == 0) && ((dictionary.sizeInBytes() > maxDictionaryBytes) || (numRecords * Integer.BYTES > Integer.MAX_VALUE)))
+                    return null;
+            }
+            for (DataOutputStream column : columns)
+                column.close();
+
+            // Write the dictionary as string heap with the start offsets of its values
+            try (FileChannel heap = FileChannel.open(new File(folder, HEAP_FILE).toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 DataOutputStream offsets = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(folder, OFFSETS_FILE)),
+                         ColumnFileWriter.BUFFER_SIZE))) {
+                long offset = 0;
+                for (int id = 0; id < dictionary.size(); id++) {
+                    offsets.writeLong(offset);
+                    offset = offset + heap.write(dictionary.getValueBytes(id));
+                }
+                offsets.writeLong(offset);
+            }
+
+            try (DataOutputStream meta = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(folder, META_FILE))))) {
+                meta.writeInt(FORMAT_VERSION);
+                meta.writeLong(lastModified);
+                meta.writeLong(length);
+                meta.writeUTF(getParserSettings(config));
+                meta.writeInt(numColumns);
+                meta.writeLong(numRecords);
+                meta.writeInt(dictionary.size());
+            }
+            complete = true;
+            return new ColumnarTableCache(folder, numColumns, numRecords, dictionary.size());
+        } finally {
+            if (input != null) input.close();
+            for (DataOutputStream column : columns)
+                FileUtils.close(column);
+            dictionary.release();
+            if (!complete) FileUtils.cleanDirectory(folder);
+        }
+    }
+
+    /**
+     * Opens the cached table for reading.
+     *
+     * @param projection the columns that should be read
+     * @param limit      the maximum number of records to read; all records if the limit is not positive
+     * @return an iterator over the records of the cached table
+     * @throws IOException if a file of the cache can not be mapped
+     */
+    public MappedTableIterator iterator(BitSet projection, int limit) throws IOException {
+        return this.iterator(projection, limit, MappedTableIterator.HEAP_SEGMENT_SHIFT);
+    }
+
+    /**
+     * Opens the cached table for reading with the string heap mapped in segments of the given size.
+     *
+     * @param projection       the columns that should be read
+     * @param limit            the maximum number of records to read; all records if the limit is not positive
+     * @param heapSegmentShift the binary logarithm of the size of the segments in which the string heap is mapped
+     * @return an iterator over the records of the cached table
+     * @throws IOException if a file of the cache can not be mapped
+     */
+    MappedTableIterator iterator(BitSet projection, int limit, int heapSegmentShift) throws IOException {
+        long numRecords = (limit > 0) ? Math.min(limit, this.numRecords) : this.numRecords;
+        return new MappedTableIterator(this.folder, this.numColumns, projection, numRecords, this.numValues, heapSegmentShift);
+    }
+
+    public long getNumRecords() {
+        return this.numRecords;
+    }
+
+    static File getColumnFile(File folder, int column) {
+        return new File(folder, String.valueOf(column));
+    }
+
+    private static File getSourceFile(String relationName, Config config) {
+        return new File(config.datasetFolder + config.datasetName + File.separator + relationName);
+    }
+
+    /**
+     * @return a description of all settings that change the values read from an input file
+     */
+    private static String getParserSettings(Config config) {
+        return config.separator + "|" + config.quoteChar + "|" + config.escapeChar + "|" + config.strictQuotes + "|" + config.ignoreLeadingWhiteSpaces + "|" +
+                config.hasHeader + "|" + config.skipDifferingLines + "|" + config.nullString + "|" + config.inputParser + "|" + BucketCodec.forFormat(config.bucketFormat).supportsLineBreaks();
+    }
+}
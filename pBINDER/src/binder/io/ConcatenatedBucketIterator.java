@@ -0,0 +1,50 @@
+package binder.io;
+
+import binder.utils.FileUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Iterates the entries of several bucket iterators one after another. Each iterator is closed as soon as it is exhausted.
+ */
+public class ConcatenatedBucketIterator implements BucketIterator {
+
+    private final List<BucketIterator> iterators;
+    private int current = 0;
+
+    public ConcatenatedBucketIterator(List<BucketIterator> iterators) {
+        this.iterators = iterators;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (this.current < this.iterators.size()) {
+            if (this.iterators.get(this.current).next())
+                return true;
+            this.iterators.get(this.current++).close();
+        }
+        return false;
+    }
+
+    @Override
+    public String getValue() {
+        return this.iterators.get(this.current).getValue();
+    }
+
+    @Override
+    public long getHash() {
+        return this.iterators.get(this.current).getHash();
+    }
+
+    @Override
+    public long getCount() {
+        return this.iterators.get(this.current).getCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (int i = this.current; i < this.iterators.size(); i++)
+            FileUtils.close(this.iterators.get(i));
+    }
+}
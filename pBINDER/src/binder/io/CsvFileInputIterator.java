@@ -0,0 +1,75 @@
+package binder.io;
+
+import binder.runner.Config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Iterates the records of an input file with a {@link CsvTokenizer} instead of opencsv. It behaves like {@link FileInputIterator}: the first line defines the number
+ * of columns and is skipped if it is the header, records with a different number of values are skipped or rejected, and values that equal the null string are
+ * returned as null.
+ */
+public class CsvFileInputIterator implements RecordIterator {
+
+    private final CsvTokenizer tokenizer;
+    private final byte[] nullBytes;
+    private final boolean skipDifferingLines;
+    private final int inputRowLimit;
+    private int numberOfColumns = 0;
+    private boolean firstRecordPending = false;
+    private long lineNumber = 0;
+    private int rowsRead = 0;
+
+    public CsvFileInputIterator(String relationName, Config config, int inputRowLimit) throws IOException {
+        this.tokenizer = new CsvTokenizer(new FileInputStream(config.datasetFolder + config.datasetName + File.separator + relationName), config.separator,
+                config.quoteChar, config.escapeChar, config.strictQuotes, config.ignoreLeadingWhiteSpaces, !BucketCodec.forFormat(config.bucketFormat).supportsLineBreaks());
+        this.nullBytes = config.nullString.getBytes(StandardCharsets.UTF_8);
+        this.skipDifferingLines = config.skipDifferingLines;
+        this.inputRowLimit = inputRowLimit;
+
+        try {
+            if (this.tokenizer.next()) {
+                this.lineNumber++;
+                this.numberOfColumns = this.tokenizer.numberOfValues();
+                this.firstRecordPending = !config.hasHeader;
+            }
+        } catch (IOException e) {
+            this.tokenizer.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if ((this.inputRowLimit > 0) && (this.rowsRead >= this.inputRowLimit)) return false;
+
+        if (this.firstRecordPending) {
+            this.firstRecordPending = false;
+        } else {
+            while (true) {
+                if (!this.tokenizer.next()) return false;
+                this.lineNumber++;
+                if (this.tokenizer.numberOfValues() == this.numberOfColumns) break;
+                if (!this.skipDifferingLines)
+                    throw new IOException("Csv line length did not match on line " + this.lineNumber);
+            }
+        }
+
+        this.rowsRead++;
+        return true;
+    }
+
+    @Override
+    public String getValue(int columnIndex) {
+        if (this.tokenizer.valueEquals(columnIndex, this.nullBytes)) return null;
+        return this.tokenizer.getValue(columnIndex);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.tokenizer.close();
+    }
+}
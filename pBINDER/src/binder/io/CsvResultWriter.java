@@ -0,0 +1,92 @@
+package binder.io;
+
+import binder.structures.PartialIND;
+import binder.utils.FileUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes one pIND per line in the dialect of the input files, i.e. with their separator and quote character; if the input is not quoted, the double quote is used.
+ * The attributes of a side are separated by semicolons. A field or a column name within a list that contains its separator, the quote character or a line break is
+ * quoted and its quote characters are doubled, so that a column list can be split again after its field has been unquoted.
+ */
+public class CsvResultWriter implements ResultSink {
+
+    private static final String[] HEADER = {"dependent_table", "dependent_columns", "referenced_table", "referenced_columns", "violations", "exact_violations", "coverage"};
+    private static final char COLUMN_SEPARATOR = ';';
+
+    private final String resultFilePath;
+    private final char separator;
+    private final char quote;
+    private String[] relationNames;
+    private List<String> columnNames;
+    private BufferedWriter writer = null;
+    private final StringBuilder line = new StringBuilder();
+
+    /**
+     * @param resultFilePath the file to write the pINDs to
+     * @param separator      the character between two fields
+     * @param quote          the character that encloses a field; '\0' if the input is not quoted
+     */
+    public CsvResultWriter(String resultFilePath, char separator, char quote) {
+        this.resultFilePath = resultFilePath;
+        this.separator = separator;
+        this.quote = (quote == '\0') ? '"' : quote;
+    }
+
+    @Override
+    public void open(String[] relationNames, List<String> columnNames) throws IOException {
+        this.relationNames = relationNames;
+        this.columnNames = columnNames;
+        this.writer = FileUtils.buildFileWriter(this.resultFilePath, false);
+        this.line.setLength(0);
+        for (int i = 0; i < HEADER.length; i++) {
+            if (i > 0) this.line.append(this.separator);
+            this.line.append(HEADER[i]);
+        }
+        this.writer.append(this.line);
+        this.writer.newLine();
+    }
+
+    @Override
+    public void receive(PartialIND pIND) throws IOException {
+        this.line.setLength(0);
+        this.appendSide(pIND.dependentTable(), pIND.dependent());
+        this.line.append(this.separator);
+        this.appendSide(pIND.referencedTable(), pIND.referenced());
+        this.line.append(this.separator).append(pIND.violations()).append(this.separator).append(pIND.exactViolations()).append(this.separator).append(pIND.coverage());
+        this.writer.append(this.line);
+        this.writer.newLine();
+    }
+
+    private void appendSide(int table, int[] attributes) {
+        appendQuoted(this.line, this.relationNames[table], this.separator, this.quote);
+        this.line.append(this.separator);
+
+        StringBuilder columns = new StringBuilder();
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) columns.append(COLUMN_SEPARATOR);
+            appendQuoted(columns, this.columnNames.get(attributes[i]), COLUMN_SEPARATOR, this.quote);
+        }
+        appendQuoted(this.line, columns.toString(), this.separator, this.quote);
+    }
+
+    private static void appendQuoted(StringBuilder builder, String value, char separator, char quote) {
+        if ((value.indexOf(separator) < 0) && (value.indexOf(quote) < 0) && (value.indexOf('\n') < 0) && (value.indexOf('\r') < 0)) {
+            builder.append(value);
+            return;
+        }
+        String doubledQuote = String.valueOf(quote) + quote;
+        builder.append(quote).append(value.replace(String.valueOf(quote), doubledQuote)).append(quote);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.writer != null) {
+            this.writer.close();
+            this.writer = null;
+        }
+    }
+}
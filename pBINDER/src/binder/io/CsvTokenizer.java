@@ -0,0 +1,208 @@
+package binder.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits CSV input into records and values directly on its bytes. The input is read through one large buffer and the values of the current record are unescaped
+ * into a single byte array that is reused for all records, so that tokenizing allocates nothing per record. Values are only decoded into Strings when they are
+ * queried.
+ * <p>
+ * A value can be enclosed in quote characters to contain separators and line breaks; within quotes, a doubled quote character stands for the quote character itself.
+ * The escape character makes a following quote or escape character literal. With strict quotes, only the quoted parts of a value are kept and all other characters
+ * of the value are dropped. The separator, quote and escape characters must be ASCII characters, because only then their bytes never occur inside a multi-byte UTF-8
+ * sequence.
+ * <p>
+ * The tokenizer reads well-formed CSV like opencsv, but differs for malformed quotes: a quote character inside an unquoted value or behind the closing quote of a
+ * value always opens a quoted part, which ends at the next single quote character, and is itself dropped. opencsv also starts a quoted part there, but keeps some of
+ * these quote characters as literal characters of the value, depending on their position and the neighbouring separators.
+ */
+public class CsvTokenizer implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final InputStream input;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final int separator;
+    private final int quote;
+    private final int escape;
+    private final boolean strictQuotes;
+    private final boolean ignoreLeadingWhiteSpaces;
+    private final boolean maskLineBreaks;
+    private int position = 0;
+    private int limit = 0;
+
+    // The unescaped values of the current record; value i ends at valueEnds[i] and starts where value i - 1 ends
+    private byte[] recordBytes = new byte[1024];
+    private int recordLength = 0;
+    private int[] valueEnds = new int[16];
+    private int numValues = 0;
+
+    /**
+     * @param input                    the UTF-8 encoded CSV input; it is closed together with the tokenizer
+     * @param separator                the character between two values
+     * @param quote                    the character that encloses a value
+     * @param escape                   the character that makes a following quote or escape character literal
+     * @param strictQuotes             whether the characters outside quotes are dropped
+     * @param ignoreLeadingWhiteSpaces whether white spaces in front of an opening quote are dropped
+     * @param maskLineBreaks           whether line breaks within values are replaced by the zero-character
+     */
+    public CsvTokenizer(InputStream input, char separator, char quote, char escape, boolean strictQuotes, boolean ignoreLeadingWhiteSpaces, boolean maskLineBreaks) {
+        if ((separator > 0x7F) || (quote > 0x7F) || (escape > 0x7F))
+            throw new IllegalArgumentException("The byte-level CSV tokenizer requires ASCII separator, quote and escape characters");
+
+        this.input = input;
+        this.separator = separator;
+        this.quote = quote;
+        this.escape = escape;
+        this.strictQuotes = strictQuotes;
+        this.ignoreLeadingWhiteSpaces = ignoreLeadingWhiteSpaces;
+        this.maskLineBreaks = maskLineBreaks;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return false if the input is exhausted
+     * @throws IOException if the input can not be read or ends within a quoted value
+     */
+    public boolean next() throws IOException {
+        int b = this.read();
+        if (b < 0) return false;
+
+        this.recordLength = 0;
+        this.numValues = 0;
+        int valueStart = 0;
+        boolean inQuotes = false;
+        while (true) {
+            if (b < 0) {
+                if (inQuotes) throw new IOException("The input ends within a quoted value");
+                this.endValue();
+                return true;
+            }
+
+            if (inQuotes) {
+                if (b == this.quote) {
+                    b = this.read();
+                    if (b == this.quote) {
+                        this.append(this.quote);
+                        b = this.read();
+                    } else {
+                        inQuotes = false;
+                    }
+                    continue;
+                }
+                if (b == this.escape) {
+                    b = this.escape(b);
+                    continue;
+                }
+                this.append((this.maskLineBreaks && (b == '\n')) ? 0 : b);
+                b = this.read();
+                continue;
+            }
+
+            if (b == this.separator) {
+                valueStart = this.endValue();
+                b = this.read();
+            } else if (b == '\n') {
+                this.endValue();
+                return true;
+            } else if (b == '\r') {
+                b = this.read();
+                if ((b == '\n') || (b < 0)) {
+                    this.endValue();
+                    return true;
+                }
+                if (!this.strictQuotes) this.append('\r');
+            } else if (b == this.quote) {
+                if (this.ignoreLeadingWhiteSpaces && this.isWhiteSpace(valueStart))
+                    this.recordLength = valueStart;
+                inQuotes = true;
+                b = this.read();
+            } else if (b == this.escape) {
+                // With strict quotes, characters outside quotes are not part of the value, even if they are escaped
+                int length = this.recordLength;
+                b = this.escape(b);
+                if (this.strictQuotes) this.recordLength = length;
+            } else {
+                if (!this.strictQuotes) this.append(b);
+                b = this.read();
+            }
+        }
+    }
+
+    /**
+     * @return the number of values of the current record
+     */
+    public int numberOfValues() {
+        return this.numValues;
+    }
+
+    public String getValue(int index) {
+        int start = (index == 0) ? 0 : this.valueEnds[index - 1];
+        return new String(this.recordBytes, start, this.valueEnds[index] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index the index of a value of the current record
+     * @param bytes the bytes to compare the value with
+     * @return whether the value consists of exactly the given bytes
+     */
+    public boolean valueEquals(int index, byte[] bytes) {
+        int start = (index == 0) ? 0 : this.valueEnds[index - 1];
+        return Arrays.equals(this.recordBytes, start, this.valueEnds[index], bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.input.close();
+    }
+
+    private int read() throws IOException {
+        if (this.position == this.limit) {
+            this.limit = this.input.read(this.buffer, 0, this.buffer.length);
+            this.position = 0;
+            if (this.limit <= 0) {
+                this.limit = 0;
+                return -1;
+            }
+        }
+        return this.buffer[this.position++] & 0xFF;
+    }
+
+    /**
+     * Handles an escape character and returns the byte behind the escaped sequence.
+     */
+    private int escape(int escapeByte) throws IOException {
+        int b = this.read();
+        if ((b == this.quote) || (b == this.escape)) {
+            this.append(b);
+            return this.read();
+        }
+        this.append(escapeByte);
+        return b;
+    }
+
+    private void append(int b) {
+        if (this.recordLength == this.recordBytes.length)
+            this.recordBytes = Arrays.copyOf(this.recordBytes, 2 * this.recordBytes.length);
+        this.recordBytes[this.recordLength++] = (byte) b;
+    }
+
+    private int endValue() {
+        if (this.numValues == this.valueEnds.length)
+            this.valueEnds = Arrays.copyOf(this.valueEnds, 2 * this.valueEnds.length);
+        this.valueEnds[this.numValues++] = this.recordLength;
+        return this.recordLength;
+    }
+
+    private boolean isWhiteSpace(int valueStart) {
+        for (int index = valueStart; index < this.recordLength; index++)
+            if ((this.recordBytes[index] != ' ') && (this.recordBytes[index] != '\t'))
+                return false;
+        return true;
+    }
+}
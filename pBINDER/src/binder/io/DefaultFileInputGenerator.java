@@ -1,10 +1,10 @@
 package binder.io;
 
 import binder.runner.Config;
+import binder.utils.FileUtils;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 
 public class DefaultFileInputGenerator {
@@ -24,7 +24,7 @@ public class DefaultFileInputGenerator {
 
 
     public RelationalFileInput generateNewCopy() throws IOException {
-        return new RelationalFileInput(inputFile.getName(), new FileReader(inputFile), config);
+        return new RelationalFileInput(inputFile.getName(), FileUtils.buildFileReader(inputFile.getPath()), config);
     }
 
     private void setInputFile(File inputFile) throws FileNotFoundException {
@@ -1,36 +1,42 @@
 package binder.io;
 
 import binder.runner.Config;
+import binder.utils.FileUtils;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-public class FileInputIterator {
+public class FileInputIterator implements RecordIterator {
 
     private final RelationalFileInput inputGenerator;
     private final int inputRowLimit;
+    private final boolean maskLineBreaks;
     private List<String> record = null;
     private int rowsRead = 0;
 
     public FileInputIterator(String relationName, Config config, int inputRowLimit) throws IOException {
-        this.inputGenerator = new RelationalFileInput(relationName, new BufferedReader(new FileReader(config.datasetFolder + config.datasetName + File.separator + relationName)), config);
+        this.inputGenerator = new RelationalFileInput(relationName, FileUtils.buildFileReader(config.datasetFolder + config.datasetName + File.separator + relationName), config);
         this.inputRowLimit = inputRowLimit;
+        this.maskLineBreaks = !BucketCodec.forFormat(config.bucketFormat).supportsLineBreaks();
     }
 
+    @Override
     public boolean next() throws IOException {
         if (this.inputGenerator.hasNext() && ((this.inputRowLimit <= 0) || (this.rowsRead < this.inputRowLimit))) {
             List<String> input = this.inputGenerator.next();
-            this.record = new ArrayList<>(input.size());
-            for (String value : input) {
-                // Replace line breaks with the zero-character, because these line breaks would otherwise split values when later written to plane-text buckets
-                if (value != null) {
-                    value = value.replaceAll("\n", "\0");
+            if (this.maskLineBreaks) {
+                this.record = new ArrayList<>(input.size());
+                for (String value : input) {
+                    // Replace line breaks with the zero-character, because these line breaks would otherwise split values when later written to plane-text buckets
+                    if (value != null) {
+                        value = value.replace('\n', '\0');
+                    }
+                    this.record.add(value);
                 }
-                this.record.add(value);
+            } else {
+                this.record = input;
             }
 
             this.rowsRead++;
@@ -39,6 +45,7 @@ public class FileInputIterator {
         return false;
     }
 
+    @Override
     public String getValue(int columnIndex) {
         return this.record.get(columnIndex);
     }
@@ -47,6 +54,7 @@ public class FileInputIterator {
         return this.record;
     }
 
+    @Override
     public void close() throws IOException {
         this.inputGenerator.close();
     }
@@ -0,0 +1,46 @@
+package binder.io;
+
+import java.io.IOException;
+import java.util.function.LongPredicate;
+
+/**
+ * Skips the entries of a bucket iterator whose hash does not match a filter. The order of the remaining entries is kept, so a filtered sorted run is still sorted.
+ */
+public class FilteredBucketIterator implements BucketIterator {
+
+    private final BucketIterator iterator;
+    private final LongPredicate filter;
+
+    public FilteredBucketIterator(BucketIterator iterator, LongPredicate filter) {
+        this.iterator = iterator;
+        this.filter = filter;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        while (this.iterator.next())
+            if (this.filter.test(this.iterator.getHash()))
+                return true;
+        return false;
+    }
+
+    @Override
+    public String getValue() {
+        return this.iterator.getValue();
+    }
+
+    @Override
+    public long getHash() {
+        return this.iterator.getHash();
+    }
+
+    @Override
+    public long getCount() {
+        return this.iterator.getCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.iterator.close();
+    }
+}
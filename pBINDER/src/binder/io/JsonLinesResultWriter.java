@@ -0,0 +1,83 @@
+package binder.io;
+
+import binder.structures.PartialIND;
+import binder.utils.FileUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes one JSON object per line, e.g. {"dependent":{"table":"r1","columns":["a"]},"referenced":{"table":"r2","columns":["b"]},"violations":0,"exactViolations":true,"coverage":1.0}.
+ */
+public class JsonLinesResultWriter implements ResultSink {
+
+    private final String resultFilePath;
+    private String[] relationNames;
+    private List<String> columnNames;
+    private BufferedWriter writer = null;
+    private final StringBuilder line = new StringBuilder();
+
+    public JsonLinesResultWriter(String resultFilePath) {
+        this.resultFilePath = resultFilePath;
+    }
+
+    @Override
+    public void open(String[] relationNames, List<String> columnNames) throws IOException {
+        this.relationNames = relationNames;
+        this.columnNames = columnNames;
+        this.writer = FileUtils.buildFileWriter(this.resultFilePath, false);
+    }
+
+    @Override
+    public void receive(PartialIND pIND) throws IOException {
+        this.line.setLength(0);
+        this.line.append("{\"dependent\":");
+        this.appendSide(pIND.dependentTable(), pIND.dependent());
+        this.line.append(",\"referenced\":");
+        this.appendSide(pIND.referencedTable(), pIND.referenced());
+        this.line.append(",\"violations\":").append(pIND.violations());
+        this.line.append(",\"exactViolations\":").append(pIND.exactViolations());
+        this.line.append(",\"coverage\":").append(pIND.coverage()).append('}');
+        this.writer.append(this.line);
+        this.writer.newLine();
+    }
+
+    private void appendSide(int table, int[] attributes) {
+        this.line.append("{\"table\":");
+        this.appendString(this.relationNames[table]);
+        this.line.append(",\"columns\":[");
+        for (int i = 0; i < attributes.length; i++) {
+            if (i > 0) this.line.append(',');
+            this.appendString(this.columnNames.get(attributes[i]));
+        }
+        this.line.append("]}");
+    }
+
+    private void appendString(String value) {
+        this.line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> this.line.append("\\\"");
+                case '\\' -> this.line.append("\\\\");
+                case '\n' -> this.line.append("\\n");
+                case '\r' -> this.line.append("\\r");
+                case '\t' -> this.line.append("\\t");
+                default -> {
+                    if (c < 0x20) this.line.append(String.format("\\u%04x", (int) c));
+                    else this.line.append(c);
+                }
+            }
+        }
+        this.line.append('"');
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.writer != null) {
+            this.writer.close();
+            this.writer = null;
+        }
+    }
+}
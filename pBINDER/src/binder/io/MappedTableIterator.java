@@ -0,0 +1,122 @@
+package binder.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Iterates the records of a {@link ColumnarTableCache} through memory mappings of its files. Only the requested columns are mapped; querying any other column returns
+ * null. Values are decoded from the mapped string heap on demand and recently decoded values are kept by their id, so that the frequent values of low cardinality
+ * columns are decoded only once. The offsets into the string heap are longs and the heap is mapped in segments, because a single mapping can not exceed 2 GB.
+ */
+public class MappedTableIterator implements RecordIterator {
+
+    private static final int DECODED_CACHE_SIZE = 1 << 12;
+    static final int HEAP_SEGMENT_SHIFT = 30; // The heap is mapped in segments of 1 GB
+
+    private final IntBuffer[] columns;
+    private final int[] record;
+    private final ByteBuffer[] heapSegments;
+    private final int heapSegmentShift;
+    private final long heapSegmentMask;
+    private final long heapSize;
+    private final LongBuffer offsets;
+    private final long numRecords;
+    private final int[] decodedIds = new int[DECODED_CACHE_SIZE];
+    private final String[] decodedValues = new String[DECODED_CACHE_SIZE];
+    private byte[] buffer = new byte[256];
+    private long recordsRead = 0;
+
+    /**
+     * @param folder           the folder of the cached table
+     * @param numColumns       the number of columns of the table
+     * @param projection       the columns that should be read
+     * @param numRecords       the number of records to read
+     * @param numValues        the number of values in the dictionary of the table
+     * @param heapSegmentShift the binary logarithm of the size of the segments in which the string heap is mapped
+     * @throws IOException if a file of the cache can not be mapped or is corrupt
+     */
+    MappedTableIterator(File folder, int numColumns, BitSet projection, long numRecords, int numValues, int heapSegmentShift) throws IOException {
+        this.heapSegmentShift = heapSegmentShift;
+        this.heapSegmentMask = (1L << heapSegmentShift) - 1;
+        this.columns = new IntBuffer[numColumns];
+        this.record = new int[numColumns];
+        this.numRecords = numRecords;
+        for (int column = projection.nextSetBit(0); column >= 0; column = projection.nextSetBit(column + 1))
+            this.columns[column] = map(ColumnarTableCache.getColumnFile(folder, column)).asIntBuffer();
+        try (FileChannel heap = FileChannel.open(new File(folder, ColumnarTableCache.HEAP_FILE).toPath())) {
+            this.heapSize = heap.size();
+            this.heapSegments = new ByteBuffer[(int) ((this.heapSize + this.heapSegmentMask) >>> this.heapSegmentShift)];
+            for (int segment = 0; segment < this.heapSegments.length; segment++) {
+                long start = (long) segment << this.heapSegmentShift;
+                this.heapSegments[segment] = heap.map(FileChannel.MapMode.READ_ONLY, start, Math.min(this.heapSegmentMask + 1, this.heapSize - start));
+            }
+        }
+        this.offsets = map(new File(folder, ColumnarTableCache.OFFSETS_FILE)).asLongBuffer();
+        if (this.offsets.capacity() != numValues + 1)
+            throw new IOException("The columnar cache in " + folder.getPath() + " is corrupt");
+        Arrays.fill(this.decodedIds, ColumnarTableCache.NULL_ID);
+    }
+
+    private static MappedByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath())) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    @Override
+    public boolean next() {
+        if (this.recordsRead >= this.numRecords) return false;
+
+        for (int column = 0; column < this.columns.length; column++)
+            if (this.columns[column] != null)
+                this.record[column] = this.columns[column].get();
+        this.recordsRead++;
+        return true;
+    }
+
+    @Override
+    public String getValue(int columnIndex) {
+        if (this.columns[columnIndex] == null) return null;
+
+        int id = this.record[columnIndex];
+        if (id == ColumnarTableCache.NULL_ID) return null;
+
+        int slot = id & (DECODED_CACHE_SIZE - 1);
+        if (this.decodedIds[slot] == id) return this.decodedValues[slot];
+
+        long offset = this.offsets.get(id);
+        long end = this.offsets.get(id + 1);
+        if ((offset < 0) || (end < offset) || (end > this.heapSize) || (end - offset > Integer.MAX_VALUE - 8))
+            throw new IllegalStateException("The columnar cache has an invalid heap range [" + offset + ", " + end + ") for value " + id);
+
+        int length = (int) (end - offset);
+        if (length > this.buffer.length)
+            this.buffer = new byte[(int) Math.min(Integer.MAX_VALUE - 8, Math.max(length, 2L * this.buffer.length))];
+        // A value may span two segments of the heap
+        for (int copied = 0; copied < length; ) {
+            ByteBuffer segment = this.heapSegments[(int) ((offset + copied) >>> this.heapSegmentShift)];
+            int position = (int) ((offset + copied) & this.heapSegmentMask);
+            int chunk = Math.min(length - copied, segment.capacity() - position);
+            segment.get(position, this.buffer, copied, chunk);
+            copied = copied + chunk;
+        }
+        String value = new String(this.buffer, 0, length, StandardCharsets.UTF_8);
+
+        this.decodedIds[slot] = id;
+        this.decodedValues[slot] = value;
+        return value;
+    }
+
+    @Override
+    public void close() {
+        // The mappings are released by the garbage collector
+    }
+}
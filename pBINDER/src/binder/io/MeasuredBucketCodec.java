@@ -0,0 +1,53 @@
+package binder.io;
+
+import binder.metrics.Metrics;
+import binder.structures.ValueCountMap;
+import it.unimi.dsi.fastutil.ints.IntList;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Counts the bytes that another codec writes to and reads from the bucket files. Written bytes are measured by the growth of the file. A file that is opened for
+ * reading counts with its full size, because all of its entries are read, even if only some of them belong to the requested bucket.
+ */
+public class MeasuredBucketCodec implements BucketCodec {
+
+    private final BucketCodec codec;
+    private final Metrics metrics;
+
+    public MeasuredBucketCodec(BucketCodec codec, Metrics metrics) {
+        this.codec = codec;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void write(String bucketFilePath, ValueCountMap values, IntList indexes) throws IOException {
+        File bucketFile = new File(bucketFilePath);
+        long sizeBefore = bucketFile.length();
+        this.codec.write(bucketFilePath, values, indexes);
+        this.metrics.addBytesWritten(bucketFile.length() - sizeBefore);
+    }
+
+    @Override
+    public BucketIterator read(String bucketFilePath) throws IOException {
+        BucketIterator iterator = this.codec.read(bucketFilePath);
+        if (iterator != null)
+            this.metrics.addBytesRead(new File(bucketFilePath).length());
+        return iterator;
+    }
+
+    @Override
+    public List<BucketIterator> readRuns(String bucketFilePath) throws IOException {
+        List<BucketIterator> runs = this.codec.readRuns(bucketFilePath);
+        if (!runs.isEmpty())
+            this.metrics.addBytesRead(new File(bucketFilePath).length());
+        return runs;
+    }
+
+    @Override
+    public boolean supportsLineBreaks() {
+        return this.codec.supportsLineBreaks();
+    }
+}
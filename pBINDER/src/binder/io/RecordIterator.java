@@ -0,0 +1,31 @@
+package binder.io;
+
+import binder.runner.Config;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Iterates the records of a table. After a successful call of {@link #next()}, the values of the current record can be queried by their column index within the table.
+ */
+public interface RecordIterator extends Closeable {
+
+    boolean next() throws IOException;
+
+    String getValue(int columnIndex);
+
+    /**
+     * Opens an input file with the parser that is selected by {@link Config#inputParser}.
+     *
+     * @param relationName  the file name of the table within the dataset folder
+     * @param config        the configuration
+     * @param inputRowLimit the maximum number of records to read; all records if the limit is not positive
+     * @return an iterator over the records of the file
+     * @throws IOException if the file can not be opened
+     */
+    static RecordIterator openFile(String relationName, Config config, int inputRowLimit) throws IOException {
+        if (config.inputParser == Config.InputParser.BYTES)
+            return new CsvFileInputIterator(relationName, config, inputRowLimit);
+        return new FileInputIterator(relationName, config, inputRowLimit);
+    }
+}
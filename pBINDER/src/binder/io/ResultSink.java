@@ -0,0 +1,38 @@
+package binder.io;
+
+import binder.runner.Config;
+import binder.structures.PartialIND;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * A ResultSink receives the pINDs as soon as they are final, i.e. the unary pINDs after the unary validation and the n-ary pINDs after the validation of their level.
+ * The pINDs are therefore not collected before they are written.
+ */
+public interface ResultSink extends Closeable {
+
+    static ResultSink forFormat(Config config, String resultFilePath) {
+        return switch (config.resultFormat) {
+            case CSV -> new CsvResultWriter(resultFilePath + ".csv", config.separator, config.quoteChar);
+            case JSON_LINES -> new JsonLinesResultWriter(resultFilePath + ".jsonl");
+            case BINARY -> new BinaryResultWriter(resultFilePath + ".bin");
+        };
+    }
+
+    /**
+     * Called once before the first pIND is received.
+     *
+     * @param relationNames the names of the tables by their index
+     * @param columnNames   the names of the columns by their global index
+     * @throws IOException if the sink can not be opened
+     */
+    void open(String[] relationNames, List<String> columnNames) throws IOException;
+
+    /**
+     * @param pIND a final pIND
+     * @throws IOException if the pIND can not be written
+     */
+    void receive(PartialIND pIND) throws IOException;
+}
@@ -0,0 +1,149 @@
+package binder.io;
+
+import binder.structures.ValueCountMap;
+import binder.utils.FileUtils;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges several sorted runs into one sorted run. Values that occur in more than one run are returned once with the sum of their counts.
+ */
+public class SortedRunMerger implements BucketIterator {
+
+    private final PriorityQueue<RunHead> heads;
+    private String value = null;
+    private long hash = 0;
+    private long count = 0;
+
+    public SortedRunMerger(Collection<BucketIterator> runs) throws IOException {
+        this.heads = new PriorityQueue<>(Math.max(1, runs.size()));
+        for (BucketIterator run : runs) {
+            if (run.next()) this.heads.add(new RunHead(run));
+            else run.close();
+        }
+    }
+
+    /**
+     * Sorts the entries of the given in-memory bucket and iterates them.
+     *
+     * @param values the values of an in-memory bucket mapped to their number of occurrences
+     * @return a sorted run over the given bucket
+     */
+    public static BucketIterator of(ValueCountMap values) {
+        values.sort();
+
+        return new BucketIterator() {
+            private int index = -1;
+
+            @Override
+            public boolean next() {
+                return ++this.index < values.size();
+            }
+
+            @Override
+            public String getValue() {
+                return values.getValue(this.index);
+            }
+
+            @Override
+            public long getHash() {
+                return values.getHash(this.index);
+            }
+
+            @Override
+            public long getCount() {
+                return values.getCount(this.index);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * @param runs the sorted runs of one bucket
+     * @return null if there are no runs, the run itself if there is only one run or a merger of all runs
+     */
+    public static BucketIterator of(List<BucketIterator> runs) throws IOException {
+        if (runs.isEmpty()) return null;
+        if (runs.size() == 1) return runs.get(0);
+        return new SortedRunMerger(runs);
+    }
+
+    @Override
+    public boolean next() throws IOException {
+        if (this.heads.isEmpty()) return false;
+
+        RunHead head = this.heads.poll();
+        this.value = head.value;
+        this.hash = head.hash;
+        this.count = head.count;
+        this.advance(head);
+
+        while (!this.heads.isEmpty() && this.heads.peek().value.equals(this.value)) {
+            head = this.heads.poll();
+            this.count = this.count + head.count;
+            this.advance(head);
+        }
+        return true;
+    }
+
+    private void advance(RunHead head) throws IOException {
+        if (head.run.next()) {
+            head.update();
+            this.heads.add(head);
+        } else {
+            head.run.close();
+        }
+    }
+
+    @Override
+    public String getValue() {
+        return this.value;
+    }
+
+    @Override
+    public long getHash() {
+        return this.hash;
+    }
+
+    @Override
+    public long getCount() {
+        return this.count;
+    }
+
+    @Override
+    public void close() {
+        for (RunHead head : this.heads)
+            FileUtils.close(head.run);
+        this.heads.clear();
+    }
+
+    private static class RunHead implements Comparable<RunHead> {
+
+        private final BucketIterator run;
+        private String value;
+        private long hash;
+        private long count;
+
+        private RunHead(BucketIterator run) {
+            this.run = run;
+            this.update();
+        }
+
+        private void update() {
+            this.value = this.run.getValue();
+            this.hash = this.run.getHash();
+            this.count = this.run.getCount();
+        }
+
+        @Override
+        public int compareTo(RunHead other) {
+            return this.value.compareTo(other.value);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package binder.io;
+
+import binder.runner.Config;
+import binder.utils.FileUtils;
+import it.unimi.dsi.fastutil.HashCommon;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Writes the relations of the {@link Config.Dataset#SYNTHETIC} dataset as configured by the synthetic dataset settings of the {@link Config}.
+ * <p>
+ * The columns of a table are organized in groups. Every row draws one id per group, and each column of the group writes the value of that id within its own id range,
+ * so that the columns of a group always appear together. A referenced group contains every id of its domain, because its first rows enumerate the domain. A planted
+ * dependent group shares the id ranges of its referenced group and draws ids of the domain with the configured coverage; all other ids lie outside of the domain and
+ * are violations. Every other planted IND is exact. Columns outside of the planted INDs have id ranges of their own.
+ * <p>
+ * The same settings always produce the same relations, which are only written again if the settings have changed.
+ */
+public class SyntheticDataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+    // Describes the settings and the planted INDs of the generated relations
+    private static final String DESCRIPTION_FILE = "synthetic.txt";
+
+    private final Config config;
+    private final long domainSize;
+    private final List<List<ColumnGroup>> tableGroups = new ArrayList<>();
+    private final StringBuilder description = new StringBuilder();
+    private int numGroups = 0;
+
+    /**
+     * The columns of a table that share the id of a row.
+     *
+     * @param columns  the columns of the group within its table
+     * @param ranges   the id range of each column, which is added to the drawn id
+     * @param complete whether the first rows enumerate all ids of the domain
+     * @param coverage the probability that an id is drawn from the domain instead of from outside of it
+     */
+    private record ColumnGroup(int[] columns, long[] ranges, boolean complete, double coverage) {
+    }
+
+    private SyntheticDataGenerator(Config config) {
+        this.config = config;
+        this.domainSize = Math.max(1L, Math.round(config.syntheticRows * (1.0 - config.syntheticDuplicateRatio)));
+    }
+
+    /**
+     * Sets the relation names of the synthetic dataset and writes its relations, unless the relations of the same settings exist already.
+     *
+     * @param config the configuration of the run
+     * @throws IOException if a relation can not be written
+     */
+    public static void generate(Config config) throws IOException {
+        if (config.syntheticTables < 1 || config.syntheticColumns < 1)
+            throw new IllegalArgumentException("A synthetic dataset needs at least one table and one column per table");
+        if (config.syntheticMinValueLength > config.syntheticMaxValueLength)
+            throw new IllegalArgumentException("The minimal value length must not exceed the maximal value length");
+        if (config.syntheticSkew < 0.0 || config.syntheticSkew >= 1.0)
+            throw new IllegalArgumentException("The skew must be at least 0 and less than 1");
+
+        config.relationNames = new String[config.syntheticTables];
+        for (int table = 0; table < config.syntheticTables; table++)
+            config.relationNames[table] = "table" + table;
+
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(config);
+        generator.plan();
+
+        File datasetFolder = new File(config.datasetFolder + config.datasetName);
+        File descriptionFile = new File(datasetFolder, DESCRIPTION_FILE);
+        String description = generator.description.toString();
+        if (descriptionFile.exists() && description.equals(Files.readString(descriptionFile.toPath(), StandardCharsets.UTF_8))) {
+            logger.info("Reusing the synthetic dataset in " + datasetFolder.getPath());
+            return;
+        }
+
+        // The description is written last, so that an interrupted generation is repeated
+        descriptionFile.delete();
+        for (int table = 0; table < config.syntheticTables; table++) {
+            logger.info("Generating synthetic table " + (table + 1) + "/" + config.syntheticTables);
+            generator.writeTable(table, datasetFolder.getPath() + File.separator + config.relationNames[table] + config.fileEnding);
+        }
+        FileUtils.writeToFile(description, descriptionFile.getPath());
+    }
+
+    /**
+     * Assigns the columns of all tables to the groups of the planted INDs and fills the remaining columns with unrelated groups. The referenced side of the i-th planted
+     * IND lies in table i mod #tables and its dependent side in the next table.
+     */
+    private void plan() {
+        int[] numUsedColumns = new int[this.config.syntheticTables];
+        for (int table = 0; table < this.config.syntheticTables; table++)
+            this.tableGroups.add(new ArrayList<>());
+
+        this.description.append("tables=").append(this.config.syntheticTables).append(", rows=").append(this.config.syntheticRows).append(", columns=")
+                .append(this.config.syntheticColumns).append(", valueLength=").append(this.config.syntheticMinValueLength).append("-")
+                .append(this.config.syntheticMaxValueLength).append(", skew=").append(this.config.syntheticSkew).append(", nullRatio=")
+                .append(this.config.syntheticNullRatio).append(", duplicateRatio=").append(this.config.syntheticDuplicateRatio).append(", seed=")
+                .append(this.config.syntheticSeed).append(", separator=").append((int) this.config.separator).append(", header=").append(this.config.hasHeader)
+                .append(", null=").append(this.config.nullString).append(", fileEnding=").append(this.config.fileEnding).append("\n");
+
+        int numPlanted = this.config.syntheticUnaryINDs + this.config.syntheticNaryINDs;
+        for (int ind = 0; ind < numPlanted; ind++) {
+            int arity = (ind < this.config.syntheticUnaryINDs) ? 1 : this.config.syntheticNaryArity;
+            int referencedTable = ind % this.config.syntheticTables;
+            int dependentTable = (referencedTable + 1) % this.config.syntheticTables;
+            int neededColumns = (referencedTable == dependentTable) ? 2 * arity : arity;
+            if ((numUsedColumns[referencedTable] + neededColumns > this.config.syntheticColumns)
+                    || (numUsedColumns[dependentTable] + neededColumns > this.config.syntheticColumns)) {
+                logger.warn("The synthetic tables have too few columns to plant " + (numPlanted - ind) + " more INDs");
+                break;
+            }
+
+            long[] ranges = this.newRanges(arity);
+            int[] referenced = this.nextColumns(numUsedColumns, referencedTable, arity);
+            int[] dependent = this.nextColumns(numUsedColumns, dependentTable, arity);
+            double coverage = (ind % 2 == 0) ? 1.0 : this.config.syntheticCoverage;
+            this.tableGroups.get(referencedTable).add(new ColumnGroup(referenced, ranges, true, 1.0));
+            this.tableGroups.get(dependentTable).add(new ColumnGroup(dependent, ranges, false, coverage));
+
+            this.description.append("planted ").append(this.config.relationNames[dependentTable]).append(Arrays.toString(dependent)).append(" <= ")
+                    .append(this.config.relationNames[referencedTable]).append(Arrays.toString(referenced)).append(" coverage=").append(coverage).append("\n");
+        }
+
+        for (int table = 0; table < this.config.syntheticTables; table++)
+            while (numUsedColumns[table] < this.config.syntheticColumns)
+                this.tableGroups.get(table).add(new ColumnGroup(this.nextColumns(numUsedColumns, table, 1), this.newRanges(1), false, 1.0));
+    }
+
+    private int[] nextColumns(int[] numUsedColumns, int table, int numColumns) {
+        int[] columns = new int[numColumns];
+        for (int i = 0; i < numColumns; i++)
+            columns[i] = numUsedColumns[table]++;
+        return columns;
+    }
+
+    /**
+     * @return new id ranges for the given number of columns; each range holds the domain and the ids outside of it
+     */
+    private long[] newRanges(int numColumns) {
+        long[] ranges = new long[numColumns];
+        for (int i = 0; i < numColumns; i++)
+            ranges[i] = (this.numGroups++) * 2 * this.domainSize;
+        return ranges;
+    }
+
+    private void writeTable(int table, String tableFile) throws IOException {
+        List<ColumnGroup> groups = this.tableGroups.get(table);
+        int numColumns = this.config.syntheticColumns;
+        SplittableRandom random = new SplittableRandom(HashCommon.mix(this.config.syntheticSeed) + table);
+
+        try (BufferedWriter writer = FileUtils.buildFileWriter(tableFile, false)) {
+            StringBuilder line = new StringBuilder();
+            if (this.config.hasHeader) {
+                for (int column = 0; column < numColumns; column++) {
+                    if (column > 0) line.append(this.config.separator);
+                    line.append("column").append(column);
+                }
+                writer.append(line).append('\n');
+            }
+
+            String[] values = new String[numColumns];
+            for (long row = 0; row < this.config.syntheticRows; row++) {
+                for (ColumnGroup group : groups) {
+                    boolean enumerated = group.complete() && (row < this.domainSize);
+                    long id;
+                    if (enumerated) id = row;
+                    else if ((group.coverage() >= 1.0) || (random.nextDouble() < group.coverage())) id = this.drawId(random);
+                    else id = this.domainSize + this.drawId(random);
+
+                    for (int i = 0; i < group.columns().length; i++) {
+                        // The enumerated rows must not lose any id of the domain
+                        boolean isNull = !enumerated && (this.config.syntheticNullRatio > 0.0) && (random.nextDouble() < this.config.syntheticNullRatio);
+                        values[group.columns()[i]] = isNull ? null : this.render(group.ranges()[i] + id);
+                    }
+                }
+
+                line.setLength(0);
+                for (int column = 0; column < numColumns; column++) {
+                    if (column > 0) line.append(this.config.separator);
+                    line.append((values[column] == null) ? this.config.nullString : values[column]);
+                }
+                writer.append(line).append('\n');
+            }
+        }
+    }
+
+    /**
+     * @return an id of the domain, drawn uniformly or, with skew, from a power law that favors small ids
+     */
+    private long drawId(SplittableRandom random) {
+        if (this.config.syntheticSkew == 0.0) return random.nextLong(this.domainSize);
+        long id = (long) (this.domainSize * Math.pow(random.nextDouble(), 1.0 / (1.0 - this.config.syntheticSkew)));
+        return Math.min(id, this.domainSize - 1);
+    }
+
+    /**
+     * Renders an id as a distinct value: the id in base 36 (digits and lower case letters), padded with upper case letters to a length that is derived from the id.
+     */
+    private String render(long id) {
+        String key = Long.toString(id, 36);
+        long hash = HashCommon.mix(id);
+        int lengthRange = this.config.syntheticMaxValueLength - this.config.syntheticMinValueLength + 1;
+        int length = this.config.syntheticMinValueLength + (int) Long.remainderUnsigned(hash, lengthRange);
+        if (key.length() >= length) return key;
+
+        StringBuilder value = new StringBuilder(length).append(key);
+        while (value.length() < length) {
+            value.append((char) ('A' + Long.remainderUnsigned(hash, 26)));
+            hash = HashCommon.mix(hash + 1);
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,163 @@
+package binder.io;
+
+import binder.structures.ValueCountMap;
+import binder.utils.FileUtils;
+import binder.utils.HashUtils;
+import it.unimi.dsi.fastutil.ints.IntList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores every entry as two lines of text: the value and its number of occurrences. Every block starts with a line that holds its number of entries, so that the blocks
+ * of a file can be read as separate runs. Values must not contain line breaks. The hashes of the values are not stored, but computed again when the values are read.
+ */
+public class TextBucketCodec implements BucketCodec {
+
+    @Override
+    public void write(String bucketFilePath, ValueCountMap values, IntList indexes) throws IOException {
+        BufferedWriter writer = null;
+        try {
+            writer = FileUtils.buildFileWriter(bucketFilePath, true);
+            int numEntries = (indexes == null) ? values.size() : indexes.size();
+            writer.write(Integer.toString(numEntries));
+            writer.newLine();
+            for (int entry = 0; entry < numEntries; entry++) {
+                int index = (indexes == null) ? entry : indexes.getInt(entry);
+                writer.write(values.getValue(index));
+                writer.newLine();
+                writer.write(Long.toString(values.getCount(index)));
+                writer.newLine();
+            }
+            writer.flush();
+        } finally {
+            FileUtils.close(writer);
+        }
+    }
+
+    @Override
+    public BucketIterator read(String bucketFilePath) throws IOException {
+        if (!new File(bucketFilePath).exists()) return null;
+
+        return new TextBucketIterator(FileUtils.buildFileReader(bucketFilePath), -1);
+    }
+
+    @Override
+    public List<BucketIterator> readRuns(String bucketFilePath) throws IOException {
+        List<BucketIterator> runs = new ArrayList<>();
+        if (!new File(bucketFilePath).exists()) return runs;
+
+        // Find the byte offset of every block by counting the line breaks of its entries; every run then opens the file at the first entry of its block
+        List<long[]> blocks = new ArrayList<>();
+        try (InputStream input = new BufferedInputStream(new FileInputStream(bucketFilePath))) {
+            long position = 0;
+            int b;
+            while ((b = input.read()) >= 0) {
+                long numEntries = 0;
+                for (; b != '\n'; b = input.read(), position++) {
+                    if (b < 0) throw new EOFException("Truncated block header in bucket file");
+                    if (b != '\r') numEntries = numEntries * 10 + (b - '0');
+                }
+                position++;
+                blocks.add(new long[]{position, numEntries});
+
+                for (long lineBreaks = 0; lineBreaks < 2 * numEntries; position++) {
+                    b = input.read();
+                    if (b < 0) throw new EOFException("Truncated block in bucket file");
+                    if (b == '\n') lineBreaks++;
+                }
+            }
+        }
+
+        try {
+            for (long[] block : blocks) {
+                FileChannel channel = FileChannel.open(Path.of(bucketFilePath), StandardOpenOption.READ).position(block[0]);
+                BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), Charset.forName(FileUtils.CHARSET_NAME)));
+                runs.add(new TextBucketIterator(reader, block[1]));
+            }
+        } catch (IOException e) {
+            for (BucketIterator run : runs)
+                FileUtils.close(run);
+            throw e;
+        }
+        return runs;
+    }
+
+    @Override
+    public boolean supportsLineBreaks() {
+        return false;
+    }
+
+    private static class TextBucketIterator implements BucketIterator {
+
+        private final BufferedReader reader;
+        // Whether the iterator reads only one block instead of all blocks of the file
+        private final boolean singleBlock;
+        // The number of entries that are left in the current block
+        private long remainingEntries;
+        private String value = null;
+        private long count = 0;
+
+        /**
+         * @param reader     a reader that is positioned at the start of a block header or, if numEntries is not negative, at the first entry of a block
+         * @param numEntries the number of entries of the single block to read; -1 to read all blocks until the end of the file
+         */
+        private TextBucketIterator(BufferedReader reader, long numEntries) {
+            this.reader = reader;
+            this.singleBlock = numEntries >= 0;
+            this.remainingEntries = Math.max(0, numEntries);
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            while (this.remainingEntries == 0) {
+                if (this.singleBlock) return false;
+
+                String header = this.reader.readLine();
+                if (header == null) return false;
+                this.remainingEntries = Long.parseLong(header);
+            }
+            this.remainingEntries--;
+
+            this.value = this.reader.readLine();
+            if (this.value == null) throw new EOFException("Truncated block in bucket file");
+
+            this.count = Long.parseLong(this.reader.readLine());
+            return true;
+        }
+
+        @Override
+        public String getValue() {
+            return this.value;
+        }
+
+        @Override
+        public long getHash() {
+            return HashUtils.hash(this.value);
+        }
+
+        @Override
+        public long getCount() {
+            return this.count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.reader.close();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package binder.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The validation of a bucket level, see {@link Metrics.LevelRecord}.
+ */
+@Name("binder.BucketLevel")
+@Label("BINDER Bucket Level")
+@Category("BINDER")
+class BucketLevelEvent extends jdk.jfr.Event {
+
+    @Label("Arity")
+    int arity;
+
+    @Label("Bucket Number")
+    @Description("The first bucket level of the record")
+    int bucketNumber;
+
+    @Label("Bucket Levels")
+    @Description("The number of bucket levels that were validated together")
+    int numBucketLevels;
+
+    @Label("Sub Buckets")
+    int subBuckets;
+
+    @Label("Active Attributes")
+    int activeAttributes;
+
+    @Label("Candidates")
+    long candidates;
+
+    @Label("Candidates Pruned")
+    long candidatesPruned;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+}
@@ -0,0 +1,403 @@
+package binder.metrics;
+
+import binder.utils.FileUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the measurements of one BINDER run: a record per phase, per table and per validated bucket level. The counters for bytes, hashed values, spills and
+ * refinements are shared by all threads; every record holds the amount by which they grew while it was open. Each record is also committed as a JDK Flight Recorder
+ * event, so that a recording shows the phases next to the garbage collection and I/O of the JVM, and all records are written as one JSON report after the run.
+ * <p>
+ * The bytes read and written are those of the input files, the bucket files and the Bloom filters; the column files and the columnar caches of the tables are not
+ * counted. The hashed values are the values that are assigned to a bucket or sub bucket.
+ * <p>
+ * The peak heap of a phase is the sum of the peak usages of the heap memory pools, which are reset when the phase starts. The pools may peak at different times, so
+ * the sum is an upper bound.
+ */
+public class Metrics {
+
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder valuesHashed = new LongAdder();
+    private final LongAdder spills = new LongAdder();
+    private final LongAdder refinements = new LongAdder();
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+    private final long startTime = System.nanoTime();
+
+    private final List<PhaseRecord> phases = new ArrayList<>();
+    private final List<TableRecord> tables = new ArrayList<>();
+    private final List<LevelRecord> levels = new ArrayList<>();
+    // Counts that belong to the whole run, e.g. the candidates that were discarded before the validation, in the order of their first update
+    private final Map<String, Long> counters = new LinkedHashMap<>();
+
+    public Metrics() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            if (pool.getType() == MemoryType.HEAP)
+                this.heapPools.add(pool);
+    }
+
+    /**
+     * The measurements of a phase of the algorithm.
+     *
+     * @param name          the name of the phase, e.g. "bucketing"
+     * @param arity         the size of the attribute combinations that the phase handles; 0 if the phase does not handle attributes
+     * @param durationNanos the wall clock time of the phase
+     * @param peakHeapBytes an upper bound of the heap that was used at once during the phase
+     */
+    public record PhaseRecord(String name, int arity, long durationNanos, long bytesRead, long bytesWritten, long valuesHashed, long spills, long refinements,
+                              long peakHeapBytes) {
+    }
+
+    /**
+     * The measurements of the unary bucketing of a table.
+     *
+     * @param inputBytes   the size of the input file; 0 if the table was read from its columnar cache
+     * @param valuesHashed the non-null values that were assigned to a bucket
+     * @param bucketBytes  the size of the bucket files and filters of the table's columns
+     */
+    public record TableRecord(String name, long rows, long inputBytes, long valuesHashed, long distinctValues, long spills, long bucketBytes, long durationNanos) {
+    }
+
+    /**
+     * The measurements of a validated bucket level. Levels that are validated concurrently as one batch share a record.
+     *
+     * @param bucketNumbers    the bucket levels of the record
+     * @param subBuckets       the number of sub buckets into which the level was refined; 1 if it was loaded as a whole
+     * @param activeAttributes the attributes or attribute combinations that were loaded
+     * @param candidates       the candidates that were left when the level was loaded
+     * @param candidatesPruned the candidates that the level proved to have too many violations
+     */
+    public record LevelRecord(int arity, int[] bucketNumbers, int subBuckets, int activeAttributes, long candidates, long candidatesPruned, long bytesRead,
+                              long spills, long durationNanos) {
+    }
+
+    public void addBytesRead(long bytes) {
+        this.bytesRead.add(bytes);
+    }
+
+    public void addBytesWritten(long bytes) {
+        this.bytesWritten.add(bytes);
+    }
+
+    public void addValuesHashed(long values) {
+        this.valuesHashed.add(values);
+    }
+
+    public void addSpill() {
+        this.spills.increment();
+    }
+
+    public void addRefinement() {
+        this.refinements.increment();
+    }
+
+    /**
+     * Adds to a counter of the whole run.
+     *
+     * @param name  the name of the counter in the report
+     * @param value the amount to add
+     */
+    public synchronized void addCounter(String name, long value) {
+        this.counters.merge(name, value, Long::sum);
+    }
+
+    /**
+     * @param name the name of the counter in the report
+     * @return the value of the counter; 0 if nothing was added to it
+     */
+    public synchronized long getCounter(String name) {
+        return this.counters.getOrDefault(name, 0L);
+    }
+
+    /**
+     * Starts to measure a phase. Phases must not overlap, because they reset the peak heap usage.
+     *
+     * @param name  the name of the phase
+     * @param arity the size of the attribute combinations that the phase handles; 0 if the phase does not handle attributes
+     * @return the phase, which has to be ended once it is finished
+     */
+    public Phase startPhase(String name, int arity) {
+        for (MemoryPoolMXBean pool : this.heapPools)
+            pool.resetPeakUsage();
+        return new Phase(name, arity);
+    }
+
+    /**
+     * Starts to measure the validation of a bucket level.
+     *
+     * @param arity      the size of the validated attribute combinations
+     * @param candidates the candidates that are left before the level is loaded
+     * @return the level, which has to be ended once it is validated
+     */
+    public BucketLevel startLevel(int arity, long candidates) {
+        return new BucketLevel(arity, candidates);
+    }
+
+    /**
+     * Records the bucketing of a table.
+     */
+    public void addTable(String name, long rows, long inputBytes, long valuesHashed, long distinctValues, long spills, long bucketBytes, long durationNanos) {
+        TableRecord table = new TableRecord(name, rows, inputBytes, valuesHashed, distinctValues, spills, bucketBytes, durationNanos);
+        synchronized (this.tables) {
+            this.tables.add(table);
+        }
+
+        TableEvent event = new TableEvent();
+        event.table = name;
+        event.rows = rows;
+        event.inputBytes = inputBytes;
+        event.valuesHashed = valuesHashed;
+        event.distinctValues = distinctValues;
+        event.spills = spills;
+        event.bucketBytes = bucketBytes;
+        event.durationNanos = durationNanos;
+        event.commit();
+    }
+
+    public List<PhaseRecord> getPhases() {
+        return this.phases;
+    }
+
+    public List<TableRecord> getTables() {
+        return this.tables;
+    }
+
+    public List<LevelRecord> getLevels() {
+        return this.levels;
+    }
+
+    /**
+     * @return the largest peak heap of all phases
+     */
+    public long getPeakHeapBytes() {
+        long peakHeap = 0;
+        for (PhaseRecord phase : this.phases)
+            peakHeap = Math.max(peakHeap, phase.peakHeapBytes());
+        return peakHeap;
+    }
+
+    private long getPeakHeapOfPools() {
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : this.heapPools)
+            peakHeap = peakHeap + pool.getPeakUsage().getUsed();
+        return peakHeap;
+    }
+
+    /**
+     * A phase whose measurement has been started, see {@link #startPhase(String, int)}.
+     */
+    public class Phase {
+
+        private final String name;
+        private final int arity;
+        private final PhaseEvent event = new PhaseEvent();
+        private final long startTime = System.nanoTime();
+        private final long bytesReadAtStart = Metrics.this.bytesRead.sum();
+        private final long bytesWrittenAtStart = Metrics.this.bytesWritten.sum();
+        private final long valuesHashedAtStart = Metrics.this.valuesHashed.sum();
+        private final long spillsAtStart = Metrics.this.spills.sum();
+        private final long refinementsAtStart = Metrics.this.refinements.sum();
+
+        private Phase(String name, int arity) {
+            this.name = name;
+            this.arity = arity;
+            this.event.begin();
+        }
+
+        /**
+         * Records the phase.
+         *
+         * @return the duration of the phase in milliseconds
+         */
+        public long end() {
+            this.event.end();
+            PhaseRecord phase = new PhaseRecord(this.name, this.arity, System.nanoTime() - this.startTime, Metrics.this.bytesRead.sum() - this.bytesReadAtStart,
+                    Metrics.this.bytesWritten.sum() - this.bytesWrittenAtStart, Metrics.this.valuesHashed.sum() - this.valuesHashedAtStart,
+                    Metrics.this.spills.sum() - this.spillsAtStart, Metrics.this.refinements.sum() - this.refinementsAtStart, Metrics.this.getPeakHeapOfPools());
+            synchronized (Metrics.this.phases) {
+                Metrics.this.phases.add(phase);
+            }
+
+            this.event.phase = phase.name();
+            this.event.arity = phase.arity();
+            this.event.bytesRead = phase.bytesRead();
+            this.event.bytesWritten = phase.bytesWritten();
+            this.event.valuesHashed = phase.valuesHashed();
+            this.event.spills = phase.spills();
+            this.event.refinements = phase.refinements();
+            this.event.peakHeapBytes = phase.peakHeapBytes();
+            this.event.commit();
+            return phase.durationNanos() / 1_000_000L;
+        }
+    }
+
+    /**
+     * A bucket level whose measurement has been started, see {@link #startLevel(int, long)}.
+     */
+    public class BucketLevel {
+
+        private final int arity;
+        private final long candidates;
+        private final BucketLevelEvent event = new BucketLevelEvent();
+        private final long startTime = System.nanoTime();
+        private final long bytesReadAtStart = Metrics.this.bytesRead.sum();
+        private final long spillsAtStart = Metrics.this.spills.sum();
+
+        private BucketLevel(int arity, long candidates) {
+            this.arity = arity;
+            this.candidates = candidates;
+            this.event.begin();
+        }
+
+        /**
+         * Records the level.
+         *
+         * @param bucketNumbers       the bucket levels that were validated
+         * @param subBuckets          the number of sub buckets into which the level was refined
+         * @param activeAttributes    the attributes or attribute combinations that were loaded
+         * @param remainingCandidates the candidates that are left after the level
+         */
+        public void end(int[] bucketNumbers, int subBuckets, int activeAttributes, long remainingCandidates) {
+            this.event.end();
+            LevelRecord level = new LevelRecord(this.arity, bucketNumbers, subBuckets, activeAttributes, this.candidates, this.candidates - remainingCandidates,
+                    Metrics.this.bytesRead.sum() - this.bytesReadAtStart, Metrics.this.spills.sum() - this.spillsAtStart, System.nanoTime() - this.startTime);
+            synchronized (Metrics.this.levels) {
+                Metrics.this.levels.add(level);
+            }
+
+            this.event.arity = level.arity();
+            this.event.bucketNumber = bucketNumbers[0];
+            this.event.numBucketLevels = bucketNumbers.length;
+            this.event.subBuckets = level.subBuckets();
+            this.event.activeAttributes = level.activeAttributes();
+            this.event.candidates = level.candidates();
+            this.event.candidatesPruned = level.candidatesPruned();
+            this.event.bytesRead = level.bytesRead();
+            this.event.commit();
+        }
+    }
+
+    /**
+     * Writes all records and the totals of the run as one JSON object.
+     *
+     * @param filePath the file to write the report to; an existing file is replaced
+     * @param run      the name of the run, e.g. the dataset
+     * @throws IOException if the file can not be written
+     */
+    public void writeJson(String filePath, String run) throws IOException {
+        FileUtils.writeToFile(this.toJson(run), filePath);
+    }
+
+    /**
+     * @param run the name of the run, e.g. the dataset
+     * @return all records and the totals of the run as one JSON object
+     */
+    public String toJson(String run) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n  \"run\": ");
+        appendString(json, run);
+        json.append(",\n  \"totals\": {\"durationNanos\": ").append(System.nanoTime() - this.startTime)
+                .append(", \"bytesRead\": ").append(this.bytesRead.sum())
+                .append(", \"bytesWritten\": ").append(this.bytesWritten.sum())
+                .append(", \"valuesHashed\": ").append(this.valuesHashed.sum())
+                .append(", \"spills\": ").append(this.spills.sum())
+                .append(", \"refinements\": ").append(this.refinements.sum())
+                .append(", \"peakHeapBytes\": ").append(this.getPeakHeapBytes()).append("},\n");
+
+        json.append("  \"counters\": {");
+        synchronized (this) {
+            boolean first = true;
+            for (Map.Entry<String, Long> counter : this.counters.entrySet()) {
+                if (!first) json.append(", ");
+                first = false;
+                appendString(json, counter.getKey());
+                json.append(": ").append(counter.getValue());
+            }
+        }
+        json.append("},\n");
+
+        json.append("  \"phases\": [");
+        synchronized (this.phases) {
+            for (int i = 0; i < this.phases.size(); i++) {
+                PhaseRecord phase = this.phases.get(i);
+                json.append((i == 0) ? "\n" : ",\n").append("    {\"name\": ");
+                appendString(json, phase.name());
+                json.append(", \"arity\": ").append(phase.arity())
+                        .append(", \"durationNanos\": ").append(phase.durationNanos())
+                        .append(", \"bytesRead\": ").append(phase.bytesRead())
+                        .append(", \"bytesWritten\": ").append(phase.bytesWritten())
+                        .append(", \"valuesHashed\": ").append(phase.valuesHashed())
+                        .append(", \"spills\": ").append(phase.spills())
+                        .append(", \"refinements\": ").append(phase.refinements())
+                        .append(", \"peakHeapBytes\": ").append(phase.peakHeapBytes()).append('}');
+            }
+        }
+        json.append("\n  ],\n");
+
+        json.append("  \"tables\": [");
+        synchronized (this.tables) {
+            for (int i = 0; i < this.tables.size(); i++) {
+                TableRecord table = this.tables.get(i);
+                json.append((i == 0) ? "\n" : ",\n").append("    {\"name\": ");
+                appendString(json, table.name());
+                json.append(", \"rows\": ").append(table.rows())
+                        .append(", \"inputBytes\": ").append(table.inputBytes())
+                        .append(", \"valuesHashed\": ").append(table.valuesHashed())
+                        .append(", \"distinctValues\": ").append(table.distinctValues())
+                        .append(", \"spills\": ").append(table.spills())
+                        .append(", \"bucketBytes\": ").append(table.bucketBytes())
+                        .append(", \"durationNanos\": ").append(table.durationNanos()).append('}');
+            }
+        }
+        json.append("\n  ],\n");
+
+        json.append("  \"levels\": [");
+        synchronized (this.levels) {
+            for (int i = 0; i < this.levels.size(); i++) {
+                LevelRecord level = this.levels.get(i);
+                json.append((i == 0) ? "\n" : ",\n").append("    {\"arity\": ").append(level.arity()).append(", \"bucketNumbers\": [");
+                for (int j = 0; j < level.bucketNumbers().length; j++) {
+                    if (j > 0) json.append(", ");
+                    json.append(level.bucketNumbers()[j]);
+                }
+                json.append("], \"subBuckets\": ").append(level.subBuckets())
+                        .append(", \"activeAttributes\": ").append(level.activeAttributes())
+                        .append(", \"candidates\": ").append(level.candidates())
+                        .append(", \"candidatesPruned\": ").append(level.candidatesPruned())
+                        .append(", \"bytesRead\": ").append(level.bytesRead())
+                        .append(", \"spills\": ").append(level.spills())
+                        .append(", \"durationNanos\": ").append(level.durationNanos()).append('}');
+            }
+        }
+        json.append("\n  ]\n}\n");
+        return json.toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+}
@@ -0,0 +1,44 @@
+package binder.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A phase of a BINDER run, see {@link Metrics.PhaseRecord}.
+ */
+@Name("binder.Phase")
+@Label("BINDER Phase")
+@Category("BINDER")
+class PhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Arity")
+    @Description("The size of the attribute combinations that the phase handles; 0 if the phase does not handle attributes")
+    int arity;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Bytes Written")
+    @DataAmount
+    long bytesWritten;
+
+    @Label("Values Hashed")
+    long valuesHashed;
+
+    @Label("Spills")
+    long spills;
+
+    @Label("Refinements")
+    long refinements;
+
+    @Label("Peak Heap")
+    @DataAmount
+    long peakHeapBytes;
+}
@@ -0,0 +1,43 @@
+package binder.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * The unary bucketing of a table, see {@link Metrics.TableRecord}.
+ */
+@Name("binder.Table")
+@Label("BINDER Table")
+@Category("BINDER")
+class TableEvent extends jdk.jfr.Event {
+
+    @Label("Table")
+    String table;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Input Bytes")
+    @DataAmount
+    long inputBytes;
+
+    @Label("Values Hashed")
+    long valuesHashed;
+
+    @Label("Distinct Values")
+    long distinctValues;
+
+    @Label("Spills")
+    long spills;
+
+    @Label("Bucket Bytes")
+    @DataAmount
+    long bucketBytes;
+
+    @Label("Bucketing Time")
+    @Timespan
+    long durationNanos;
+}
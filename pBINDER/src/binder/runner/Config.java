@@ -5,6 +5,7 @@ import java.io.File;
 public class Config {
 
     // input path settings
+    public Dataset dataset;
     public String datasetFolder = "D:\\MA\\data" + File.separator;
     public String datasetName;
     public String[] relationNames;
@@ -25,14 +26,49 @@ public class Config {
     public NullHandling nullHandling;
     public DuplicateHandling duplicateHandling;
 
+    // performance related settings
+    public InputParser inputParser = InputParser.OPENCSV; // How the input files are split into records and values
+    public int numBucketingThreads = 1; // Number of tables that are bucketized concurrently during the unary bucketing
+    public BucketFormat bucketFormat = BucketFormat.BINARY; // The format in which bucket files are written to the temp folder
+    public ValidationStrategy validationStrategy = ValidationStrategy.INDEX; // How the unary pIND candidates are checked against the buckets
+    public int bloomFilterBitsPerValue = 10; // Size of the Bloom filters of the buckets for the BLOOM validation; ten bits per value cause about one percent false hits
+    public int numValidationThreads = 1; // Number of bucket levels or sub buckets that are validated concurrently during the unary validation
+    public boolean statisticalPruning = true; // Discard unary candidates before the validation if the value ranges and distinct values of their buckets already prove too many violations
+    public boolean sketchPruning = false; // Discard unary candidates before the validation if min-hash sketches of their columns show that too many dependent values are missing
+    public int sketchSize = 256; // Number of smallest value hashes that the sketch of each column keeps
+    public double sketchSafetyMargin = 0.05; // Share of the sampled dependent values by which the missing values may be overestimated; 1.0 only discards candidates with certain violations
+    public boolean offHeapBuckets = false; // Store the values of the in-memory buckets in direct buffers outside of the heap
+    public boolean adaptiveBuckets = false; // Lay out the bucket files of every column by its size: small columns in one file, large columns pre-split into the sub buckets of the validation
+    public boolean columnarInput = true; // Keep the parsed tables as column files, so that the n-ary bucketing reads only the needed columns instead of parsing the input again
+    public boolean columnarCache = false; // Convert the input tables once into memory-mapped, dictionary encoded column files that later runs reuse while the input is unchanged
+
     // output related settings
     public String tempFolder = ".\\temp";
     public String resultFolder = ".\\results";
     public String statisticsFileName = "IND_statistics.txt";
+    public String metricsFileName = "metrics.json"; // The file in the result folder to which the measurements of the phases, tables and bucket levels are written as JSON
+    public String resultFileName = "pINDs"; // The file in the result folder to which the pINDs are written; the writer adds its file ending
+    public ResultFormat resultFormat = ResultFormat.CSV; // The format in which the pINDs are written
+    public boolean incrementalUnaryOutput = false; // Output unary pINDs as soon as the unvalidated bucket levels can no longer violate them; their violations are then an upper bound, which the results mark as inexact
     public boolean writeResults = true;
     public boolean cleanTemp = true;
     public boolean detectNary = true;
 
+    // synthetic dataset settings, see SyntheticDataGenerator
+    public int syntheticTables = 4;
+    public long syntheticRows = 100000; // Rows of each table
+    public int syntheticColumns = 8; // Columns of each table
+    public int syntheticMinValueLength = 1; // Values are longer if their ids need more characters
+    public int syntheticMaxValueLength = 20;
+    public double syntheticSkew = 0.0; // 0 draws the values of a column uniformly; towards 1, few values occur in most rows
+    public double syntheticNullRatio = 0.0; // Share of null values in the columns that do not enumerate a referenced domain
+    public double syntheticDuplicateRatio = 0.5; // 1 - (distinct values of a column's domain / rows)
+    public int syntheticUnaryINDs = 4; // Planted unary INDs between the columns of different tables
+    public int syntheticNaryINDs = 2; // Planted n-ary INDs between the columns of different tables
+    public int syntheticNaryArity = 2;
+    public double syntheticCoverage = 0.95; // Share of the dependent values that the partial planted INDs cover; every other planted IND is exact
+    public long syntheticSeed = 42;
+
 
     public Config(Config.Dataset dataset, double threshold, NullHandling nullHandling, DuplicateHandling duplicateHandling) {
         this.setDataset(dataset);
@@ -42,6 +78,7 @@ public class Config {
     }
 
     private void setDataset(Dataset dataset) {
+        this.dataset = dataset;
         switch (dataset) {
             case ANIMAL_CROSSING -> {
                 this.datasetName = "Kaggle\\animal-crossing-new-horizons-nookplaza-dataset";
@@ -104,13 +141,20 @@ public class Config {
                 this.quoteChar = '\0';
                 this.nullString = "\\N";
             }
+            case SYNTHETIC -> {
+                // The relation names are set once the relations are generated
+                this.datasetName = "synthetic";
+                this.separator = ',';
+                this.hasHeader = true;
+                this.fileEnding = ".csv";
+            }
             default -> {
             }
         }
     }
 
     public enum Dataset {
-        TPCH_1, KAGGLE, DATA_GOV, UEFA, TEST, ANIMAL_CROSSING, MUSICBRAINZ
+        TPCH_1, KAGGLE, DATA_GOV, UEFA, TEST, ANIMAL_CROSSING, MUSICBRAINZ, SYNTHETIC
     }
 
     public enum NullHandling {
@@ -120,4 +164,26 @@ public class Config {
     public enum DuplicateHandling {
         AWARE, UNAWARE
     }
+
+    public enum InputParser {
+        OPENCSV, // parse the input files with opencsv
+        BYTES // tokenize the input files directly on their bytes; the separator, quote and escape characters have to be ASCII
+    }
+
+    public enum ResultFormat {
+        CSV, // one pIND per line with the columns of a side separated by semicolons
+        JSON_LINES, // one JSON object per line
+        BINARY // column indexes into a header of table and column names
+    }
+
+    public enum BucketFormat {
+        TEXT, BINARY
+    }
+
+    public enum ValidationStrategy {
+        INDEX, // load the buckets of a level into hash maps and build an inverted index over all values
+        MERGE, // write buckets as sorted runs and merge the runs of all attributes of a level
+        DICTIONARY, // encode the values of a level as dense ids and compare the sorted ids of each candidate
+        BLOOM // load only the dependent attributes of a level and probe the attributes that are only referenced through the Bloom filters of their buckets
+    }
 }
@@ -3,6 +3,7 @@ package binder.runner;
 import binder.core.BINDERFile;
 import binder.core.BINDER;
 import binder.io.DefaultFileInputGenerator;
+import binder.io.SyntheticDataGenerator;
 import binder.utils.FileUtils;
 
 import java.io.File;
@@ -30,6 +31,10 @@ public class Runner {
 
     public static void executeBINDER(Config conf) {
         try {
+            // A synthetic dataset is generated first; it also defines the relation names
+            if (conf.dataset == Config.Dataset.SYNTHETIC)
+                SyntheticDataGenerator.generate(conf);
+
             BINDER binder;
             DefaultFileInputGenerator[] fileInputGenerators = new DefaultFileInputGenerator[conf.relationNames.length];
             for (int i = 0; i < conf.relationNames.length; i++)
@@ -49,6 +54,7 @@ public class Runner {
 
             if (conf.writeResults) {
                 FileUtils.writeToFile(binder + "\r\n\r\n" + "Runtime: " + time + "\r\n\r\n" + conf, conf.resultFolder + File.separator + conf.statisticsFileName);
+                binder.metrics.writeJson(conf.resultFolder + File.separator + conf.metricsFileName, conf.datasetName);
             }
         } catch (IOException e) {
             e.printStackTrace();
@@ -10,9 +10,15 @@ public class Attribute implements Comparable<Attribute> {
     public long distinctValues;
     public long totalValues;
     public long nulls;
+    public PruningStatistics statistics = null; // the value ranges and distinct values per bucket; only present if the statistical pruning is enabled
+    public MinHashSketch sketch = null; // a sample of the distinct values for the sketch pruning; only present if the pruning is enabled
+    public final long[] entriesPerBucket; // the entries of all blocks that were written for each bucket, which bound its distinct values from above if the column was spilled
+    public final long[] valuesPerBucket; // the values of each bucket, counted like the violations: all occurrences, or only the distinct values if duplicates are ignored; for spilled columns whose distinct values are not counted, all occurrences as an upper bound
 
-    public Attribute(int table, int column, int attributeId) {
+    public Attribute(int table, int column, int attributeId, int numBuckets) {
         this.table = table;
+        this.entriesPerBucket = new long[numBuckets];
+        this.valuesPerBucket = new long[numBuckets];
         this.column = column;
         this.attributeId = attributeId;
     }
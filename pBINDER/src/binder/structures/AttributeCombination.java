@@ -1,24 +1,44 @@
 package binder.structures;
 
+import it.unimi.dsi.fastutil.HashCommon;
+
 import java.util.Arrays;
 
+/**
+ * The identity of an attribute combination are its table and its attributes in their order, which can not change after construction. The hash code is derived from
+ * them once and cached, because attribute combinations are the keys of the candidate maps in the n-ary detection.
+ */
 public class AttributeCombination implements Comparable<AttributeCombination> {
 
     private final int table;
+    private final int[] attributes;
+    private final int hash;
     public long violationsLeft;
     public long nulls;
-    private int[] attributes;
 
     public AttributeCombination(int table, long violationsLeft, int... attributes) {
         this.table = table;
         this.violationsLeft = violationsLeft;
-        this.setAttributes(attributes);
+        this.attributes = attributes.clone();
+        this.hash = hash(table, attributes);
     }
 
     public AttributeCombination(int table, long violationsLeft, int[] attributes, int attribute) {
         this.table = table;
         this.violationsLeft = violationsLeft;
-        this.setAttributes(attributes, attribute);
+        this.attributes = Arrays.copyOf(attributes, attributes.length + 1);
+        this.attributes[attributes.length] = attribute;
+        this.hash = hash(table, this.attributes);
+    }
+
+    /**
+     * Mixes every attribute into the hash, so that the hash depends on the order of the attributes and large attribute ids spread over all bits.
+     */
+    private static int hash(int table, int[] attributes) {
+        int hash = HashCommon.mix(table);
+        for (int attribute : attributes)
+            hash = HashCommon.mix(hash + attribute);
+        return hash;
     }
 
     public int size() {
@@ -29,43 +49,26 @@ public class AttributeCombination implements Comparable<AttributeCombination> {
         return this.table;
     }
 
+    /**
+     * @return the attributes of this combination, which are shared with it and must not be modified
+     */
     public int[] getAttributes() {
         return this.attributes;
     }
 
-    public void setAttributes(int[] attributes) {
-        this.attributes = attributes;
-    }
-
-    public void setAttributes(int[] attributes, int attribute) {
-        this.attributes = Arrays.copyOf(attributes, attributes.length + 1);
-        this.attributes[attributes.length] = attribute;
-    }
-
     @Override
     public int hashCode() {
-        int code = 0;
-        int multiplier = 1;
-        for (int attribute : this.attributes) {
-            code = code + attribute * multiplier;
-            multiplier = multiplier * 10;
-        }
-        return code + this.table * multiplier;
+        return this.hash;
     }
 
     @Override
     public boolean equals(Object obj) {
+        if (this == obj) return true;
         if (!(obj instanceof AttributeCombination other)) return false;
 
-        if (this.table != other.getTable()) return false;
-
-        int[] otherColumns = other.getAttributes();
-        if (this.attributes.length != otherColumns.length) return false;
-
-        for (int i = 0; i < this.attributes.length; i++)
-            if (this.attributes[i] != otherColumns[i]) return false;
+        if ((this.hash != other.hash) || (this.table != other.getTable())) return false;
 
-        return true;
+        return Arrays.equals(this.attributes, other.getAttributes());
     }
 
     @Override
@@ -0,0 +1,106 @@
+package binder.structures;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A prefix tree over attribute combinations. A value is stored under the table and the attributes of its combination, so that combinations can be looked up
+ * attribute by attribute with integer keys and all combinations that only differ in their last attribute are found below the same node.
+ *
+ * @param <V> the type of the stored values
+ */
+public class AttributeTrie<V> {
+
+    private final Node<V> root = new Node<>();
+
+    /**
+     * Stores a value under the given attribute combination. A value that was already stored under the combination is replaced.
+     *
+     * @param table      the table of the attribute combination
+     * @param attributes the attributes of the combination in their order
+     * @param value      the value to store
+     */
+    public void put(int table, int[] attributes, V value) {
+        Node<V> parent = this.root.getOrCreateChild(table);
+        for (int index = 0; index < attributes.length - 1; index++)
+            parent = parent.getOrCreateChild(attributes[index]);
+
+        Node<V> leaf = parent.getOrCreateChild(attributes[attributes.length - 1]);
+        if (leaf.value == null) {
+            if (parent.childValues == null) parent.childValues = new ArrayList<>(2);
+            parent.childValues.add(value);
+        } else {
+            parent.childValues.set(parent.childValues.indexOf(leaf.value), value);
+        }
+        leaf.value = value;
+    }
+
+    /**
+     * Looks up the value of the attribute combination that remains if one attribute is left out of the given attributes.
+     *
+     * @param table      the table of the attribute combination
+     * @param attributes the attributes of the combination in their order
+     * @param skipIndex  the index of the attribute to leave out; -1 to look up the combination of all attributes
+     * @return the value of the combination or null if no value is stored under it
+     */
+    public V get(int table, int[] attributes, int skipIndex) {
+        Node<V> node = this.root.getChild(table);
+        for (int index = 0; (index < attributes.length) && (node != null); index++)
+            if (index != skipIndex)
+                node = node.getChild(attributes[index]);
+        return (node == null) ? null : node.value;
+    }
+
+    /**
+     * @param table        the table of the attribute combinations
+     * @param attributes   the attributes that start with the prefix
+     * @param prefixLength the number of leading attributes that form the prefix
+     * @return the values of all combinations that consist of the prefix and exactly one further attribute in the order in which they were stored
+     */
+    public List<V> getValuesWithPrefix(int table, int[] attributes, int prefixLength) {
+        Node<V> node = this.root.getChild(table);
+        for (int index = 0; (index < prefixLength) && (node != null); index++)
+            node = node.getChild(attributes[index]);
+        return ((node == null) || (node.childValues == null)) ? Collections.emptyList() : node.childValues;
+    }
+
+    /**
+     * @return the values grouped by their table and all but their last attribute; the values of each group are in the order in which they were stored
+     */
+    public List<List<V>> getPrefixGroups() {
+        List<List<V>> groups = new ArrayList<>();
+        collectPrefixGroups(this.root, groups);
+        return groups;
+    }
+
+    private static <V> void collectPrefixGroups(Node<V> node, List<List<V>> groups) {
+        if (node.childValues != null)
+            groups.add(node.childValues);
+        if (node.children != null)
+            for (Node<V> child : node.children.values())
+                collectPrefixGroups(child, groups);
+    }
+
+    private static class Node<V> {
+        private Int2ObjectOpenHashMap<Node<V>> children = null;
+        private List<V> childValues = null;
+        private V value = null;
+
+        private Node<V> getChild(int key) {
+            return (this.children == null) ? null : this.children.get(key);
+        }
+
+        private Node<V> getOrCreateChild(int key) {
+            if (this.children == null) this.children = new Int2ObjectOpenHashMap<>(2);
+            Node<V> child = this.children.get(key);
+            if (child == null) {
+                child = new Node<>();
+                this.children.put(key, child);
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package binder.structures;
+
+import binder.utils.FileUtils;
+import it.unimi.dsi.fastutil.HashCommon;
+
+import java.io.*;
+
+/**
+ * A Bloom filter over the values of one bucket. The filter never misses a value that was added, but may report values that were not added. The bit positions of a
+ * value are derived from its 64-bit hash (see {@link binder.utils.HashUtils#hash(String)}) by double hashing, so that the hash of a value can be computed once and
+ * probed against many filters. All values of a bucket share the lowest bits of their hashes, so the filter scrambles a hash before it derives the bit positions.
+ */
+public class BloomFilter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final long[] bits;
+    private final int numHashFunctions;
+
+    /**
+     * @param expectedValues the number of distinct values that will be added at most
+     * @param bitsPerValue   the number of bits per expected value; more bits cause fewer false hits
+     */
+    public BloomFilter(long expectedValues, int bitsPerValue) {
+        this.bits = new long[numWords(expectedValues, bitsPerValue)];
+        // This number of hash functions minimizes the false hits for the given bits per value
+        this.numHashFunctions = Math.max(1, (int) Math.round(bitsPerValue * Math.log(2)));
+    }
+
+    /**
+     * @param expectedValues the number of distinct values that will be added at most
+     * @param bitsPerValue   the number of bits per expected value
+     * @return the number of bytes that the bits of a filter of this size occupy
+     */
+    public static long sizeInBytes(long expectedValues, int bitsPerValue) {
+        return (long) numWords(expectedValues, bitsPerValue) * Long.BYTES;
+    }
+
+    private static int numWords(long expectedValues, int bitsPerValue) {
+        long numBits = Math.max(Long.SIZE, expectedValues * bitsPerValue);
+        return (int) Math.min((numBits + Long.SIZE - 1) / Long.SIZE, Integer.MAX_VALUE - 8);
+    }
+
+    private BloomFilter(long[] bits, int numHashFunctions) {
+        this.bits = bits;
+        this.numHashFunctions = numHashFunctions;
+    }
+
+    /**
+     * @param valueHash the hash of the value to add
+     */
+    public void add(long valueHash) {
+        long hash = HashCommon.murmurHash3(valueHash);
+        long numBits = (long) this.bits.length * Long.SIZE;
+        long combinedHash = hash;
+        long increment = (hash >>> 32) | 1L;
+        for (int i = 0; i < this.numHashFunctions; i++) {
+            long bit = Long.remainderUnsigned(combinedHash, numBits);
+            this.bits[(int) (bit >>> 6)] |= 1L << bit;
+            combinedHash = combinedHash + increment;
+        }
+    }
+
+    /**
+     * @param valueHash the hash of a value
+     * @return false if the value has certainly not been added
+     */
+    public boolean mightContain(long valueHash) {
+        long hash = HashCommon.murmurHash3(valueHash);
+        long numBits = (long) this.bits.length * Long.SIZE;
+        long combinedHash = hash;
+        long increment = (hash >>> 32) | 1L;
+        for (int i = 0; i < this.numHashFunctions; i++) {
+            long bit = Long.remainderUnsigned(combinedHash, numBits);
+            if ((this.bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+            combinedHash = combinedHash + increment;
+        }
+        return true;
+    }
+
+    /**
+     * @param filePath the file to write the filter to; an existing file is replaced
+     * @throws IOException if the file can not be written
+     */
+    public void write(String filePath) throws IOException {
+        FileUtils.createFile(filePath, true);
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath), BUFFER_SIZE))) {
+            output.writeInt(this.numHashFunctions);
+            output.writeInt(this.bits.length);
+            for (long word : this.bits)
+                output.writeLong(word);
+        }
+    }
+
+    /**
+     * @param filePath a file written by {@link #write(String)}
+     * @return the filter of the file or null if the file does not exist
+     * @throws IOException if the file can not be read
+     */
+    public static BloomFilter read(String filePath) throws IOException {
+        if (!new File(filePath).exists()) return null;
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE))) {
+            int numHashFunctions = input.readInt();
+            long[] bits = new long[input.readInt()];
+            for (int word = 0; word < bits.length; word++)
+                bits[word] = input.readLong();
+            return new BloomFilter(bits, numHashFunctions);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package binder.structures;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Provides the buffers in which a {@link ValueCountMap} stores its values. An allocator may hand out direct buffers and reuse the buffers that are given back to it.
+ */
+public interface BufferAllocator {
+
+    /**
+     * Allocates plain heap buffers; freed buffers are left to the garbage collector.
+     */
+    BufferAllocator HEAP = new BufferAllocator() {
+        @Override
+        public ByteBuffer allocate(int capacity) {
+            return ByteBuffer.allocate(capacity);
+        }
+
+        @Override
+        public void free(ByteBuffer buffer) {
+        }
+    };
+
+    /**
+     * @param capacity the minimal capacity of the buffer in bytes
+     * @return an empty buffer with at least the given capacity
+     */
+    ByteBuffer allocate(int capacity);
+
+    /**
+     * Gives a buffer back to the allocator. The buffer must not be used afterwards.
+     *
+     * @param buffer a buffer that was allocated by this allocator
+     */
+    void free(ByteBuffer buffer);
+}
@@ -0,0 +1,88 @@
+package binder.structures;
+
+import it.unimi.dsi.fastutil.Arrays;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+
+/**
+ * The buckets of one (sub) bucket level in dictionary encoded form. Every distinct value of the level gets a dense integer id and the bucket of each attribute becomes a
+ * sorted array of the ids of its values with a parallel array of their numbers of occurrences. Checking whether a value of one attribute is contained in another
+ * attribute is then a comparison of integers instead of hashing and comparing Strings.
+ */
+public class EncodedBucketLevel {
+
+    private final ValueCountMap dictionary = new ValueCountMap();
+    private final Int2ObjectOpenHashMap<int[]> attribute2Ids = new Int2ObjectOpenHashMap<>();
+    private final Int2ObjectOpenHashMap<long[]> attribute2Counts = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * Encodes the bucket of an attribute with the dictionary of this level. The bucket itself is not referenced afterwards.
+     *
+     * @param attribute the attribute of the bucket
+     * @param bucket    the values of the attribute in this level mapped to their number of occurrences
+     */
+    public void add(int attribute, ValueCountMap bucket) {
+        int[] ids = new int[bucket.size()];
+        long[] counts = new long[bucket.size()];
+        for (int index = 0; index < bucket.size(); index++) {
+            ids[index] = this.dictionary.add(bucket, index, 1L);
+            counts[index] = bucket.getCount(index);
+        }
+
+        // The ids are unique within a bucket, so the order is unambiguous
+        Arrays.quickSort(0, ids.length, (a, b) -> Integer.compare(ids[a], ids[b]), (a, b) -> {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            long count = counts[a];
+            counts[a] = counts[b];
+            counts[b] = count;
+        });
+
+        this.attribute2Ids.put(attribute, ids);
+        this.attribute2Counts.put(attribute, counts);
+    }
+
+    /**
+     * Counts the violations of the candidate dependent &sube; referenced within this level, i.e. the values of the dependent attribute that the referenced attribute
+     * does not contain.
+     *
+     * @param dependent        the dependent attribute
+     * @param referenced       the referenced attribute
+     * @param countOccurrences whether a missing value counts with its number of occurrences or only once
+     * @param maxViolations    the counting stops as soon as the violations exceed this number
+     * @return the number of violations; a number larger than maxViolations if the counting stopped early
+     */
+    public long countViolations(int dependent, int referenced, boolean countOccurrences, long maxViolations) {
+        int[] dependentIds = this.attribute2Ids.get(dependent);
+        long[] dependentCounts = this.attribute2Counts.get(dependent);
+        int[] referencedIds = this.attribute2Ids.get(referenced);
+
+        long violations = 0;
+        if ((long) dependentIds.length * (32 - Integer.numberOfLeadingZeros(referencedIds.length)) < (long) dependentIds.length + referencedIds.length) {
+            // A small dependent bucket looks its values up in the large referenced bucket
+            int from = 0;
+            for (int index = 0; index < dependentIds.length; index++) {
+                int position = java.util.Arrays.binarySearch(referencedIds, from, referencedIds.length, dependentIds[index]);
+                if (position >= 0) {
+                    from = position + 1;
+                    continue;
+                }
+                from = -position - 1;
+                violations = violations + (countOccurrences ? dependentCounts[index] : 1L);
+                if (violations > maxViolations) return violations;
+            }
+        } else {
+            // Otherwise both sorted buckets are merged
+            int position = 0;
+            for (int index = 0; index < dependentIds.length; index++) {
+                while ((position < referencedIds.length) && (referencedIds[position] < dependentIds[index]))
+                    position++;
+                if ((position < referencedIds.length) && (referencedIds[position] == dependentIds[index])) continue;
+
+                violations = violations + (countOccurrences ? dependentCounts[index] : 1L);
+                if (violations > maxViolations) return violations;
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,107 @@
+package binder.structures;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Maps the values of the loaded buckets of one (sub) bucket level to the group of attributes that contain them, together with the number of occurrences of each
+ * value in each of its attributes. The values are kept in a {@link ValueCountMap}, into which the UTF-8 bytes and the hashes of the buckets' entries are copied, so
+ * that neither building nor probing the index decodes or hashes a value. The attributes of a value form a linked list of postings in parallel arrays.
+ */
+public class InvertedIndex {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private final ValueCountMap values = new ValueCountMap();
+    // The most recent posting of each value
+    private int[] lastPostings = new int[DEFAULT_CAPACITY];
+    private int numValues = 0;
+
+    private int[] attributes = new int[DEFAULT_CAPACITY];
+    private long[] occurrences = new long[DEFAULT_CAPACITY];
+    // The posting that was added before each posting for the same value; -1 for the first posting of a value
+    private int[] previousPostings = new int[DEFAULT_CAPACITY];
+    private int numPostings = 0;
+
+    /**
+     * Adds the values of the bucket of an attribute to the index.
+     *
+     * @param attribute the attribute of the bucket
+     * @param bucket    the values of the attribute in this level mapped to their number of occurrences
+     */
+    public void add(int attribute, ValueCountMap bucket) {
+        for (int index = 0; index < bucket.size(); index++)
+            this.addPosting(this.values.add(bucket, index, 0L), attribute, bucket.getCount(index));
+    }
+
+    /**
+     * Adds the attribute to the group of a value that the index already contains. The same value may be added more than once for an attribute, e.g. if it is repeated
+     * in the blocks of a spilled bucket; its occurrences are then summed up.
+     *
+     * @param attribute the attribute that contains the value
+     * @param value     the value
+     * @param hash      the hash of the value as computed by {@link binder.utils.HashUtils#hash(String)}
+     * @param count     the number of occurrences of the value in the attribute
+     * @return false if the index does not contain the value, which is then not added
+     */
+    public boolean addIfContained(int attribute, String value, long hash, long count) {
+        int entry = this.values.indexOf(value, hash);
+        if (entry < 0) return false;
+
+        this.addPosting(entry, attribute, count);
+        return true;
+    }
+
+    private void addPosting(int entry, int attribute, long count) {
+        // New values get the next index of the map
+        if (entry == this.numValues) {
+            if (this.numValues == this.lastPostings.length)
+                this.lastPostings = Arrays.copyOf(this.lastPostings, 2 * this.lastPostings.length);
+            this.lastPostings[this.numValues++] = -1;
+        }
+
+        int lastPosting = this.lastPostings[entry];
+
+        if ((lastPosting >= 0) && (this.attributes[lastPosting] == attribute)) {
+            this.occurrences[lastPosting] = this.occurrences[lastPosting] + count;
+            return;
+        }
+
+        if (this.numPostings == this.attributes.length) {
+            int capacity = 2 * this.attributes.length;
+            this.attributes = Arrays.copyOf(this.attributes, capacity);
+            this.occurrences = Arrays.copyOf(this.occurrences, capacity);
+            this.previousPostings = Arrays.copyOf(this.previousPostings, capacity);
+        }
+        this.attributes[this.numPostings] = attribute;
+        this.occurrences[this.numPostings] = count;
+        this.previousPostings[this.numPostings] = lastPosting;
+        this.lastPostings[entry] = this.numPostings++;
+    }
+
+    /**
+     * @return the number of distinct values in the index; the values are numbered from 0 to size() - 1
+     */
+    public int size() {
+        return this.numValues;
+    }
+
+    /**
+     * Adds the group of attributes that contain a value to the given collections, which the caller clears before the next group.
+     *
+     * @param entry              the number of the value
+     * @param attributeGroup     receives the attributes that contain the value
+     * @param occurrencesInGroup receives the number of occurrences of the value in each attribute of the group
+     * @param groupMembers       receives the attributes of the group as a BitSet
+     */
+    public void getGroup(int entry, IntArrayList attributeGroup, LongArrayList occurrencesInGroup, BitSet groupMembers) {
+        for (int posting = this.lastPostings[entry]; posting >= 0; posting = this.previousPostings[posting]) {
+            attributeGroup.add(this.attributes[posting]);
+            occurrencesInGroup.add(this.occurrences[posting]);
+            groupMembers.set(this.attributes[posting]);
+        }
+    }
+}
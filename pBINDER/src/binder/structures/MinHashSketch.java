@@ -0,0 +1,129 @@
+package binder.structures;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+
+import java.util.Arrays;
+
+/**
+ * A k-minimum-values sketch of the distinct values of a column. The sketch keeps the k smallest hashes of all values it has seen, which are a uniform sample of the
+ * distinct values. Two sketches can tell values of one column that are missing in the other: below the largest hash that both sketches still cover, every hash of a
+ * column is in its sketch, so a hash of the dependent sketch that the referenced sketch does not contain belongs to a value the referenced column does not contain.
+ */
+public class MinHashSketch {
+
+    private final int size;
+    // A max-heap of the smallest hashes seen so far
+    private final long[] heap;
+    private final LongOpenHashSet hashes;
+    private int count = 0;
+    private long[] sortedHashes = null;
+
+    /**
+     * @param size the number of smallest hashes to keep
+     */
+    public MinHashSketch(int size) {
+        this.size = size;
+        this.heap = new long[size];
+        this.hashes = new LongOpenHashSet(size);
+    }
+
+    /**
+     * @param valueHash the hash of a non-null value of the column as computed by {@link binder.utils.HashUtils#hash(String)}; values may be added more than once
+     */
+    public void add(long valueHash) {
+        // The sketch keeps 63-bit hashes, so that hashes compare correctly as signed numbers
+        long hash = valueHash >>> 1;
+        if ((this.count == this.size) && (hash >= this.heap[0])) return;
+        if (!this.hashes.add(hash)) return;
+
+        if (this.count < this.size) {
+            this.heap[this.count] = hash;
+            siftUp(this.count++);
+        } else {
+            this.hashes.remove(this.heap[0]);
+            this.heap[0] = hash;
+            siftDown(0);
+        }
+        this.sortedHashes = null;
+    }
+
+    private void siftUp(int index) {
+        long hash = this.heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (this.heap[parent] >= hash) break;
+            this.heap[index] = this.heap[parent];
+            index = parent;
+        }
+        this.heap[index] = hash;
+    }
+
+    private void siftDown(int index) {
+        long hash = this.heap[index];
+        int half = this.count >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if ((child + 1 < this.count) && (this.heap[child + 1] > this.heap[child])) child++;
+            if (hash >= this.heap[child]) break;
+            this.heap[index] = this.heap[child];
+            index = child;
+        }
+        this.heap[index] = hash;
+    }
+
+    private long[] getSortedHashes() {
+        if (this.sortedHashes == null) {
+            this.sortedHashes = Arrays.copyOf(this.heap, this.count);
+            Arrays.sort(this.sortedHashes);
+        }
+        return this.sortedHashes;
+    }
+
+    /**
+     * @return the largest hash up to which the sketch contains every hash of the column
+     */
+    private long getCoveredHash() {
+        // A sketch that is not full contains all hashes of the column
+        return (this.count < this.size) ? Long.MAX_VALUE : this.heap[0];
+    }
+
+    /**
+     * @return the number of distinct values of the column, estimated from the density of the kept hashes
+     */
+    public double estimateDistinctValues() {
+        if (this.count < this.size) return this.count;
+        return (this.size - 1) * ((double) Long.MAX_VALUE / this.heap[0]);
+    }
+
+    /**
+     * Compares the sampled values of this sketch with the values of the referenced sketch. Only hashes that both sketches cover are compared.
+     *
+     * @param referenced the sketch of the referenced column
+     * @return the number of compared values of this sketch and how many of them are missing in the referenced column
+     */
+    public Containment containmentIn(MinHashSketch referenced) {
+        long coveredHash = Math.min(this.getCoveredHash(), referenced.getCoveredHash());
+        long[] dependentHashes = this.getSortedHashes();
+        long[] referencedHashes = referenced.getSortedHashes();
+
+        int sampled = 0;
+        int missing = 0;
+        int referencedIndex = 0;
+        for (long hash : dependentHashes) {
+            if (hash > coveredHash) break;
+            sampled++;
+            while ((referencedIndex < referencedHashes.length) && (referencedHashes[referencedIndex] < hash))
+                referencedIndex++;
+            if ((referencedIndex == referencedHashes.length) || (referencedHashes[referencedIndex] != hash))
+                missing++;
+        }
+        return new Containment(sampled, missing);
+    }
+
+    /**
+     * @param sampled the number of compared values of the dependent sketch
+     * @param missing the number of compared values that are certainly missing in the referenced column
+     */
+    public record Containment(int sampled, int missing) {
+    }
+}
@@ -0,0 +1,28 @@
+package binder.structures;
+
+/**
+ * A discovered pIND. The attributes are the global column indexes of the dependent and referenced side in the order in which they correspond to each other.
+ *
+ * @param dependentTable      the table of the dependent attributes
+ * @param dependent           the dependent attributes
+ * @param referencedTable     the table of the referenced attributes
+ * @param referenced          the referenced attributes
+ * @param violations          the number of dependent values that are not contained in the referenced attributes; an upper bound if the pIND was output before all of its
+ *                            values had been validated
+ * @param exactViolations     whether the violations are the exact number of violations; false if they are an upper bound
+ * @param numDependentValues  the number of dependent values the violations are counted against; -1 if it is unknown
+ */
+public record PartialIND(int dependentTable, int[] dependent, int referencedTable, int[] referenced, long violations, boolean exactViolations, long numDependentValues) {
+
+    public int arity() {
+        return this.dependent.length;
+    }
+
+    /**
+     * @return the share of dependent values that are contained in the referenced attributes
+     */
+    public double coverage() {
+        if (this.numDependentValues <= 0) return (this.violations == 0) ? 1.0 : 0.0;
+        return 1.0 - ((double) this.violations / this.numDependentValues);
+    }
+}
@@ -0,0 +1,162 @@
+package binder.structures;
+
+/**
+ * Exact statistics of the values of one column, kept per bucket: the smallest and the largest value, the shortest and the longest value and the number of distinct
+ * values. Because equal values always fall into the same bucket, the statistics of a dependent and a referenced column can be compared bucket by bucket to find
+ * values that are certainly missing in the referenced column, without reading any bucket.
+ */
+public class PruningStatistics {
+
+    private final String[] minValues;
+    private final String[] maxValues;
+    private final int[] minLengths;
+    private final int[] maxLengths;
+    // A column that was spilled has several blocks per bucket, which may share values; the exact distinct values then lie between these two bounds
+    private final long[] minDistinctValues;
+    private final long[] maxDistinctValues;
+
+    /**
+     * @param numBuckets the number of buckets of the column
+     */
+    public PruningStatistics(int numBuckets) {
+        this.minValues = new String[numBuckets];
+        this.maxValues = new String[numBuckets];
+        this.minLengths = new int[numBuckets];
+        this.maxLengths = new int[numBuckets];
+        this.minDistinctValues = new long[numBuckets];
+        this.maxDistinctValues = new long[numBuckets];
+    }
+
+    /**
+     * Adds the values of a bucket, or of one block of a bucket, that is written to disk.
+     *
+     * @param bucketNumber the number of the bucket
+     * @param bucket       the values of the bucket
+     */
+    public void update(int bucketNumber, ValueCountMap bucket) {
+        if (bucket.isEmpty()) return;
+
+        int min = 0;
+        int max = 0;
+        int minLength = bucket.getValueLength(0);
+        int maxLength = minLength;
+        for (int index = 1; index < bucket.size(); index++) {
+            if (bucket.compare(index, min) < 0) min = index;
+            if (bucket.compare(index, max) > 0) max = index;
+            minLength = Math.min(minLength, bucket.getValueLength(index));
+            maxLength = Math.max(maxLength, bucket.getValueLength(index));
+        }
+
+        String minValue = bucket.getValue(min);
+        String maxValue = bucket.getValue(max);
+        if (this.maxDistinctValues[bucketNumber] == 0) {
+            this.minValues[bucketNumber] = minValue;
+            this.maxValues[bucketNumber] = maxValue;
+            this.minLengths[bucketNumber] = minLength;
+            this.maxLengths[bucketNumber] = maxLength;
+        } else {
+            if (minValue.compareTo(this.minValues[bucketNumber]) < 0) this.minValues[bucketNumber] = minValue;
+            if (maxValue.compareTo(this.maxValues[bucketNumber]) > 0) this.maxValues[bucketNumber] = maxValue;
+            this.minLengths[bucketNumber] = Math.min(this.minLengths[bucketNumber], minLength);
+            this.maxLengths[bucketNumber] = Math.max(this.maxLengths[bucketNumber], maxLength);
+        }
+        this.minDistinctValues[bucketNumber] = Math.max(this.minDistinctValues[bucketNumber], bucket.size());
+        this.maxDistinctValues[bucketNumber] = this.maxDistinctValues[bucketNumber] + bucket.size();
+    }
+
+    /**
+     * @param bucketNumber   the number of the bucket
+     * @param distinctValues the exact number of distinct values of the bucket, if it has been counted on the complete bucket
+     */
+    public void setDistinctValues(int bucketNumber, long distinctValues) {
+        this.minDistinctValues[bucketNumber] = distinctValues;
+        this.maxDistinctValues[bucketNumber] = distinctValues;
+    }
+
+    /**
+     * @return the smallest value of the column; null if the column is empty
+     */
+    public String getMinValue() {
+        String minValue = null;
+        for (int bucketNumber = 0; bucketNumber < this.minValues.length; bucketNumber++)
+            if ((this.maxDistinctValues[bucketNumber] > 0) && ((minValue == null) || (this.minValues[bucketNumber].compareTo(minValue) < 0)))
+                minValue = this.minValues[bucketNumber];
+        return minValue;
+    }
+
+    /**
+     * @return the largest value of the column; null if the column is empty
+     */
+    public String getMaxValue() {
+        String maxValue = null;
+        for (int bucketNumber = 0; bucketNumber < this.maxValues.length; bucketNumber++)
+            if ((this.maxDistinctValues[bucketNumber] > 0) && ((maxValue == null) || (this.maxValues[bucketNumber].compareTo(maxValue) > 0)))
+                maxValue = this.maxValues[bucketNumber];
+        return maxValue;
+    }
+
+    /**
+     * @return the number of UTF-8 bytes of the shortest value of the column; Integer.MAX_VALUE if the column is empty
+     */
+    public int getMinLength() {
+        int minLength = Integer.MAX_VALUE;
+        for (int bucketNumber = 0; bucketNumber < this.minLengths.length; bucketNumber++)
+            if (this.maxDistinctValues[bucketNumber] > 0)
+                minLength = Math.min(minLength, this.minLengths[bucketNumber]);
+        return minLength;
+    }
+
+    /**
+     * @return the number of UTF-8 bytes of the longest value of the column; -1 if the column is empty
+     */
+    public int getMaxLength() {
+        int maxLength = -1;
+        for (int bucketNumber = 0; bucketNumber < this.maxLengths.length; bucketNumber++)
+            if (this.maxDistinctValues[bucketNumber] > 0)
+                maxLength = Math.max(maxLength, this.maxLengths[bucketNumber]);
+        return maxLength;
+    }
+
+    /**
+     * Decides whether the dependent column can still be partially included in the referenced column. Per bucket, the dependent values violate at least
+     * <ul>
+     *     <li>all of them, if the referenced bucket is empty or the value or length ranges of the buckets do not overlap,</li>
+     *     <li>one for its smallest and one for its largest value, if they are outside the value range of the referenced bucket,</li>
+     *     <li>one for its shortest and one for its longest value, if they are outside the length range of the referenced bucket and</li>
+     *     <li>one for every distinct value that the dependent bucket has more than the referenced bucket.</li>
+     * </ul>
+     * Every missing distinct value is at least one violation, so the largest of these bounds is a lower bound of the violations in the bucket.
+     *
+     * @param referenced               the statistics of the referenced column
+     * @param dependentValuesPerBucket the values of each dependent bucket, counted like the violations
+     * @param allowedViolations        the violations that the candidate may have
+     * @return false if the candidate certainly has more violations than allowed
+     */
+    public boolean isValid(PruningStatistics referenced, long[] dependentValuesPerBucket, long allowedViolations) {
+        long minViolations = 0;
+        for (int bucketNumber = 0; bucketNumber < this.maxDistinctValues.length; bucketNumber++) {
+            if (this.maxDistinctValues[bucketNumber] == 0) continue;
+
+            if ((referenced.maxDistinctValues[bucketNumber] == 0)
+                    || (this.maxValues[bucketNumber].compareTo(referenced.minValues[bucketNumber]) < 0)
+                    || (this.minValues[bucketNumber].compareTo(referenced.maxValues[bucketNumber]) > 0)
+                    || (this.maxLengths[bucketNumber] < referenced.minLengths[bucketNumber])
+                    || (this.minLengths[bucketNumber] > referenced.maxLengths[bucketNumber])) {
+                minViolations = minViolations + dependentValuesPerBucket[bucketNumber];
+            } else {
+                int valuesOutOfRange = 0;
+                if (this.minValues[bucketNumber].compareTo(referenced.minValues[bucketNumber]) < 0) valuesOutOfRange++;
+                if (this.maxValues[bucketNumber].compareTo(referenced.maxValues[bucketNumber]) > 0) valuesOutOfRange++;
+
+                int lengthsOutOfRange = 0;
+                if (this.minLengths[bucketNumber] < referenced.minLengths[bucketNumber]) lengthsOutOfRange++;
+                if (this.maxLengths[bucketNumber] > referenced.maxLengths[bucketNumber]) lengthsOutOfRange++;
+
+                long surplusValues = this.minDistinctValues[bucketNumber] - referenced.maxDistinctValues[bucketNumber];
+                minViolations = minViolations + Math.max(surplusValues, Math.max(valuesOutOfRange, lengthsOutOfRange));
+            }
+            if (minViolations > allowedViolations) return false;
+        }
+        return true;
+    }
+}
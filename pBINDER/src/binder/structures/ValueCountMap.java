@@ -0,0 +1,458 @@
+package binder.structures;
+
+import binder.utils.HashUtils;
+import it.unimi.dsi.fastutil.Arrays;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maps the values of a bucket to their number of occurrences. As opposed to a HashMap&lt;String, Long&gt;, the values are stored as UTF-8 bytes in one shared buffer
+ * and the counts in a long array, so that an entry neither needs a String, a boxed Long nor a map node. The entries are found via an open addressing hash table with
+ * linear probing, which only stores the index of each entry. Every entry keeps the 64-bit hash of its value (see {@link HashUtils#hash(String)}), which callers that
+ * already know it pass in and can read back, so that a value is never hashed twice.
+ * <p>
+ * The buffer of the values is obtained from a {@link BufferAllocator} and may therefore reside off-heap. The entries are numbered in the order of their insertion and
+ * can be iterated by their index, i.e. from 0 to {@link #size()} - 1. A map is not thread-safe, but lookups do not modify it: they encode the value that they look for
+ * into a scratch buffer of their thread. Several threads may therefore look up values in a map that is no longer modified.
+ */
+public class ValueCountMap {
+
+    // Bytes that each entry requires in addition to its value: offset, length, hash and count of the entry plus up to two slots of the hash table
+    public static final int BYTES_PER_ENTRY = 4 + 4 + 8 + 8 + 2 * 4;
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int DEFAULT_BYTES_PER_VALUE = 16;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    // The buffer into which the lookups of a thread encode the value that they look for
+    private static final ThreadLocal<ByteBuffer> PROBE_BUFFER = ThreadLocal.withInitial(() -> ByteBuffer.allocate(DEFAULT_CAPACITY * DEFAULT_BYTES_PER_VALUE));
+
+    private final BufferAllocator allocator;
+    private ByteBuffer values;
+    private int valueBytes = 0;
+
+    private int[] offsets;
+    private int[] lengths;
+    private long[] hashes;
+    private long[] counts;
+    private int size = 0;
+
+    // Each slot holds the index of an entry plus one, so that zero marks an empty slot
+    private int[] slots;
+    private int mask;
+
+    public ValueCountMap() {
+        this(BufferAllocator.HEAP);
+    }
+
+    /**
+     * @param allocator the allocator that provides the buffer of the values
+     */
+    public ValueCountMap(BufferAllocator allocator) {
+        this.allocator = allocator;
+        this.values = allocator.allocate(DEFAULT_CAPACITY * DEFAULT_BYTES_PER_VALUE);
+        this.initializeEntries();
+    }
+
+    private void initializeEntries() {
+        this.offsets = new int[DEFAULT_CAPACITY];
+        this.lengths = new int[DEFAULT_CAPACITY];
+        this.hashes = new long[DEFAULT_CAPACITY];
+        this.counts = new long[DEFAULT_CAPACITY];
+        this.slots = new int[2 * DEFAULT_CAPACITY];
+        this.mask = this.slots.length - 1;
+        this.size = 0;
+        this.valueBytes = 0;
+    }
+
+    /**
+     * Adds the given number of occurrences to the count of the value.
+     *
+     * @param value the value to add
+     * @param count the number of occurrences of the value
+     * @return true if the value was not contained in the map before
+     */
+    public boolean add(String value, long count) {
+        return this.add(value, HashUtils.hash(value), count);
+    }
+
+    /**
+     * Adds the given number of occurrences to the count of the value, whose hash is known already.
+     *
+     * @param value the value to add
+     * @param hash  the hash of the value as computed by {@link HashUtils#hash(String)}
+     * @param count the number of occurrences of the value
+     * @return true if the value was not contained in the map before
+     */
+    public boolean add(String value, long hash, long count) {
+        int size = this.size;
+        return this.addAndGetIndex(value, hash, count) == size;
+    }
+
+    /**
+     * Adds the given number of occurrences to the count of the value. New values get the next free index, so the indexes of a map that is never sorted enumerate
+     * its values densely in the order of their first occurrence.
+     *
+     * @param value the value to add
+     * @param count the number of occurrences of the value
+     * @return the index of the value's entry in this map
+     */
+    public int addAndGetIndex(String value, long count) {
+        return this.addAndGetIndex(value, HashUtils.hash(value), count);
+    }
+
+    /**
+     * Like {@link #addAndGetIndex(String, long)} for a value whose hash is known already.
+     *
+     * @param value the value to add
+     * @param hash  the hash of the value as computed by {@link HashUtils#hash(String)}
+     * @param count the number of occurrences of the value
+     * @return the index of the value's entry in this map
+     */
+    public int addAndGetIndex(String value, long hash, long count) {
+        // The value is encoded behind the used bytes and only kept there if it is a new entry
+        this.ensureValueCapacity((long) this.valueBytes + 3L * value.length());
+        int length = encode(value, this.values, this.valueBytes);
+
+        int slot = this.find(this.values, this.valueBytes, length, hash);
+        if (this.slots[slot] != 0) {
+            int entry = this.slots[slot] - 1;
+            this.counts[entry] = this.counts[entry] + count;
+            return entry;
+        }
+
+        this.insert(slot, length, hash, count);
+        return this.size - 1;
+    }
+
+    /**
+     * Adds the value of an entry of another map, whose UTF-8 bytes and hash are copied without decoding the value.
+     *
+     * @param source      the map that contains the value
+     * @param sourceIndex the index of the value's entry in the source map
+     * @param count       the number of occurrences of the value
+     * @return the index of the value's entry in this map
+     */
+    public int add(ValueCountMap source, int sourceIndex, long count) {
+        int offset = source.offsets[sourceIndex];
+        int length = source.lengths[sourceIndex];
+        long hash = source.hashes[sourceIndex];
+
+        int slot = this.find(source.values, offset, length, hash);
+        if (this.slots[slot] != 0) {
+            int entry = this.slots[slot] - 1;
+            this.counts[entry] = this.counts[entry] + count;
+            return entry;
+        }
+
+        this.ensureValueCapacity((long) this.valueBytes + length);
+        this.values.put(this.valueBytes, source.values, offset, length);
+        this.insert(slot, length, hash, count);
+        return this.size - 1;
+    }
+
+    /**
+     * @param value the value to look for
+     * @return the index of the value's entry or -1 if the map does not contain the value
+     */
+    public int indexOf(String value) {
+        return this.indexOf(value, HashUtils.hash(value));
+    }
+
+    /**
+     * @param value the value to look for
+     * @param hash  the hash of the value as computed by {@link HashUtils#hash(String)}
+     * @return the index of the value's entry or -1 if the map does not contain the value
+     */
+    public int indexOf(String value, long hash) {
+        ByteBuffer probe = getProbeBuffer(value.length());
+        int length = encode(value, probe, 0);
+        return this.slots[this.find(probe, 0, length, hash)] - 1;
+    }
+
+    /**
+     * Looks up the value of an entry of another map by its UTF-8 bytes and its hash, i.e. without decoding the value.
+     *
+     * @param source      the map that contains the value
+     * @param sourceIndex the index of the value's entry in the source map
+     * @return the index of the value's entry in this map or -1 if this map does not contain the value
+     */
+    public int indexOf(ValueCountMap source, int sourceIndex) {
+        return this.slots[this.find(source.values, source.offsets[sourceIndex], source.lengths[sourceIndex], source.hashes[sourceIndex])] - 1;
+    }
+
+    public boolean contains(String value) {
+        return this.indexOf(value) >= 0;
+    }
+
+    /**
+     * @param value the value to look for
+     * @return the number of occurrences of the value; 0 if the map does not contain the value
+     */
+    public long get(String value) {
+        int entry = this.indexOf(value);
+        return (entry < 0) ? 0L : this.counts[entry];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public String getValue(int index) {
+        int offset = this.offsets[index];
+        int length = this.lengths[index];
+        if (this.values.hasArray())
+            return new String(this.values.array(), this.values.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+
+        byte[] value = new byte[length];
+        this.values.get(offset, value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param index the index of an entry
+     * @return a read-only view on the UTF-8 bytes of the entry's value
+     */
+    public ByteBuffer getValueBytes(int index) {
+        return this.values.slice(this.offsets[index], this.lengths[index]).asReadOnlyBuffer();
+    }
+
+    public int getValueLength(int index) {
+        return this.lengths[index];
+    }
+
+    public long getCount(int index) {
+        return this.counts[index];
+    }
+
+    /**
+     * @param index the index of an entry
+     * @return the hash of the entry's value as computed by {@link HashUtils#hash(String)}
+     */
+    public long getHash(int index) {
+        return this.hashes[index];
+    }
+
+    /**
+     * @return the number of bytes that the buffer and the arrays of this map occupy
+     */
+    public long sizeInBytes() {
+        return this.values.capacity() + 4L * (this.offsets.length + this.lengths.length + this.slots.length) + 8L * (this.hashes.length + this.counts.length);
+    }
+
+    /**
+     * Removes all entries and gives the memory of the map back, e.g. after its entries have been spilled to disk. The buffer of the values is returned to the allocator,
+     * which can hand it out again to other maps.
+     */
+    public void clear() {
+        this.allocator.free(this.values);
+        this.values = this.allocator.allocate(DEFAULT_CAPACITY * DEFAULT_BYTES_PER_VALUE);
+        this.initializeEntries();
+    }
+
+    /**
+     * Returns the buffer of the values to the allocator. The map must not be used afterwards.
+     */
+    public void release() {
+        this.allocator.free(this.values);
+        this.values = null;
+    }
+
+    /**
+     * @param a the index of an entry
+     * @param b the index of another entry
+     * @return the order of the entries' values, which is the order of {@link String#compareTo(String)}
+     */
+    public int compare(int a, int b) {
+        return compare(this.values, this.offsets[a], this.lengths[a], this.values, this.offsets[b], this.lengths[b]);
+    }
+
+    /**
+     * Reorders the entries, so that iterating them by index returns the values in the natural order of their Strings.
+     */
+    public void sort() {
+        Arrays.quickSort(0, this.size, (a, b) -> compare(this.values, this.offsets[a], this.lengths[a], this.values, this.offsets[b], this.lengths[b]), (a, b) -> {
+            swap(this.offsets, a, b);
+            swap(this.lengths, a, b);
+            swap(this.hashes, a, b);
+            swap(this.counts, a, b);
+        });
+        this.rehash(this.slots.length);
+    }
+
+    /**
+     * Compares two UTF-8 encoded values in the same order as {@link String#compareTo(String)} compares the decoded values.
+     */
+    static int compare(ByteBuffer a, int aOffset, int aLength, ByteBuffer b, int bOffset, int bLength) {
+        int mismatch = mismatch(a, aOffset, b, bOffset, Math.min(aLength, bLength));
+        if (mismatch < 0) return aLength - bLength;
+
+        int x = a.get(aOffset + mismatch) & 0xFF;
+        int y = b.get(bOffset + mismatch) & 0xFF;
+        // Strings are compared by UTF-16 chars, in which supplementary characters (four UTF-8 bytes starting with 0xF0 to 0xF4) are surrogates and therefore smaller than
+        // the characters from U+E000 to U+FFFF (three UTF-8 bytes starting with 0xEE or 0xEF); all other characters have the same order in both encodings
+        if ((x >= 0xEE) && (y >= 0xEE) && ((x >= 0xF0) != (y >= 0xF0))) return (x >= 0xF0) ? -1 : 1;
+        return x - y;
+    }
+
+    /**
+     * Finds the first byte at which two ranges of the same length differ, without allocating views on the buffers. Heap buffers are compared with
+     * {@link java.util.Arrays#mismatch(byte[], int, int, byte[], int, int)}, other buffers eight bytes at a time.
+     *
+     * @return the position of the first differing byte relative to the offsets or -1 if the ranges are equal
+     */
+    private static int mismatch(ByteBuffer a, int aOffset, ByteBuffer b, int bOffset, int length) {
+        if (a.hasArray() && b.hasArray()) {
+            int aStart = a.arrayOffset() + aOffset;
+            int bStart = b.arrayOffset() + bOffset;
+            return java.util.Arrays.mismatch(a.array(), aStart, aStart + length, b.array(), bStart, bStart + length);
+        }
+
+        int i = 0;
+        while ((i + Long.BYTES <= length) && (a.getLong(aOffset + i) == b.getLong(bOffset + i)))
+            i = i + Long.BYTES;
+        for (; i < length; i++)
+            if (a.get(aOffset + i) != b.get(bOffset + i)) return i;
+        return -1;
+    }
+
+    /**
+     * Writes the value as UTF-8 into the given buffer, which must have room for three bytes per char behind the position. Unpaired surrogates are replaced by '?' like
+     * {@link String#getBytes}.
+     *
+     * @return the number of bytes of the encoded value
+     */
+    private static int encode(String value, ByteBuffer values, int start) {
+        int numChars = value.length();
+        int position = start;
+        for (int i = 0; i < numChars; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                values.put(position++, (byte) c);
+            } else if (c < 0x800) {
+                values.put(position++, (byte) (0xC0 | (c >> 6)));
+                values.put(position++, (byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && (i + 1 < numChars) && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    // A surrogate pair takes four bytes, which fit into the six bytes reserved for its two chars
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    values.put(position++, (byte) (0xF0 | (codePoint >> 18)));
+                    values.put(position++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                    values.put(position++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                    values.put(position++, (byte) (0x80 | (codePoint & 0x3F)));
+                } else {
+                    values.put(position++, (byte) '?');
+                }
+            } else {
+                values.put(position++, (byte) (0xE0 | (c >> 12)));
+                values.put(position++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+                values.put(position++, (byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return position - start;
+    }
+
+    /**
+     * @param numChars the number of chars of the value to look for
+     * @return the probe buffer of the current thread, enlarged to hold the encoded value if necessary
+     */
+    private static ByteBuffer getProbeBuffer(int numChars) {
+        ByteBuffer probe = PROBE_BUFFER.get();
+        long capacity = 3L * numChars;
+        if (capacity <= probe.capacity()) return probe;
+        if (capacity > MAX_ARRAY_SIZE) throw new IllegalArgumentException("The value exceeds the maximum buffer size");
+
+        probe = ByteBuffer.allocate((int) Math.min(MAX_ARRAY_SIZE, Math.max(capacity, 2L * probe.capacity())));
+        PROBE_BUFFER.set(probe);
+        return probe;
+    }
+
+    /**
+     * @return the slot of the entry with the given value or the empty slot at which the value would be inserted
+     */
+    private int find(ByteBuffer bytes, int offset, int length, long hash) {
+        int slot = slotOf(hash, this.mask);
+        while (this.slots[slot] != 0) {
+            int entry = this.slots[slot] - 1;
+            if ((this.hashes[entry] == hash) && (this.lengths[entry] == length) && equals(this.values, this.offsets[entry], bytes, offset, length))
+                return slot;
+            slot = (slot + 1) & this.mask;
+        }
+        return slot;
+    }
+
+    private static boolean equals(ByteBuffer a, int aOffset, ByteBuffer b, int bOffset, int length) {
+        return mismatch(a, aOffset, b, bOffset, length) < 0;
+    }
+
+    /**
+     * Adds a new entry for the value that has been written behind the used bytes.
+     */
+    private void insert(int slot, int length, long hash, long count) {
+        if (this.size == this.offsets.length) this.growEntries();
+        this.offsets[this.size] = this.valueBytes;
+        this.lengths[this.size] = length;
+        this.hashes[this.size] = hash;
+        this.counts[this.size] = count;
+        this.slots[slot] = ++this.size;
+        this.valueBytes = this.valueBytes + length;
+
+        // Keep the load factor of the hash table at or below one half
+        if (2 * this.size > this.slots.length) this.rehash(2 * this.slots.length);
+    }
+
+    /**
+     * The lowest bits of a hash decide the bucket and the sub bucket of a value, so all values of one map share them; the slot is therefore taken from the highest bits.
+     */
+    private static int slotOf(long hash, int mask) {
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private void ensureValueCapacity(long capacity) {
+        if (capacity <= this.values.capacity()) return;
+        if (capacity > MAX_ARRAY_SIZE) throw new IllegalStateException("The values of a bucket exceed the maximum buffer size");
+
+        ByteBuffer values = this.allocator.allocate((int) Math.min(MAX_ARRAY_SIZE, Math.max(capacity, 2L * this.values.capacity())));
+        values.put(0, this.values, 0, this.valueBytes);
+        this.allocator.free(this.values);
+        this.values = values;
+    }
+
+    private void growEntries() {
+        int capacity = (int) Math.min(MAX_ARRAY_SIZE, 2L * this.offsets.length);
+        this.offsets = java.util.Arrays.copyOf(this.offsets, capacity);
+        this.lengths = java.util.Arrays.copyOf(this.lengths, capacity);
+        this.hashes = java.util.Arrays.copyOf(this.hashes, capacity);
+        this.counts = java.util.Arrays.copyOf(this.counts, capacity);
+    }
+
+    private void rehash(int tableSize) {
+        int[] slots = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int entry = 0; entry < this.size; entry++) {
+            int slot = slotOf(this.hashes[entry], mask);
+            while (slots[slot] != 0)
+                slot = (slot + 1) & mask;
+            slots[slot] = entry + 1;
+        }
+        this.slots = slots;
+        this.mask = mask;
+    }
+
+    private static void swap(int[] array, int a, int b) {
+        int value = array[a];
+        array[a] = array[b];
+        array[b] = value;
+    }
+
+    private static void swap(long[] array, int a, int b) {
+        long value = array[a];
+        array[a] = array[b];
+        array[b] = value;
+    }
+}
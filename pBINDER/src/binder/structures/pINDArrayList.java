@@ -0,0 +1,178 @@
+package binder.structures;
+
+import it.unimi.dsi.fastutil.ints.IntList;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The pIND candidates of one dependent attribute. The referenced attributes and their violations left are stored in two parallel arrays instead of one object per
+ * candidate, and removing a candidate moves the last candidate into its place. The order of the candidates is therefore not stable under removal.
+ */
+public class pINDArrayList {
+
+    private static final VarHandle VIOLATIONS_LEFT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int except;
+    private final long initialViolations;
+    private IntList seed;
+    private int[] referenced = null;
+    private long[] violationsLeft = null;
+    private int size = 0;
+
+    /**
+     * @param initialViolations the violations left of every candidate
+     * @param seed              the referenced attributes of the candidates; the list is only read once the candidates are accessed for the first time
+     * @param except            an attribute of the seed that is not a referenced attribute, usually the dependent attribute itself
+     */
+    public pINDArrayList(long initialViolations, IntList seed, int except) {
+        this.seed = seed;
+        this.except = except;
+        this.initialViolations = initialViolations;
+    }
+
+    /**
+     * Creates an empty list, to which candidates are added one by one.
+     *
+     * @param initialViolations the violations every candidate was allowed to have initially
+     */
+    public pINDArrayList(long initialViolations) {
+        this.seed = null;
+        this.except = -1;
+        this.initialViolations = initialViolations;
+        this.referenced = new int[4];
+        this.violationsLeft = new long[4];
+    }
+
+    private void initialize() {
+        if (this.seed != null) {
+            this.referenced = new int[this.seed.size()];
+            for (int index = 0; index < this.seed.size(); index++) {
+                int value = this.seed.getInt(index);
+                if (value != this.except)
+                    this.referenced[this.size++] = value;
+            }
+            this.violationsLeft = new long[this.size];
+            Arrays.fill(this.violationsLeft, this.initialViolations);
+            this.seed = null;
+        }
+    }
+
+    public boolean isEmpty() {
+        this.initialize();
+
+        return this.size == 0;
+    }
+
+    /**
+     * @return the violations every candidate was allowed to have initially
+     */
+    public long getInitialViolations() {
+        return this.initialViolations;
+    }
+
+    public int size() {
+        this.initialize();
+
+        return this.size;
+    }
+
+    /**
+     * @param referenced     the referenced attribute of the new candidate
+     * @param violationsLeft the violations left of the new candidate
+     */
+    public void add(int referenced, long violationsLeft) {
+        this.initialize();
+
+        if (this.size == this.referenced.length) {
+            int capacity = Math.max(4, this.size * 2);
+            this.referenced = Arrays.copyOf(this.referenced, capacity);
+            this.violationsLeft = Arrays.copyOf(this.violationsLeft, capacity);
+        }
+        this.referenced[this.size] = referenced;
+        this.violationsLeft[this.size] = violationsLeft;
+        this.size++;
+    }
+
+    /**
+     * Manipulates the given BitSet by setting all bits to one where there exists an element with value == index of bit.
+     *
+     * @param bitSet A BitSet into which the present values should be encoded. If the bitSet is smaller than the largest
+     *               value or negative, an IndexOutOfBounce exception will be thrown
+     */
+    public void setOwnValuesIn(BitSet bitSet) {
+        this.initialize();
+
+        for (int index = 0; index < this.size; index++)
+            bitSet.set(this.referenced[index]);
+    }
+
+    public pINDIterator elementIterator() {
+        this.initialize();
+
+        return new pINDIterator();
+    }
+
+    /**
+     * A view on the candidate at the current position of a {@link pINDIterator}. The iterator returns the same view for every candidate.
+     */
+    public class pINDElement {
+
+        private int index = -1;
+
+        public int getReferenced() {
+            return referenced[this.index];
+        }
+
+        public long getViolationsLeft() {
+            return violationsLeft[this.index];
+        }
+
+        /**
+         * @param violations the number of violations to subtract
+         * @return the violations left after the subtraction
+         */
+        public long decreaseViolationsLeft(long violations) {
+            violationsLeft[this.index] = violationsLeft[this.index] - violations;
+            return violationsLeft[this.index];
+        }
+
+        /**
+         * Decreases the violations left atomically, so that several threads can validate the same candidate at once.
+         *
+         * @param violations the number of violations to subtract
+         * @return the violations left after the subtraction
+         */
+        public long decreaseViolationsLeftAtomically(long violations) {
+            return (long) VIOLATIONS_LEFT.getAndAdd(violationsLeft, this.index, -violations) - violations;
+        }
+    }
+
+    public class pINDIterator {
+
+        private final pINDElement current = new pINDElement();
+
+        public boolean hasNext() {
+            return this.current.index + 1 < size;
+        }
+
+        public pINDElement next() {
+            this.current.index++;
+            assert this.current.index < size;
+            return this.current;
+        }
+
+        /**
+         * Removes the current candidate by moving the last candidate into its place, which is then returned by the next call of next().
+         */
+        public void remove() {
+            int last = size - 1;
+            referenced[this.current.index] = referenced[last];
+            violationsLeft[this.current.index] = violationsLeft[last];
+            size = last;
+            this.current.index--;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package binder.utils;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+public class ConcurrencyUtils {
+
+    /**
+     * Waits for the result of a task and rethrows its IOException, so that the caller can handle failures of worker threads like its own.
+     *
+     * @param future the task to wait for
+     * @return the result of the task
+     * @throws IOException if the task failed or the waiting thread was interrupted
+     */
+    public static <T> T await(Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a worker thread", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException)
+                throw ioException;
+            throw new IOException("A worker thread failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package binder.utils;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * The hash of a value is computed once when the value is read from its table. It decides the bucket and the sub bucket of the value, is stored next to the value in
+ * the maps and the files of the buckets, and is probed against indexes and filters during the validation, so no later phase needs to hash the value again.
+ */
+public class HashUtils {
+
+    private static final long C1 = 0x87C37B91114253D5L;
+    private static final long C2 = 0x4CF5AD432745937FL;
+
+    /**
+     * A 64-bit hash in the style of MurmurHash3, which reads four chars of the value per step. All bits of the hash are well mixed, so that any range of them can be
+     * used as a bucket number, a slot or a bit position. The value is hashed by its chars, but an unpaired surrogate is hashed as '?', because the UTF-8 encoding of the
+     * value replaces it by '?' as well (see {@link String#getBytes}). Values with the same UTF-8 bytes, which the buckets store, therefore have the same hash.
+     *
+     * @param value a value
+     * @return the 64-bit hash of the value
+     */
+    public static long hash(String value) {
+        int length = value.length();
+        long hash = length;
+
+        int i = 0;
+        for (; i + 4 <= length; i = i + 4) {
+            long k = charAt(value, i, length) | (charAt(value, i + 1, length) << 16) | (charAt(value, i + 2, length) << 32) | (charAt(value, i + 3, length) << 48);
+            hash = hash ^ mixK(k);
+            hash = Long.rotateLeft(hash, 27) * 5 + 0x52DCE729;
+        }
+
+        if (i < length) {
+            long k = 0;
+            for (int shift = 0; i < length; i++, shift = shift + 16)
+                k = k | (charAt(value, i, length) << shift);
+            hash = hash ^ mixK(k);
+        }
+        return HashCommon.murmurHash3(hash ^ length);
+    }
+
+    /**
+     * @return the char at the index or '?' if it is a surrogate that does not belong to a surrogate pair
+     */
+    private static long charAt(String value, int index, int length) {
+        char c = value.charAt(index);
+        if (!Character.isSurrogate(c)) return c;
+
+        boolean paired = Character.isHighSurrogate(c)
+                ? (index + 1 < length) && Character.isLowSurrogate(value.charAt(index + 1))
+                : (index > 0) && Character.isHighSurrogate(value.charAt(index - 1));
+        return paired ? c : '?';
+    }
+
+    private static long mixK(long k) {
+        k = k * C1;
+        k = Long.rotateLeft(k, 31);
+        return k * C2;
+    }
+}
@@ -0,0 +1,463 @@
+package binder.core;
+
+import binder.io.DefaultFileInputGenerator;
+import binder.io.ResultSink;
+import binder.io.SyntheticDataGenerator;
+import binder.runner.Config;
+import binder.structures.PartialIND;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the complete algorithm on small datasets. Every pIND is reported as "dependent columns<=referenced columns:violations" with the columns named
+ * "relation.column"; violations that are only an upper bound are prefixed with "~".
+ */
+class BINDERTest {
+
+    // The buckets of the synthetic dataset exceed this memory limit many times, so they are spilled and refined
+    private static final long SPILLING_MEMORY = 1L << 17;
+
+    // The pINDs of the n-ary dataset
+    private static final Set<String> NARY_INDS = Set.of("r1.a<=r2.x:0", "r1.b<=r2.y:0", "r2.y<=r1.b:0", "r1.c<=r2.z:0", "r2.z<=r1.c:0", "r1.d<=r2.x:0", "r1.d<=r2.u:0",
+            "r1.a,r1.b<=r2.x,r2.y:0", "r1.a,r1.c<=r2.x,r2.z:0", "r1.a,r1.d<=r2.x,r2.u:0", "r1.b,r1.c<=r2.y,r2.z:0", "r1.b,r1.d<=r2.y,r2.u:0",
+            "r1.c,r1.d<=r2.z,r2.u:0", "r1.a,r1.b,r1.c<=r2.x,r2.y,r2.z:0", "r1.a,r1.b,r1.d<=r2.x,r2.y,r2.u:0", "r1.a,r1.c,r1.d<=r2.x,r2.z,r2.u:0",
+            "r1.b,r1.c,r1.d<=r2.y,r2.z,r2.u:0");
+
+    @TempDir
+    File tempFolder;
+
+    /**
+     * Writes two relations r1(a, b, c) and r2(x, y) with ten rows each: a = x = 1..10, b = 1..9 and 99, c = "x" and y = 1..5, each twice.
+     */
+    private Config writeTestDataset(double threshold) throws IOException {
+        Config config = this.createConfig(Config.Dataset.TEST, threshold);
+        config.datasetName = "test";
+        config.relationNames = new String[]{"r1", "r2"};
+
+        File datasetFolder = new File(this.tempFolder, config.datasetName);
+        datasetFolder.mkdirs();
+
+        StringBuilder r1 = new StringBuilder("a,b,c\n");
+        for (int row = 1; row <= 10; row++)
+            r1.append(row).append(',').append((row < 10) ? row : 99).append(",x\n");
+        Files.writeString(new File(datasetFolder, "r1.csv").toPath(), r1, StandardCharsets.UTF_8);
+
+        StringBuilder r2 = new StringBuilder("x,y\n");
+        for (int row = 1; row <= 10; row++)
+            r2.append(row).append(',').append((row + 1) / 2).append('\n');
+        Files.writeString(new File(datasetFolder, "r2.csv").toPath(), r2, StandardCharsets.UTF_8);
+        return config;
+    }
+
+    /**
+     * Generates three relations of 2000 rows and eight columns with six planted unary and two planted binary INDs, half of them exact and half of them partial, and some
+     * null values.
+     */
+    private Config createSyntheticDataset() throws IOException {
+        Config config = this.createConfig(Config.Dataset.SYNTHETIC, 0.9);
+        config.syntheticTables = 3;
+        config.syntheticRows = 2000;
+        config.syntheticColumns = 8;
+        config.syntheticUnaryINDs = 6;
+        config.syntheticNullRatio = 0.05;
+        SyntheticDataGenerator.generate(config);
+        return config;
+    }
+
+    /**
+     * Writes two relations r1(a, b, c, d) and r2(x, y, z, u), whose rows i are (k<i>, v<i mod 5>, w<i mod 3>, k<i + 1>), with i = 1..6 in r1 and i = 1..10 in r2. Every
+     * combination of the columns of r1 is therefore included in the corresponding columns of r2.
+     */
+    private Config writeNaryDataset() throws IOException {
+        Config config = this.createConfig(Config.Dataset.TEST, 1.0);
+        config.datasetName = "nary";
+        config.relationNames = new String[]{"r1", "r2"};
+
+        File datasetFolder = new File(this.tempFolder, config.datasetName);
+        datasetFolder.mkdirs();
+        Files.writeString(new File(datasetFolder, "r1.csv").toPath(), naryRows("a,b,c,d", 6), StandardCharsets.UTF_8);
+        Files.writeString(new File(datasetFolder, "r2.csv").toPath(), naryRows("x,y,z,u", 10), StandardCharsets.UTF_8);
+        return config;
+    }
+
+    /**
+     * Writes two relations r1(a, b, c) and r2(x, y) with columns of more than a megabyte next to small columns: a = 0..19999 and c = 3000..22999 in r1 and
+     * x = 0..21999 in r2 are large, whereas b = i mod 100 and y = i mod 10 are small. Every value is prefixed with "value".
+     */
+    private Config writeLargeColumnsDataset() throws IOException {
+        Config config = this.createConfig(Config.Dataset.TEST, 0.9);
+        config.datasetName = "large";
+        config.relationNames = new String[]{"r1", "r2"};
+
+        StringBuilder r1 = new StringBuilder("a,b,c\n");
+        for (int i = 0; i < 20000; i++)
+            r1.append("value").append(i).append(",value").append(i % 100).append(",value").append(i + 3000).append('\n');
+        StringBuilder r2 = new StringBuilder("x,y\n");
+        for (int i = 0; i < 22000; i++)
+            r2.append("value").append(i).append(",value").append(i % 10).append('\n');
+
+        File datasetFolder = new File(this.tempFolder, config.datasetName);
+        datasetFolder.mkdirs();
+        Files.writeString(new File(datasetFolder, "r1.csv").toPath(), r1, StandardCharsets.UTF_8);
+        Files.writeString(new File(datasetFolder, "r2.csv").toPath(), r2, StandardCharsets.UTF_8);
+        return config;
+    }
+
+    private static String naryRows(String header, int numRows) {
+        StringBuilder rows = new StringBuilder(header).append('\n');
+        for (int i = 1; i <= numRows; i++)
+            rows.append('k').append(i).append(",v").append(i % 5).append(",w").append(i % 3).append(",k").append(i + 1).append('\n');
+        return rows.toString();
+    }
+
+    private Config createConfig(Config.Dataset dataset, double threshold) {
+        Config config = new Config(dataset, threshold, Config.NullHandling.SUBSET, Config.DuplicateHandling.AWARE);
+        config.datasetFolder = this.tempFolder.getPath() + File.separator;
+        config.tempFolder = new File(this.tempFolder, "temp").getPath();
+        config.resultFolder = new File(this.tempFolder, "results").getPath();
+        config.writeResults = false;
+        return config;
+    }
+
+    /**
+     * @param config  the configuration of the dataset
+     * @param options sets further options of the algorithm before it is executed
+     * @return the pINDs found by the algorithm
+     */
+    private Set<String> run(Config config, Consumer<BINDERFile> options) throws IOException {
+        DefaultFileInputGenerator[] fileInputGenerators = new DefaultFileInputGenerator[config.relationNames.length];
+        for (int tableId = 0; tableId < config.relationNames.length; tableId++)
+            fileInputGenerators[tableId] = new DefaultFileInputGenerator(config, tableId);
+
+        BINDERFile binder = new BINDERFile();
+        binder.setRelationalInputConfigurationValue2(BINDERFile.Identifier.INPUT_FILES.name(), fileInputGenerators);
+        binder.setStringConfigurationValue(BINDERFile.Identifier.TEMP_FOLDER_PATH.name(), config.tempFolder);
+        binder.setBooleanConfigurationValue(BINDERFile.Identifier.CLEAN_TEMP.name(), true);
+        binder.setBooleanConfigurationValue(BINDERFile.Identifier.DETECT_NARY.name(), false);
+        binder.setConfig(config);
+        options.accept(binder);
+
+        Set<String> pINDs = new TreeSet<>();
+        binder.resultSink = new ResultSink() {
+            private String[] relationNames;
+            private List<String> columnNames;
+
+            @Override
+            public void open(String[] relationNames, List<String> columnNames) {
+                this.relationNames = relationNames;
+                this.columnNames = columnNames;
+            }
+
+            @Override
+            public void receive(PartialIND pIND) {
+                pINDs.add(this.toString(pIND.dependentTable(), pIND.dependent()) + "<=" + this.toString(pIND.referencedTable(), pIND.referenced()) + ":" + (pIND.exactViolations() ? "" : "~") + pIND.violations());
+            }
+
+            private String toString(int table, int[] attributes) {
+                StringBuilder columns = new StringBuilder();
+                for (int attribute : attributes) {
+                    if (columns.length() > 0) columns.append(',');
+                    columns.append(this.relationNames[table]).append('.').append(this.columnNames.get(attribute));
+                }
+                return columns.toString();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        binder.execute();
+        return pINDs;
+    }
+
+    @Test
+    void findsExactInds() throws IOException {
+        assertEquals(Set.of("r1.a<=r2.x:0", "r2.x<=r1.a:0", "r2.y<=r1.a:0", "r2.y<=r1.b:0", "r2.y<=r2.x:0"), this.run(this.writeTestDataset(1.0), binder -> {
+        }));
+    }
+
+    @Test
+    void findsPartialInds() throws IOException {
+        // Every column has ten values, so every candidate may have one violation
+        assertEquals(Set.of("r1.a<=r1.b:1", "r1.a<=r2.x:0", "r1.b<=r1.a:1", "r1.b<=r2.x:1", "r2.x<=r1.a:0", "r2.x<=r1.b:1", "r2.y<=r1.a:0", "r2.y<=r1.b:0",
+                "r2.y<=r2.x:0"), this.run(this.writeTestDataset(0.85), binder -> {
+        }));
+    }
+
+    @Test
+    void findsPartialIndsOfDistinctValues() throws IOException {
+        // The violation budget is counted in distinct values, so the duplicates of y leave it no violation, while a, b and x may still have one
+        assertEquals(Set.of("r1.a<=r1.b:1", "r1.a<=r2.x:0", "r1.b<=r1.a:1", "r1.b<=r2.x:1", "r2.x<=r1.a:0", "r2.x<=r1.b:1", "r2.y<=r1.a:0", "r2.y<=r1.b:0",
+                "r2.y<=r2.x:0"), this.run(this.writeTestDataset(0.85), binder -> binder.config.duplicateHandling = Config.DuplicateHandling.UNAWARE));
+    }
+
+    /**
+     * Runs the algorithm on the synthetic dataset once with the default options and once with the given options, which must not change the result.
+     */
+    private void assertSameIndsAsDefault(Consumer<BINDERFile> options) throws IOException {
+        this.assertSameIndsAsDefault(binder -> {
+        }, options);
+    }
+
+    /**
+     * Runs the algorithm on the synthetic dataset once with the given defaults and once with the defaults and the given options, which must not change the result.
+     *
+     * @return the pINDs of both runs
+     */
+    private Set<String> assertSameIndsAsDefault(Consumer<BINDERFile> defaults, Consumer<BINDERFile> options) throws IOException {
+        Config config = this.createSyntheticDataset();
+        Set<String> expected = this.run(config, defaults);
+        assertTrue(expected.size() >= config.syntheticUnaryINDs, expected::toString);
+
+        assertEquals(expected, this.run(config, defaults.andThen(options)));
+        return expected;
+    }
+
+    @Test
+    void bucketizesTablesConcurrently() throws IOException {
+        this.assertSameIndsAsDefault(binder -> binder.config.numBucketingThreads = 3);
+    }
+
+    @Test
+    void writesTextBuckets() throws IOException {
+        this.assertSameIndsAsDefault(binder -> binder.config.bucketFormat = Config.BucketFormat.TEXT);
+    }
+
+    @Test
+    void mergesSortedRuns() throws IOException {
+        this.assertSameIndsAsDefault(binder -> binder.config.validationStrategy = Config.ValidationStrategy.MERGE);
+    }
+
+    @Test
+    void mergesSortedTextRuns() throws IOException {
+        this.assertSameIndsAsDefault(binder -> {
+            binder.config.validationStrategy = Config.ValidationStrategy.MERGE;
+            binder.config.bucketFormat = Config.BucketFormat.TEXT;
+        });
+    }
+
+    @ParameterizedTest
+    @EnumSource(Config.ValidationStrategy.class)
+    void validatesBucketLevelsConcurrently(Config.ValidationStrategy validationStrategy) throws IOException {
+        this.assertSameIndsAsDefault(binder -> {
+            binder.config.validationStrategy = validationStrategy;
+            binder.config.numValidationThreads = 4;
+        });
+    }
+
+    @Test
+    void validatesDictionaryEncodedLevels() throws IOException {
+        this.assertSameIndsAsDefault(binder -> binder.config.validationStrategy = Config.ValidationStrategy.DICTIONARY);
+    }
+
+    /**
+     * Runs the algorithm on the synthetic dataset with a memory limit that forces the buckets to be spilled and refined.
+     */
+    private void assertSameIndsWhenSpilling(Consumer<BINDERFile> options) throws IOException {
+        BINDERFile[] spillingBinder = new BINDERFile[1];
+        this.assertSameIndsAsDefault(binder -> {
+            binder.maxMemoryUsage = SPILLING_MEMORY;
+            binder.memoryCheckFrequency = 100;
+            options.accept(binder);
+            spillingBinder[0] = binder;
+        });
+
+        assertTrue(Arrays.stream(spillingBinder[0].spillCounts).sum() > 0, "The buckets were not spilled");
+        assertTrue(Arrays.stream(spillingBinder[0].refinements).sum() > 0, "The bucket levels were not refined");
+    }
+
+    @ParameterizedTest
+    @EnumSource(Config.ValidationStrategy.class)
+    void spillsAndRefinesBuckets(Config.ValidationStrategy validationStrategy) throws IOException {
+        this.assertSameIndsWhenSpilling(binder -> binder.config.validationStrategy = validationStrategy);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Config.ValidationStrategy.class)
+    void spillsAndRefinesBucketsConcurrently(Config.ValidationStrategy validationStrategy) throws IOException {
+        this.assertSameIndsWhenSpilling(binder -> {
+            binder.config.validationStrategy = validationStrategy;
+            binder.config.numValidationThreads = 4;
+        });
+    }
+
+    @Test
+    void spillsOffHeapBuckets() throws IOException {
+        this.assertSameIndsWhenSpilling(binder -> binder.config.offHeapBuckets = true);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void findsNaryInds(boolean columnarInput) throws IOException {
+        Set<String> pINDs = this.run(this.writeNaryDataset(), binder -> {
+            binder.detectNary = true;
+            binder.config.columnarInput = columnarInput;
+        });
+
+        assertEquals(NARY_INDS, pINDs);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Config.ValidationStrategy.class)
+    void validatesNaryLevels(Config.ValidationStrategy validationStrategy) throws IOException {
+        Set<String> pINDs = this.run(this.writeNaryDataset(), binder -> {
+            binder.detectNary = true;
+            binder.config.validationStrategy = validationStrategy;
+            binder.config.numValidationThreads = 4;
+        });
+
+        assertEquals(NARY_INDS, pINDs);
+    }
+
+    @Test
+    void bucketizesNaryCombinationsFromTheInputFiles() throws IOException {
+        Set<String> pINDs = this.assertSameIndsAsDefault(binder -> binder.detectNary = true, binder -> binder.config.columnarInput = false);
+
+        assertTrue(pINDs.stream().anyMatch(pIND -> pIND.contains(",")), "The planted binary IND was not found");
+    }
+
+    @Test
+    void spillsNaryBuckets() throws IOException {
+        BINDERFile[] spillingBinder = new BINDERFile[1];
+        this.assertSameIndsAsDefault(binder -> binder.detectNary = true, binder -> {
+            binder.maxMemoryUsage = SPILLING_MEMORY;
+            binder.memoryCheckFrequency = 100;
+            spillingBinder[0] = binder;
+        });
+
+        assertTrue(spillingBinder[0].narySpillCounts.stream().flatMapToInt(Arrays::stream).sum() > 0, "The n-ary buckets were not spilled");
+    }
+
+    @Test
+    void readsTheColumnarCache() throws IOException {
+        BINDERFile[] cachingBinder = new BINDERFile[1];
+        // The first run builds the cache and the second run reuses it
+        for (int run = 0; run < 2; run++) {
+            Set<String> pINDs = this.assertSameIndsAsDefault(binder -> binder.detectNary = true, binder -> {
+                binder.config.columnarCache = true;
+                cachingBinder[0] = binder;
+            });
+            assertTrue(pINDs.stream().anyMatch(pIND -> pIND.contains(",")), "The planted binary IND was not found");
+        }
+
+        assertTrue(Arrays.stream(cachingBinder[0].tableCaches).allMatch(Objects::nonNull), "The tables were not read from the cache");
+    }
+
+    @Test
+    void parsesTheBytesOfTheInputFiles() throws IOException {
+        this.assertSameIndsAsDefault(binder -> binder.config.inputParser = Config.InputParser.BYTES);
+    }
+
+    @Test
+    void parsesTheBytesOfTheInputFilesForNaryCombinations() throws IOException {
+        Set<String> pINDs = this.assertSameIndsAsDefault(binder -> {
+            binder.detectNary = true;
+            binder.config.columnarInput = false;
+        }, binder -> binder.config.inputParser = Config.InputParser.BYTES);
+        assertTrue(pINDs.stream().anyMatch(pIND -> pIND.contains(",")), "The planted binary IND was not found");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void outputsUnaryIndsIncrementally(int numValidationThreads) throws IOException {
+        // Under the memory limit, the concurrent validation refines every level and hence validates one level at a time, so that pINDs can be output between them
+        Config config = this.createSyntheticDataset();
+        Set<String> expected = this.run(config, binder -> binder.config.numValidationThreads = numValidationThreads);
+        Set<String> pINDs = this.run(config, binder -> {
+            binder.maxMemoryUsage = SPILLING_MEMORY;
+            binder.memoryCheckFrequency = 100;
+            binder.config.numValidationThreads = numValidationThreads;
+            binder.config.incrementalUnaryOutput = true;
+        });
+
+        Map<String, Long> exactViolations = new HashMap<>();
+        for (String pIND : expected)
+            exactViolations.put(pIND.substring(0, pIND.indexOf(':')), Long.parseLong(pIND.substring(pIND.indexOf(':') + 1)));
+
+        int numBounds = 0;
+        for (String pIND : pINDs) {
+            String ind = pIND.substring(0, pIND.indexOf(':'));
+            String violations = pIND.substring(pIND.indexOf(':') + 1);
+            assertTrue(exactViolations.containsKey(ind), "Unexpected pIND " + pIND);
+            if (violations.startsWith("~")) {
+                assertTrue(Long.parseLong(violations.substring(1)) >= exactViolations.get(ind), "The bound of " + pIND + " is too low");
+                numBounds++;
+            } else {
+                assertEquals(exactViolations.get(ind), Long.parseLong(violations), pIND);
+            }
+        }
+        assertEquals(exactViolations.size(), pINDs.size());
+        assertTrue(numBounds > 0, "No pIND was output early");
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void splitsLargeColumnsIntoBucketPieces(int numValidationThreads) throws IOException {
+        // The memory limit splits the levels of the large columns into several pieces and refines them; it is only checked after the bucketing, so that no column is
+        // spilled, because spilled columns are not laid out adaptively
+        Config config = this.writeLargeColumnsDataset();
+        Set<String> expected = this.run(config, binder -> binder.config.numValidationThreads = numValidationThreads);
+        BINDERFile[] adaptiveBinder = new BINDERFile[1];
+        Set<String> pINDs = this.run(config, binder -> {
+            binder.maxMemoryUsage = 1L << 19;
+            binder.memoryCheckFrequency = Integer.MAX_VALUE;
+            binder.config.numValidationThreads = numValidationThreads;
+            binder.config.adaptiveBuckets = true;
+            adaptiveBinder[0] = binder;
+        });
+
+        assertTrue(expected.containsAll(Set.of("r1.a<=r2.x:0", "r1.b<=r2.x:0", "r1.c<=r2.x:1000")), "The planted pINDs were not found");
+        assertEquals(expected, pINDs);
+        assertTrue(Arrays.stream(adaptiveBinder[0].numBucketPieces).anyMatch(numPieces -> numPieces == Bucketizer.COMBINED), "No column was stored in one file");
+        assertTrue(Arrays.stream(adaptiveBinder[0].numBucketPieces).anyMatch(numPieces -> numPieces > 1), "No column was split into pieces");
+        assertTrue(Arrays.stream(adaptiveBinder[0].refinements).sum() > 0, "No bucket level was refined");
+    }
+
+    @ParameterizedTest
+    @ValueSource(doubles = {0.05, 1.0})
+    void prunesCandidatesWithSketches(double sketchSafetyMargin) throws IOException {
+        BINDERFile[] sketchingBinder = new BINDERFile[1];
+        this.assertSameIndsAsDefault(binder -> {
+            binder.config.sketchPruning = true;
+            binder.config.sketchSafetyMargin = sketchSafetyMargin;
+            sketchingBinder[0] = binder;
+        });
+
+        assertTrue(sketchingBinder[0].metrics.getCounter("candidatesPrunedBySketches") > 0, "The sketches discarded no candidate");
+    }
+
+    @Test
+    void prunesCandidatesWithStatistics() throws IOException {
+        BINDERFile[] pruningBinder = new BINDERFile[1];
+        this.assertSameIndsAsDefault(binder -> binder.config.statisticalPruning = false, binder -> {
+            binder.config.statisticalPruning = true;
+            pruningBinder[0] = binder;
+        });
+
+        assertTrue(pruningBinder[0].metrics.getCounter("candidatesPrunedByStatistics") > 0, "The statistics discarded no candidate");
+    }
+
+    @Test
+    void probesBloomFilters() throws IOException {
+        this.assertSameIndsAsDefault(binder -> binder.config.validationStrategy = Config.ValidationStrategy.BLOOM);
+    }
+}
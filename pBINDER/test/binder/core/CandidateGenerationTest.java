@@ -0,0 +1,203 @@
+package binder.core;
+
+import binder.structures.AttributeCombination;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compares the trie-based candidate generation with the string-based generation it replaced on random pINDs of a small schema.
+ */
+class CandidateGenerationTest {
+
+    private static final int NUM_TABLES = 2;
+    private static final int NUM_COLUMNS_PER_TABLE = 5;
+    private static final int NUM_LEVELS = 3;
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5, 6, 7, 8, 9, 10})
+    void generatesTheCandidatesOfTheBaseline(long seed) {
+        Random random = new Random(seed);
+        int numColumns = NUM_TABLES * NUM_COLUMNS_PER_TABLE;
+
+        BINDERFile binder = new BINDERFile();
+        binder.columnSizes = new ArrayList<>(numColumns);
+        for (int column = 0; column < numColumns; column++)
+            binder.columnSizes.add((column == numColumns - 1) ? 0L : 1L + random.nextInt(100));
+
+        // Random unary pINDs between different attributes
+        Map<AttributeCombination, List<AttributeCombination>> pINDs = new TreeMap<>();
+        for (int dep = 0; dep < numColumns; dep++) {
+            List<AttributeCombination> refs = new LinkedList<>();
+            for (int ref = 0; ref < numColumns; ref++)
+                if ((ref != dep) && (random.nextInt(4) > 0))
+                    refs.add(new AttributeCombination(ref / NUM_COLUMNS_PER_TABLE, 0, ref));
+            if (!refs.isEmpty())
+                pINDs.put(new AttributeCombination(dep / NUM_COLUMNS_PER_TABLE, 0, dep), refs);
+        }
+
+        for (int level = 0; level < NUM_LEVELS; level++) {
+            Map<AttributeCombination, List<AttributeCombination>> candidates = binder.generateNPlusOneAryCandidates(pINDs);
+            Map<AttributeCombination, List<AttributeCombination>> expected = generateBaselineCandidates(pINDs, binder.columnSizes);
+            assertEquals(toSets(expected), toSets(candidates), "Level " + (level + 2));
+            for (AttributeCombination dep : candidates.keySet())
+                assertEquals(expected.get(dep).size(), candidates.get(dep).size(), "Duplicate candidates for " + dep);
+
+            // Let a random part of the candidates be valid for the next level
+            pINDs = new TreeMap<>();
+            for (Map.Entry<AttributeCombination, List<AttributeCombination>> candidate : candidates.entrySet()) {
+                List<AttributeCombination> refs = new LinkedList<>();
+                for (AttributeCombination ref : candidate.getValue())
+                    if (random.nextInt(8) > 0)
+                        refs.add(ref);
+                if (!refs.isEmpty())
+                    pINDs.put(candidate.getKey(), refs);
+            }
+        }
+    }
+
+    private static Map<AttributeCombination, Set<AttributeCombination>> toSets(Map<AttributeCombination, List<AttributeCombination>> dep2ref) {
+        Map<AttributeCombination, Set<AttributeCombination>> sets = new TreeMap<>();
+        dep2ref.forEach((dep, refs) -> sets.put(dep, new TreeSet<>(refs)));
+        return sets;
+    }
+
+    /**
+     * The candidate generation as it was before the attribute trie, which looks up the subsets of a candidate by the string representation of its attribute
+     * combinations.
+     */
+    private static Map<AttributeCombination, List<AttributeCombination>> generateBaselineCandidates(Map<AttributeCombination, List<AttributeCombination>> naryDep2ref, List<Long> columnSizes) {
+        Map<AttributeCombination, List<AttributeCombination>> nPlusOneAryDep2ref = new HashMap<>();
+
+        Map<String, Set<String>> lastLayerLookup = new HashMap<>();
+        naryDep2ref.forEach((key, value) -> {
+            Set<String> referenced = new HashSet<>();
+            for (AttributeCombination ref : value) {
+                referenced.add(ref.toString());
+            }
+            lastLayerLookup.put(key.toString(), referenced);
+        });
+
+        if ((naryDep2ref == null) || (naryDep2ref.isEmpty()))
+            return nPlusOneAryDep2ref;
+
+        int previousSize = naryDep2ref.keySet().iterator().next().size();
+
+        List<AttributeCombination> deps = new ArrayList<>(naryDep2ref.keySet());
+        for (int i = 0; i < deps.size() - 1; i++) {
+            AttributeCombination depPivot = deps.get(i);
+            depExpansionLoop:
+            for (int j = i + 1; j < deps.size(); j++) {
+                AttributeCombination depExtension = deps.get(j);
+
+                if (depPivot.getTable() != depExtension.getTable())
+                    continue;
+
+                if (notSamePrefix(depPivot, depExtension))
+                    continue;
+
+                int depExtensionAttr = depExtension.getAttributes()[previousSize - 1];
+
+                List<String> depStrings = new ArrayList<>();
+                if (previousSize > 1) {
+                    int[] depAttributes = Arrays.copyOf(depPivot.getAttributes(), depPivot.getAttributes().length + 1);
+                    depAttributes[depAttributes.length - 1] = depExtensionAttr;
+                    for (int skipIndex = 0; skipIndex < depAttributes.length; skipIndex++) {
+                        StringBuilder attributeString = new StringBuilder();
+                        attributeString.append(depPivot.getTable()).append(": [");
+                        for (int k = 0; k < depAttributes.length; k++) {
+                            if (k == skipIndex) {
+                                continue;
+                            }
+                            attributeString.append(depAttributes[k]).append(", ");
+                        }
+                        attributeString.delete(attributeString.length() - 2, attributeString.length());
+                        attributeString.append(']');
+
+                        if (!lastLayerLookup.containsKey(attributeString.toString())) {
+                            continue depExpansionLoop;
+                        }
+                        depStrings.add(attributeString.toString());
+                    }
+                }
+
+                int depPivotAttr = depPivot.getAttributes()[previousSize - 1];
+
+                if ((previousSize == 1) && ((columnSizes.get(depPivotAttr) == 0) || (columnSizes.get(depExtensionAttr) == 0)))
+                    continue;
+
+                for (AttributeCombination refPivot : naryDep2ref.get(depPivot)) {
+                    refExpansionLoop:
+                    for (AttributeCombination refExtension : naryDep2ref.get(depExtension)) {
+
+                        if (refPivot.getTable() != refExtension.getTable())
+                            continue;
+
+                        if (notSamePrefix(refPivot, refExtension))
+                            continue;
+
+                        int refPivotAttr = refPivot.getAttributes()[previousSize - 1];
+                        int refExtensionAttr = refExtension.getAttributes()[previousSize - 1];
+
+                        if (refPivotAttr == refExtensionAttr)
+                            continue;
+
+                        if ((depPivotAttr == refExtensionAttr) || (depExtensionAttr == refPivotAttr))
+                            continue;
+
+                        if (previousSize > 1) {
+                            int[] refAttributes = Arrays.copyOf(refPivot.getAttributes(), refPivot.getAttributes().length + 1);
+                            refAttributes[refAttributes.length - 1] = refExtensionAttr;
+                            for (int skipIndex = 0; skipIndex < refAttributes.length; skipIndex++) {
+                                StringBuilder attributeString = new StringBuilder();
+                                attributeString.append(refPivot.getTable()).append(": [");
+                                for (int k = 0; k < refAttributes.length; k++) {
+                                    if (k == skipIndex) {
+                                        continue;
+                                    }
+                                    attributeString.append(refAttributes[k]).append(", ");
+                                }
+                                attributeString.delete(attributeString.length() - 2, attributeString.length());
+                                attributeString.append(']');
+
+                                if (!lastLayerLookup.get(depStrings.get(skipIndex)).contains(attributeString.toString())) {
+                                    continue refExpansionLoop;
+                                }
+                            }
+                        }
+
+                        AttributeCombination nPlusOneDep = new AttributeCombination(depPivot.getTable(), 0, depPivot.getAttributes(), depExtensionAttr);
+                        AttributeCombination nPlusOneRef = new AttributeCombination(refPivot.getTable(), 0, refPivot.getAttributes(), refExtensionAttr);
+
+                        if (!nPlusOneAryDep2ref.containsKey(nPlusOneDep))
+                            nPlusOneAryDep2ref.put(nPlusOneDep, new LinkedList<>());
+                        nPlusOneAryDep2ref.get(nPlusOneDep).add(nPlusOneRef);
+                    }
+                }
+            }
+        }
+        return nPlusOneAryDep2ref;
+    }
+
+    private static boolean notSamePrefix(AttributeCombination combination1, AttributeCombination combination2) {
+        for (int i = 0; i < combination1.size() - 1; i++) {
+            if (combination1.getAttributes()[i] != combination2.getAttributes()[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
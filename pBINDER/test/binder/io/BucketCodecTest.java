@@ -0,0 +1,118 @@
+package binder.io;
+
+import binder.runner.Config;
+import binder.structures.ValueCountMap;
+import binder.utils.HashUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BucketCodecTest {
+
+    @TempDir
+    File tempFolder;
+
+    private static ValueCountMap bucket(String... values) {
+        ValueCountMap bucket = new ValueCountMap();
+        for (int i = 0; i < values.length; i++)
+            bucket.add(values[i], i + 1);
+        return bucket;
+    }
+
+    private static Map<String, Long> readAll(BucketIterator iterator) throws IOException {
+        Map<String, Long> entries = new LinkedHashMap<>();
+        while (iterator.next()) {
+            assertEquals(HashUtils.hash(iterator.getValue()), iterator.getHash());
+            entries.merge(iterator.getValue(), iterator.getCount(), Long::sum);
+        }
+        iterator.close();
+        return entries;
+    }
+
+    @ParameterizedTest
+    @EnumSource(Config.BucketFormat.class)
+    void readsTheWrittenEntries(Config.BucketFormat bucketFormat) throws IOException {
+        BucketCodec codec = BucketCodec.forFormat(bucketFormat);
+        String filePath = new File(this.tempFolder, "bucket").getPath();
+
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 100000; i++)
+            longValue.append((char) ('a' + i % 26));
+        ValueCountMap bucket = bucket("a", "", "äöü", "😀", longValue.toString());
+        codec.write(filePath, bucket, null);
+
+        assertEquals(Map.of("a", 1L, "", 2L, "äöü", 3L, "😀", 4L, longValue.toString(), 5L), readAll(codec.read(filePath)));
+        assertNull(codec.read(new File(this.tempFolder, "missing").getPath()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Config.BucketFormat.class)
+    void appendsBlocksToTheFile(Config.BucketFormat bucketFormat) throws IOException {
+        BucketCodec codec = BucketCodec.forFormat(bucketFormat);
+        String filePath = new File(this.tempFolder, "bucket").getPath();
+
+        codec.write(filePath, bucket("c", "a", "b"), IntArrayList.of(1, 2));
+        codec.write(filePath, bucket("b", "d"), null);
+        codec.write(filePath, bucket(), null);
+
+        assertEquals(Map.of("a", 2L, "b", 4L, "d", 2L), readAll(codec.read(filePath)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Config.BucketFormat.class)
+    void readsEveryBlockAsRun(Config.BucketFormat bucketFormat) throws IOException {
+        BucketCodec codec = BucketCodec.forFormat(bucketFormat);
+        String filePath = new File(this.tempFolder, "bucket").getPath();
+
+        ValueCountMap first = bucket("c", "a", "b");
+        ValueCountMap second = bucket("b", "d");
+        codec.write(filePath, first, IntArrayList.of(1, 2, 0));
+        codec.write(filePath, second, null);
+        codec.write(filePath, bucket(), null);
+
+        List<BucketIterator> runs = codec.readRuns(filePath);
+        assertEquals(3, runs.size());
+        assertEquals(List.of("a", "b", "c"), new ArrayList<>(readAll(runs.get(0)).keySet()));
+        assertEquals(Map.of("b", 1L, "d", 2L), readAll(runs.get(1)));
+        assertTrue(readAll(runs.get(2)).isEmpty());
+        assertTrue(codec.readRuns(new File(this.tempFolder, "missing").getPath()).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(Config.BucketFormat.class)
+    void mergesTheSortedRunsOfABucket(Config.BucketFormat bucketFormat) throws IOException {
+        BucketCodec codec = BucketCodec.forFormat(bucketFormat);
+        String filePath = new File(this.tempFolder, "bucket").getPath();
+
+        ValueCountMap first = bucket("e", "a", "c");
+        first.sort();
+        codec.write(filePath, first, null);
+        ValueCountMap second = bucket("b", "c", "f");
+        codec.write(filePath, second, null);
+        ValueCountMap third = bucket("a", "f");
+        codec.write(filePath, third, null);
+
+        BucketIterator merger = SortedRunMerger.of(codec.readRuns(filePath));
+        List<String> values = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        while (merger.next()) {
+            values.add(merger.getValue());
+            counts.add(merger.getCount());
+            assertEquals(HashUtils.hash(merger.getValue()), merger.getHash());
+        }
+        merger.close();
+
+        assertEquals(List.of("a", "b", "c", "e", "f"), values);
+        assertEquals(List.of(2L + 1L, 1L, 3L + 2L, 1L, 3L + 2L), counts);
+    }
+}
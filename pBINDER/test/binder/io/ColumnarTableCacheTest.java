@@ -0,0 +1,119 @@
+package binder.io;
+
+import binder.runner.Config;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTableCacheTest {
+
+    private static final String RELATION_NAME = "table.csv";
+    private static final int NUM_COLUMNS = 3;
+
+    @TempDir
+    File tempFolder;
+
+    private Config config;
+    private File cacheFolder;
+
+    @BeforeEach
+    void writeTable() throws IOException {
+        this.config = new Config(Config.Dataset.TEST, 1.0, Config.NullHandling.SUBSET, Config.DuplicateHandling.AWARE);
+        this.config.datasetFolder = this.tempFolder.getPath() + File.separator;
+        this.config.datasetName = "dataset";
+        this.cacheFolder = new File(this.tempFolder, "cache");
+
+        StringBuilder table = new StringBuilder("a,b,c\n");
+        for (int row = 0; row < 100; row++)
+            table.append(row % 7).append(",äöü-").append(row).append(',').append((row % 3 == 0) ? "" : "a longer value " + (row % 10)).append('\n');
+        this.writeTable(table.toString());
+    }
+
+    private void writeTable(String table) throws IOException {
+        File datasetFolder = new File(this.tempFolder, this.config.datasetName);
+        datasetFolder.mkdirs();
+        Files.writeString(new File(datasetFolder, RELATION_NAME).toPath(), table, StandardCharsets.UTF_8);
+    }
+
+    private static List<List<String>> readAll(RecordIterator iterator) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        while (iterator.next()) {
+            List<String> record = new ArrayList<>();
+            for (int column = 0; column < NUM_COLUMNS; column++)
+                record.add(iterator.getValue(column));
+            records.add(record);
+        }
+        iterator.close();
+        return records;
+    }
+
+    private static BitSet allColumns() {
+        BitSet projection = new BitSet();
+        projection.set(0, NUM_COLUMNS);
+        return projection;
+    }
+
+    @Test
+    void readsTheRecordsOfTheInputFile() throws IOException {
+        List<List<String>> expected = readAll(RecordIterator.openFile(RELATION_NAME, this.config, -1));
+        ColumnarTableCache cache = ColumnarTableCache.build(this.cacheFolder, RELATION_NAME, this.config, NUM_COLUMNS, Long.MAX_VALUE);
+
+        assertEquals(100, cache.getNumRecords());
+        assertEquals(expected, readAll(cache.iterator(allColumns(), -1)));
+        assertEquals(expected.subList(0, 10), readAll(cache.iterator(allColumns(), 10)));
+    }
+
+    @Test
+    void readsValuesAcrossHeapSegments() throws IOException {
+        List<List<String>> expected = readAll(RecordIterator.openFile(RELATION_NAME, this.config, -1));
+        ColumnarTableCache cache = ColumnarTableCache.build(this.cacheFolder, RELATION_NAME, this.config, NUM_COLUMNS, Long.MAX_VALUE);
+
+        // With segments of four bytes, most values span two or more segments
+        assertEquals(expected, readAll(cache.iterator(allColumns(), -1, 2)));
+    }
+
+    @Test
+    void readsOnlyTheProjectedColumns() throws IOException {
+        ColumnarTableCache cache = ColumnarTableCache.build(this.cacheFolder, RELATION_NAME, this.config, NUM_COLUMNS, Long.MAX_VALUE);
+        BitSet projection = new BitSet();
+        projection.set(1);
+
+        List<List<String>> records = readAll(cache.iterator(projection, -1));
+        assertEquals(Arrays.asList(null, "äöü-0", null), records.get(0));
+    }
+
+    @Test
+    void isReusedUntilTheInputChanges() throws IOException {
+        ColumnarTableCache.build(this.cacheFolder, RELATION_NAME, this.config, NUM_COLUMNS, Long.MAX_VALUE);
+        assertNotNull(ColumnarTableCache.open(this.cacheFolder, RELATION_NAME, this.config, NUM_COLUMNS));
+
+        this.config.separator = ';';
+        assertNull(ColumnarTableCache.open(this.cacheFolder, RELATION_NAME, this.config, NUM_COLUMNS));
+        this.config.separator = ',';
+
+        this.writeTable("a,b,c\n1,2,3\n");
+        assertNull(ColumnarTableCache.open(this.cacheFolder, RELATION_NAME, this.config, NUM_COLUMNS));
+    }
+
+    @Test
+    void givesUpIfTheDictionaryExceedsTheMemory() throws IOException {
+        StringBuilder table = new StringBuilder("a,b,c\n");
+        for (int row = 0; row < 10000; row++)
+            table.append(row).append(",x,y\n");
+        this.writeTable(table.toString());
+
+        assertNull(ColumnarTableCache.build(this.cacheFolder, RELATION_NAME, this.config, NUM_COLUMNS, 1024));
+        assertNull(ColumnarTableCache.open(this.cacheFolder, RELATION_NAME, this.config, NUM_COLUMNS));
+    }
+}
@@ -0,0 +1,31 @@
+package binder.io;
+
+import binder.structures.PartialIND;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvResultWriterTest {
+
+    @TempDir
+    File tempFolder;
+
+    @Test
+    void quotesNamesThatContainSeparatorsOrQuotes() throws IOException {
+        File resultFile = new File(this.tempFolder, "results.csv");
+        try (CsvResultWriter writer = new CsvResultWriter(resultFile.getPath(), ',', '\0')) {
+            writer.open(new String[]{"r,1", "r2"}, List.of("a", "b;c", "say \"x\"", "d"));
+            writer.receive(new PartialIND(0, new int[]{0, 1}, 1, new int[]{2, 3}, 1, true, 4));
+        }
+
+        List<String> lines = Files.readAllLines(resultFile.toPath());
+        assertEquals("dependent_table,dependent_columns,referenced_table,referenced_columns,violations,exact_violations,coverage", lines.get(0));
+        assertEquals("\"r,1\",\"a;\"\"b;c\"\"\",r2,\"\"\"say \"\"\"\"x\"\"\"\"\"\";d\",1,true,0.75", lines.get(1));
+    }
+}
@@ -0,0 +1,74 @@
+package binder.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTokenizerTest {
+
+    private static List<List<String>> tokenize(String input, boolean strictQuotes, boolean ignoreLeadingWhiteSpaces, boolean maskLineBreaks) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), ',', '"', '\\', strictQuotes,
+                ignoreLeadingWhiteSpaces, maskLineBreaks)) {
+            while (tokenizer.next()) {
+                List<String> record = new ArrayList<>();
+                for (int index = 0; index < tokenizer.numberOfValues(); index++)
+                    record.add(tokenizer.getValue(index));
+                records.add(record);
+            }
+        }
+        return records;
+    }
+
+    private static List<List<String>> tokenize(String input) throws IOException {
+        return tokenize(input, false, true, false);
+    }
+
+    @Test
+    void splitsRecordsAndValues() throws IOException {
+        assertEquals(List.of(List.of("a", "b", ""), List.of("", "äöü"), List.of("😀")), tokenize("a,b,\n,äöü\n😀"));
+        assertEquals(List.of(List.of("a", "b"), List.of("c")), tokenize("a,b\r\nc\r\n"));
+        assertEquals(List.of(List.of("a\rb")), tokenize("a\rb"));
+        assertEquals(List.of(), tokenize(""));
+    }
+
+    @Test
+    void unquotesValues() throws IOException {
+        assertEquals(List.of(List.of("a,b", "say \"hi\"", "line\nbreak", "")), tokenize("\"a,b\",\"say \"\"hi\"\"\",\"line\nbreak\",\"\""));
+        assertEquals(List.of(List.of("quoted", " x")), tokenize("  \"quoted\", x"));
+        assertEquals(List.of(List.of("  quoted")), tokenize("  \"quoted\"", false, false, false));
+        assertEquals(List.of(List.of("line\0break")), tokenize("\"line\nbreak\"", false, true, true));
+    }
+
+    @Test
+    void unescapesValues() throws IOException {
+        assertEquals(List.of(List.of("a\"b", "c\\d", "\"e\"")), tokenize("a\\\"b,c\\\\d,\"\\\"e\\\"\""));
+        assertEquals(List.of(List.of("\\x")), tokenize("\\x"));
+    }
+
+    @Test
+    void dropsCharactersOutsideOfStrictQuotes() throws IOException {
+        assertEquals(List.of(List.of("b", "", "d\"e")), tokenize("a\"b\"c,x,\"d\\\"e\"\\\"", true, true, false));
+    }
+
+    @Test
+    void failsOnUnterminatedQuotes() {
+        assertThrows(IOException.class, () -> tokenize("\"open"));
+    }
+
+    @Test
+    void comparesValuesByTheirBytes() throws IOException {
+        try (CsvTokenizer tokenizer = new CsvTokenizer(new ByteArrayInputStream("\\N,x".getBytes(StandardCharsets.UTF_8)), ',', '"', '\0', false, false, false)) {
+            assertTrue(tokenizer.next());
+            assertTrue(tokenizer.valueEquals(0, "\\N".getBytes(StandardCharsets.UTF_8)));
+            assertFalse(tokenizer.valueEquals(1, "\\N".getBytes(StandardCharsets.UTF_8)));
+            assertFalse(tokenizer.next());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package binder.io;
+
+import binder.structures.ValueCountMap;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SortedRunMergerTest {
+
+    private static BucketIterator run(String... values) {
+        ValueCountMap bucket = new ValueCountMap();
+        for (String value : values)
+            bucket.add(value, 1);
+        return SortedRunMerger.of(bucket);
+    }
+
+    @Test
+    void mergesRunsInTheOrderOfStrings() throws IOException {
+        BucketIterator merger = SortedRunMerger.of(List.of(run("b", "😀", "a"), run("�", "a", "c"), run(), run("é", "c")));
+
+        List<String> values = new ArrayList<>();
+        List<Long> counts = new ArrayList<>();
+        while (merger.next()) {
+            values.add(merger.getValue());
+            counts.add(merger.getCount());
+        }
+        merger.close();
+
+        assertEquals(List.of("a", "b", "c", "é", "😀", "�"), values);
+        assertEquals(List.of(2L, 1L, 2L, 1L, 1L, 1L), counts);
+    }
+
+    @Test
+    void returnsASingleRunItself() throws IOException {
+        BucketIterator run = run("a");
+
+        assertSame(run, SortedRunMerger.of(List.of(run)));
+        assertNull(SortedRunMerger.of(List.of()));
+    }
+}
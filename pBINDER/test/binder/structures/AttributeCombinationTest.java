@@ -0,0 +1,56 @@
+package binder.structures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeCombinationTest {
+
+    @Test
+    void copiesTheAttributes() {
+        int[] attributes = {1, 2};
+        AttributeCombination combination = new AttributeCombination(0, 0L, attributes);
+        int hash = combination.hashCode();
+        attributes[0] = 3;
+
+        assertArrayEquals(new int[]{1, 2}, combination.getAttributes());
+        assertEquals(hash, combination.hashCode());
+        assertEquals(new AttributeCombination(0, 0L, 1, 2), combination);
+    }
+
+    @Test
+    void extendsTheAttributes() {
+        int[] attributes = {1, 2};
+        AttributeCombination combination = new AttributeCombination(0, 0L, attributes, 3);
+        attributes[0] = 4;
+
+        assertArrayEquals(new int[]{1, 2, 3}, combination.getAttributes());
+        assertEquals(new AttributeCombination(0, 0L, 1, 2, 3), combination);
+        assertEquals(new AttributeCombination(0, 0L, 1, 2, 3).hashCode(), combination.hashCode());
+    }
+
+    @Test
+    void isIdentifiedByItsTableAndTheOrderOfItsAttributes() {
+        AttributeCombination combination = new AttributeCombination(0, 5L, 1, 2);
+
+        assertEquals(new AttributeCombination(0, 0L, 1, 2), combination);
+        assertNotEquals(new AttributeCombination(1, 5L, 1, 2), combination);
+        assertNotEquals(new AttributeCombination(0, 5L, 2, 1), combination);
+        assertNotEquals(new AttributeCombination(0, 5L, 1, 2, 3), combination);
+    }
+
+    @Test
+    void sortsByTableSizeAndAttributes() {
+        List<AttributeCombination> expected = List.of(new AttributeCombination(0, 0L, 2), new AttributeCombination(0, 0L, 1, 3), new AttributeCombination(0, 0L, 2, 1),
+                new AttributeCombination(0, 0L, 0, 1, 2), new AttributeCombination(1, 0L, 0));
+        List<AttributeCombination> combinations = new ArrayList<>(expected);
+        Collections.reverse(combinations);
+        combinations.sort(AttributeCombination::compareTo);
+
+        assertEquals(expected, combinations);
+    }
+}
@@ -0,0 +1,56 @@
+package binder.structures;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeTrieTest {
+
+    @Test
+    void storesAndReplacesValues() {
+        AttributeTrie<String> trie = new AttributeTrie<>();
+        trie.put(0, new int[]{1, 2}, "first");
+        trie.put(0, new int[]{1, 2}, "second");
+        trie.put(1, new int[]{1, 2}, "other table");
+
+        assertEquals("second", trie.get(0, new int[]{1, 2}, -1));
+        assertEquals("other table", trie.get(1, new int[]{1, 2}, -1));
+        assertNull(trie.get(0, new int[]{2, 1}, -1));
+        assertNull(trie.get(2, new int[]{1, 2}, -1));
+        assertEquals(List.of("second"), trie.getValuesWithPrefix(0, new int[]{1}, 1));
+    }
+
+    @Test
+    void looksUpCombinationsWithoutOneAttribute() {
+        AttributeTrie<String> trie = new AttributeTrie<>();
+        trie.put(0, new int[]{1, 2}, "12");
+        trie.put(0, new int[]{1, 3}, "13");
+        trie.put(0, new int[]{2, 3}, "23");
+
+        int[] attributes = {1, 2, 3};
+        assertEquals("23", trie.get(0, attributes, 0));
+        assertEquals("13", trie.get(0, attributes, 1));
+        assertEquals("12", trie.get(0, attributes, 2));
+        assertNull(trie.get(0, attributes, -1));
+    }
+
+    @Test
+    void groupsValuesByPrefix() {
+        AttributeTrie<String> trie = new AttributeTrie<>();
+        trie.put(0, new int[]{1, 2}, "12");
+        trie.put(0, new int[]{1, 3}, "13");
+        trie.put(0, new int[]{2, 3}, "23");
+        trie.put(1, new int[]{5, 6}, "56");
+
+        assertEquals(List.of("12", "13"), trie.getValuesWithPrefix(0, new int[]{1, 4}, 1));
+        assertEquals(List.of(), trie.getValuesWithPrefix(0, new int[]{3}, 1));
+        assertEquals(List.of(), trie.getValuesWithPrefix(2, new int[]{1}, 1));
+
+        Set<List<String>> groups = new HashSet<>(trie.getPrefixGroups());
+        assertEquals(Set.of(List.of("12", "13"), List.of("23"), List.of("56")), groups);
+    }
+}
@@ -0,0 +1,55 @@
+package binder.structures;
+
+import binder.utils.HashUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @TempDir
+    File tempFolder;
+
+    @Test
+    void neverMissesAddedValues() {
+        BloomFilter filter = new BloomFilter(10000, 10);
+        for (int i = 0; i < 10000; i++)
+            filter.add(HashUtils.hash("value" + i));
+
+        for (int i = 0; i < 10000; i++)
+            assertTrue(filter.mightContain(HashUtils.hash("value" + i)));
+
+        int falseHits = 0;
+        for (int i = 0; i < 10000; i++)
+            if (filter.mightContain(HashUtils.hash("other" + i))) falseHits++;
+        // Ten bits per value cause about one percent of false hits
+        assertTrue(falseHits < 300, "false hits: " + falseHits);
+    }
+
+    @Test
+    void isSizedByTheExpectedValues() {
+        assertEquals(8, BloomFilter.sizeInBytes(0, 10));
+        assertEquals(157 * 8, BloomFilter.sizeInBytes(1000, 10));
+    }
+
+    @Test
+    void survivesWritingAndReading() throws IOException {
+        BloomFilter filter = new BloomFilter(100, 8);
+        for (int i = 0; i < 100; i++)
+            filter.add(HashUtils.hash(Integer.toString(i)));
+
+        String filePath = new File(this.tempFolder, "filter").getPath();
+        filter.write(filePath);
+        BloomFilter read = BloomFilter.read(filePath);
+
+        for (int i = 0; i < 1000; i++) {
+            long hash = HashUtils.hash(Integer.toString(i));
+            assertEquals(filter.mightContain(hash), read.mightContain(hash));
+        }
+        assertNull(BloomFilter.read(new File(this.tempFolder, "missing").getPath()));
+    }
+}
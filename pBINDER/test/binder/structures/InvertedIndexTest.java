@@ -0,0 +1,63 @@
+package binder.structures;
+
+import binder.utils.HashUtils;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+
+    private static ValueCountMap bucket(String... values) {
+        ValueCountMap bucket = new ValueCountMap();
+        for (String value : values)
+            bucket.add(value, 1);
+        return bucket;
+    }
+
+    @Test
+    void groupsTheAttributesOfEachValue() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(0, bucket("a", "b", "b"));
+        index.add(1, bucket("b", "c"));
+        index.add(2, bucket("a", "b", "c"));
+
+        assertEquals(3, index.size());
+
+        IntArrayList group = new IntArrayList();
+        LongArrayList occurrences = new LongArrayList();
+        BitSet members = new BitSet();
+        // The values are numbered in the order of their first occurrence, and the postings of a value are returned from the last to the first
+        index.getGroup(1, group, occurrences, members);
+        assertEquals(IntArrayList.of(2, 1, 0), group);
+        assertEquals(LongArrayList.of(1, 1, 2), occurrences);
+        assertEquals(BitSet.valueOf(new long[]{0b111}), members);
+
+        group.clear();
+        occurrences.clear();
+        members.clear();
+        index.getGroup(2, group, occurrences, members);
+        assertEquals(IntArrayList.of(2, 1), group);
+    }
+
+    @Test
+    void addsOnlyContainedValues() {
+        InvertedIndex index = new InvertedIndex();
+        index.add(0, bucket("a"));
+
+        assertTrue(index.addIfContained(1, "a", HashUtils.hash("a"), 3));
+        assertFalse(index.addIfContained(1, "z", HashUtils.hash("z"), 1));
+        // Repeated values of the same attribute, e.g. from several blocks of a spilled bucket, are summed up
+        assertTrue(index.addIfContained(1, "a", HashUtils.hash("a"), 2));
+        assertEquals(1, index.size());
+
+        IntArrayList group = new IntArrayList();
+        LongArrayList occurrences = new LongArrayList();
+        index.getGroup(0, group, occurrences, new BitSet());
+        assertEquals(IntArrayList.of(1, 0), group);
+        assertEquals(LongArrayList.of(5, 1), occurrences);
+    }
+}
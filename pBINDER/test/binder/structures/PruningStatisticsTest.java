@@ -0,0 +1,70 @@
+package binder.structures;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PruningStatisticsTest {
+
+    private static PruningStatistics statistics(String[]... buckets) {
+        PruningStatistics statistics = new PruningStatistics(buckets.length);
+        for (int bucketNumber = 0; bucketNumber < buckets.length; bucketNumber++) {
+            ValueCountMap bucket = new ValueCountMap();
+            for (String value : buckets[bucketNumber])
+                bucket.add(value, 1);
+            statistics.update(bucketNumber, bucket);
+        }
+        return statistics;
+    }
+
+    @Test
+    void keepsTheRangesOfTheColumn() {
+        PruningStatistics statistics = statistics(new String[]{"b", "ccc"}, new String[]{"a", "dd"});
+
+        assertEquals("a", statistics.getMinValue());
+        assertEquals("dd", statistics.getMaxValue());
+        assertEquals(1, statistics.getMinLength());
+        assertEquals(3, statistics.getMaxLength());
+    }
+
+    @Test
+    void acceptsIncludedColumns() {
+        PruningStatistics dependent = statistics(new String[]{"b", "c"}, new String[]{"x"});
+        PruningStatistics referenced = statistics(new String[]{"a", "b", "c", "d"}, new String[]{"w", "x", "y"});
+
+        assertTrue(dependent.isValid(referenced, new long[]{2, 1}, 0));
+    }
+
+    @Test
+    void countsViolationsOfDisjointBuckets() {
+        PruningStatistics dependent = statistics(new String[]{"b", "c"}, new String[]{"x", "z"});
+        // The second bucket of the referenced column is empty, the first one does not overlap the value range of the dependent bucket
+        PruningStatistics referenced = statistics(new String[]{"d", "e"}, new String[]{});
+
+        assertFalse(dependent.isValid(referenced, new long[]{2, 2}, 3));
+        assertTrue(dependent.isValid(referenced, new long[]{2, 2}, 4));
+    }
+
+    @Test
+    void countsViolationsOutOfRange() {
+        PruningStatistics dependent = statistics(new String[]{"a", "bb", "zzzz"});
+        PruningStatistics referenced = statistics(new String[]{"b", "bb", "c"});
+
+        // "a" and "zzzz" are outside of the value range and "zzzz" outside of the length range
+        assertFalse(dependent.isValid(referenced, new long[]{3}, 1));
+        assertTrue(dependent.isValid(referenced, new long[]{3}, 2));
+    }
+
+    @Test
+    void countsSurplusDistinctValues() {
+        PruningStatistics dependent = statistics(new String[]{"b", "c", "d", "e"});
+        PruningStatistics referenced = statistics(new String[]{"b", "e"});
+
+        assertFalse(dependent.isValid(referenced, new long[]{4}, 1));
+        assertTrue(dependent.isValid(referenced, new long[]{4}, 2));
+
+        // Blocks of a spilled bucket may share values, so only the exact count of distinct values proves the surplus
+        dependent.setDistinctValues(0, 2);
+        assertTrue(dependent.isValid(referenced, new long[]{4}, 0));
+    }
+}
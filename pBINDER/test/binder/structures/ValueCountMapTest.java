@@ -0,0 +1,143 @@
+package binder.structures;
+
+import binder.utils.HashUtils;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValueCountMapTest {
+
+    private static final BufferAllocator DIRECT = new BufferAllocator() {
+        @Override
+        public ByteBuffer allocate(int capacity) {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+
+        @Override
+        public void free(ByteBuffer buffer) {
+        }
+    };
+
+    @Test
+    void duplicatesSumTheirCounts() {
+        ValueCountMap map = new ValueCountMap();
+        assertTrue(map.add("a", 1));
+        assertTrue(map.add("b", 2));
+        assertFalse(map.add("a", 3));
+
+        assertEquals(2, map.size());
+        assertEquals(4, map.get("a"));
+        assertEquals(2, map.get("b"));
+        assertEquals(0, map.get("c"));
+        assertEquals(0, map.indexOf("a"));
+        assertEquals(HashUtils.hash("a"), map.getHash(0));
+    }
+
+    @Test
+    void collidingHashesAreKeptApart() {
+        ValueCountMap map = new ValueCountMap();
+        // All values get the same hash, so they all probe the same slots
+        for (int i = 0; i < 1000; i++)
+            map.add("value" + i, 42L, i);
+        for (int i = 0; i < 1000; i++)
+            map.add("value" + i, 42L, 1);
+
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i++) {
+            int index = map.indexOf("value" + i, 42L);
+            assertEquals(i, index);
+            assertEquals("value" + i, map.getValue(index));
+            assertEquals(i + 1, map.getCount(index));
+        }
+        assertEquals(-1, map.indexOf("value1000", 42L));
+    }
+
+    @Test
+    void growsBeyondItsInitialCapacity() {
+        this.growsBeyondItsInitialCapacity(new ValueCountMap());
+        this.growsBeyondItsInitialCapacity(new ValueCountMap(DIRECT));
+    }
+
+    private void growsBeyondItsInitialCapacity(ValueCountMap map) {
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            map.add(Integer.toString(i), 1);
+            longValue.append('x');
+        }
+        map.add(longValue.toString(), 1);
+
+        assertEquals(10001, map.size());
+        for (int i = 0; i < 10000; i++)
+            assertEquals(Integer.toString(i), map.getValue(i));
+        assertEquals(longValue.toString(), map.getValue(10000));
+        map.release();
+    }
+
+    @Test
+    void copiesEntriesOfOtherMaps() {
+        ValueCountMap source = new ValueCountMap();
+        source.add("x", 5);
+        source.add("y", 6);
+
+        ValueCountMap target = new ValueCountMap();
+        target.add("y", 1);
+        assertEquals(0, target.add(source, 1, source.getCount(1)));
+        assertEquals(1, target.add(source, 0, source.getCount(0)));
+
+        assertEquals(7, target.get("y"));
+        assertEquals(5, target.get("x"));
+        assertEquals(1, target.indexOf(source, 0));
+    }
+
+    @Test
+    void lookupsDoNotModifyTheMap() {
+        ValueCountMap map = new ValueCountMap();
+        map.add("stored", 1);
+        long sizeInBytes = map.sizeInBytes();
+
+        assertEquals(-1, map.indexOf("a value that is much longer than the buffer of the map has room for at the moment"));
+        assertEquals(sizeInBytes, map.sizeInBytes());
+        assertEquals("stored", map.getValue(0));
+        map.add("next", 1);
+        assertEquals("next", map.getValue(1));
+    }
+
+    @Test
+    void sortsLikeStrings() {
+        this.sortsLikeStrings(new ValueCountMap());
+        this.sortsLikeStrings(new ValueCountMap(DIRECT));
+    }
+
+    private void sortsLikeStrings(ValueCountMap map) {
+        List<String> values = new ArrayList<>(List.of("b", "a", "", "ab", "é", "�", "😀", "Z", "aa", "a long value with more than eight bytes",
+                "a long value with more than eight bytes, too"));
+        for (String value : values)
+            map.add(value, value.length());
+
+        for (int a = 0; a < values.size(); a++)
+            for (int b = 0; b < values.size(); b++)
+                assertEquals(Integer.signum(values.get(a).compareTo(values.get(b))), Integer.signum(map.compare(a, b)), values.get(a) + " vs " + values.get(b));
+
+        map.sort();
+        values.sort(String::compareTo);
+        for (int index = 0; index < values.size(); index++) {
+            assertEquals(values.get(index), map.getValue(index));
+            assertEquals(values.get(index).length(), map.getCount(index));
+            assertEquals(index, map.indexOf(values.get(index)));
+        }
+    }
+
+    @Test
+    void clearRemovesAllEntries() {
+        ValueCountMap map = new ValueCountMap();
+        map.add("a", 1);
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertFalse(map.contains("a"));
+    }
+}
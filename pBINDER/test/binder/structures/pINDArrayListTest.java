@@ -0,0 +1,83 @@
+package binder.structures;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class pINDArrayListTest {
+
+    private static Map<Integer, Long> toMap(pINDArrayList list) {
+        Map<Integer, Long> candidates = new HashMap<>();
+        pINDArrayList.pINDIterator iterator = list.elementIterator();
+        while (iterator.hasNext()) {
+            pINDArrayList.pINDElement element = iterator.next();
+            candidates.put(element.getReferenced(), element.getViolationsLeft());
+        }
+        return candidates;
+    }
+
+    @Test
+    void seedsAllAttributesButTheExceptedOne() {
+        pINDArrayList list = new pINDArrayList(3, IntArrayList.of(0, 1, 2, 3), 2);
+
+        assertEquals(3, list.size());
+        assertEquals(3, list.getInitialViolations());
+        assertEquals(Map.of(0, 3L, 1, 3L, 3, 3L), toMap(list));
+
+        BitSet bitSet = new BitSet();
+        list.setOwnValuesIn(bitSet);
+        assertEquals(BitSet.valueOf(new long[]{0b1011}), bitSet);
+    }
+
+    @Test
+    void addsCandidates() {
+        pINDArrayList list = new pINDArrayList(5);
+        assertTrue(list.isEmpty());
+        for (int referenced = 0; referenced < 10; referenced++)
+            list.add(referenced, referenced);
+
+        assertEquals(10, list.size());
+        assertEquals(4L, toMap(list).get(4));
+
+        pINDArrayList seeded = new pINDArrayList(1, IntArrayList.of(7), -1);
+        seeded.add(8, 0);
+        assertEquals(Map.of(7, 1L, 8, 0L), toMap(seeded));
+    }
+
+    @Test
+    void removesCandidatesWhileIterating() {
+        pINDArrayList list = new pINDArrayList(2, IntArrayList.of(0, 1, 2, 3, 4), -1);
+
+        pINDArrayList.pINDIterator iterator = list.elementIterator();
+        while (iterator.hasNext()) {
+            pINDArrayList.pINDElement element = iterator.next();
+            // Every candidate is visited once, including the last candidate that is moved into the place of a removed one
+            if (element.getReferenced() % 2 == 0) iterator.remove();
+        }
+        assertEquals(Map.of(1, 2L, 3, 2L), toMap(list));
+
+        iterator = list.elementIterator();
+        while (iterator.hasNext()) iterator.next();
+        iterator.remove();
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    void decreasesViolationsLeft() {
+        pINDArrayList list = new pINDArrayList(4, IntArrayList.of(0, 1), -1);
+
+        pINDArrayList.pINDIterator iterator = list.elementIterator();
+        pINDArrayList.pINDElement element = iterator.next();
+        assertEquals(1, element.decreaseViolationsLeft(3));
+        assertEquals(-1, element.decreaseViolationsLeftAtomically(2));
+        element = iterator.next();
+        assertEquals(4, element.getViolationsLeft());
+
+        assertEquals(Map.of(0, -1L, 1, 4L), toMap(list));
+    }
+}
@@ -0,0 +1,38 @@
+package binder.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class HashUtilsTest {
+
+    @Test
+    void equalValuesHaveEqualHashes() {
+        assertEquals(HashUtils.hash("value"), HashUtils.hash(new String("value".toCharArray())));
+        assertEquals(HashUtils.hash(""), HashUtils.hash(""));
+    }
+
+    @Test
+    void differentValuesHaveDifferentHashes() {
+        assertNotEquals(HashUtils.hash("a"), HashUtils.hash("b"));
+        assertNotEquals(HashUtils.hash("abcd"), HashUtils.hash("abcde"));
+    }
+
+    @Test
+    void unpairedSurrogatesHashLikeTheirUtf8Encoding() {
+        String[] values = {"\uD800x", "x\uDC00", "abc\uD800", "\uDC00\uD800", "ab😀cd\uD800"};
+        for (String value : values) {
+            String decoded = new String(value.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+            assertEquals(HashUtils.hash(decoded), HashUtils.hash(value), value);
+        }
+        assertEquals(HashUtils.hash("?x"), HashUtils.hash("\uD800x"));
+    }
+
+    @Test
+    void surrogatePairsAreHashedByTheirChars() {
+        assertNotEquals(HashUtils.hash("??"), HashUtils.hash("😀"));
+    }
+}